@@ -0,0 +1,201 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.sqlite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@link SqlitePerformanceProfileBenchmark} measures the write and read throughput of a
+ * sqlite file database for all {@link SqlitePerformanceProfile} values. The write benchmark inserts
+ * one row per transaction, so it measures mostly the cost of the journal and the sync of a commit.
+ * The read benchmark selects one row by its primary key and a range of rows over an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlitePerformanceProfileBenchmark
+{
+
+	/** The number of rows that are inserted before the measurement. */
+	private static final int ROW_COUNT = 100_000;
+
+	/** The performance profile of the connection. */
+	@Param({ "DURABLE", "BALANCED", "BULK_LOAD", "READ_HEAVY" })
+	public SqlitePerformanceProfile profile;
+
+	/** The directory of the database file. */
+	private Path directory;
+
+	/** The connection with the pragmas of the profile. */
+	private Connection connection;
+
+	/** The prepared insert statement. */
+	private PreparedStatement insertStatement;
+
+	/** The prepared select statement by the primary key. */
+	private PreparedStatement selectByIdStatement;
+
+	/** The prepared select statement of a range over an index. */
+	private PreparedStatement selectRangeStatement;
+
+	/**
+	 * Creates the database and inserts the rows in one transaction
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 * @throws ClassNotFoundException
+	 *             is thrown if the driver was not found
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException, ClassNotFoundException
+	{
+		directory = Files.createTempDirectory("sqlite-benchmark");
+		connection = SqliteExtensions.getFileConnection(directory.toString(), "benchmark.db",
+			profile);
+		try (Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("CREATE TABLE accounts (id INTEGER PRIMARY KEY, "
+				+ "name TEXT NOT NULL, balance REAL NOT NULL)");
+			statement.executeUpdate("CREATE INDEX accounts_balance ON accounts (balance)");
+		}
+		insertStatement = connection
+			.prepareStatement("INSERT INTO accounts (name, balance) VALUES (?, ?)");
+		connection.setAutoCommit(false);
+		for (int i = 0; i < ROW_COUNT; i++)
+		{
+			insert();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+		selectByIdStatement = connection
+			.prepareStatement("SELECT name, balance FROM accounts WHERE id = ?");
+		selectRangeStatement = connection
+			.prepareStatement("SELECT SUM(balance) FROM accounts WHERE balance BETWEEN ? AND ?");
+	}
+
+	/**
+	 * Closes the connection and deletes the database files
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException, SQLException
+	{
+		connection.close();
+		try (Stream<Path> files = Files.list(directory))
+		{
+			for (final Path file : (Iterable<Path>)files::iterator)
+			{
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Inserts one row in its own transaction
+	 *
+	 * @return the update count
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	public int insert() throws SQLException
+	{
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		insertStatement.setString(1, "account-" + random.nextInt());
+		insertStatement.setDouble(2, random.nextDouble() * 10_000);
+		return insertStatement.executeUpdate();
+	}
+
+	/**
+	 * Selects one row by its primary key
+	 *
+	 * @return the balance of the row
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	public double selectById() throws SQLException
+	{
+		selectByIdStatement.setInt(1, ThreadLocalRandom.current().nextInt(1, ROW_COUNT + 1));
+		try (ResultSet resultSet = selectByIdStatement.executeQuery())
+		{
+			return resultSet.next() ? resultSet.getDouble(2) : 0;
+		}
+	}
+
+	/**
+	 * Sums the balance of a range of about one percent of the rows over an index
+	 *
+	 * @return the sum of the balance
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	public double selectRange() throws SQLException
+	{
+		final double from = ThreadLocalRandom.current().nextDouble() * 9_900;
+		selectRangeStatement.setDouble(1, from);
+		selectRangeStatement.setDouble(2, from + 100);
+		try (ResultSet resultSet = selectRangeStatement.executeQuery())
+		{
+			return resultSet.next() ? resultSet.getDouble(1) : 0;
+		}
+	}
+
+}
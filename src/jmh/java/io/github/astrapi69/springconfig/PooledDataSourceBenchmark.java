@@ -0,0 +1,158 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The class {@link PooledDataSourceBenchmark} measures the throughput of borrowing and returning a
+ * connection of a {@link PooledDataSource} over an in memory h2 database for all {@link PoolMode}
+ * values with 1, 8, 32 and 64 threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PooledDataSourceBenchmark
+{
+
+	/** The mode of the connection pool. */
+	@Param({ "BLOCKING", "LOCK_FREE", "STRIPED" })
+	public PoolMode poolMode;
+
+	/** The maximum number of open connections. */
+	@Param({ "8" })
+	public int maxPoolSize;
+
+	/** The data source. */
+	private PooledDataSource dataSource;
+
+	/**
+	 * Opens the data source and all its connections
+	 */
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		dataSource = (PooledDataSource)DataSourceBean.newDataSource(DataSourceBean.builder()
+			.driverClassName("org.h2.Driver")
+			.url("jdbc:h2:mem:benchmark_" + poolMode + ";DB_CLOSE_DELAY=-1").username("sa")
+			.password("").connectionPool(ConnectionPoolBean.builder().minIdle(maxPoolSize)
+				.maxPoolSize(maxPoolSize).poolMode(poolMode).build())
+			.build());
+	}
+
+	/**
+	 * Closes the data source
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		dataSource.close();
+	}
+
+	/**
+	 * Borrows and returns a connection with one thread
+	 *
+	 * @return the borrowed connection
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	@Threads(1)
+	public Connection borrowReturn1Thread() throws SQLException
+	{
+		return borrowReturn();
+	}
+
+	/**
+	 * Borrows and returns a connection with eight threads
+	 *
+	 * @return the borrowed connection
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	@Threads(8)
+	public Connection borrowReturn8Threads() throws SQLException
+	{
+		return borrowReturn();
+	}
+
+	/**
+	 * Borrows and returns a connection with 32 threads
+	 *
+	 * @return the borrowed connection
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	@Threads(32)
+	public Connection borrowReturn32Threads() throws SQLException
+	{
+		return borrowReturn();
+	}
+
+	/**
+	 * Borrows and returns a connection with 64 threads
+	 *
+	 * @return the borrowed connection
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	@Benchmark
+	@Threads(64)
+	public Connection borrowReturn64Threads() throws SQLException
+	{
+		return borrowReturn();
+	}
+
+	private Connection borrowReturn() throws SQLException
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			return connection;
+		}
+	}
+
+}
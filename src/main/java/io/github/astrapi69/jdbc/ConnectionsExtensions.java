@@ -26,12 +26,27 @@ package io.github.astrapi69.jdbc;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.sql.DataSource;
+
+import io.github.astrapi69.jdbc.script.MappedScriptReader;
+import io.github.astrapi69.jdbc.script.ScriptCache;
+import io.github.astrapi69.jdbc.script.ScriptExecutionOptions;
+import io.github.astrapi69.jdbc.script.ScriptResult;
+import io.github.astrapi69.jdbc.script.ScriptStatistics;
+import io.github.astrapi69.jdbc.script.SqlScriptExecutor;
+import io.github.astrapi69.jdbc.script.SqlScriptFuture;
+import io.github.astrapi69.jdbc.script.SqlScriptTokenizer;
+import io.github.astrapi69.jdbc.script.StatementTiming;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
@@ -45,6 +60,9 @@ import lombok.experimental.UtilityClass;
 public final class ConnectionsExtensions
 {
 
+	/** The logger for the summaries of the instrumented sql script executions. */
+	private static final Logger LOGGER = Logger.getLogger(ConnectionsExtensions.class.getName());
+
 	/**
 	 * Execute the sql script in the given BufferedReader from a file.
 	 *
@@ -65,14 +83,17 @@ public final class ConnectionsExtensions
 	}
 
 	/**
-	 * Execute the sql script in the given BufferedReader from a file.
+	 * Execute the sql script in the given BufferedReader from a file. The script is tokenized
+	 * streaming with a {@link SqlScriptTokenizer}, so every statement is executed as soon as it is
+	 * complete and the given BufferedReader is closed at the end.
 	 *
 	 * @param bufferedReader
 	 *            a BufferedReader from a script file.
 	 * @param connection
 	 *            the connection
 	 * @param log
-	 *            the flag if it will be logged.
+	 *            the flag if the statements are measured and a summary with the slowest
+	 *            statements is logged.
 	 * @throws IOException
 	 *             Signals that an I/O exception has occurred.
 	 * @throws SQLException
@@ -82,26 +103,70 @@ public final class ConnectionsExtensions
 	public static void executeSqlScript(final @NonNull BufferedReader bufferedReader,
 		final @NonNull Connection connection, final boolean log) throws IOException, SQLException
 	{
-		final StringBuilder sb = new StringBuilder();
-		String s;
-		while ((s = bufferedReader.readLine()) != null)
+		log(executeSqlScript(bufferedReader, connection, ScriptExecutionOptions.of(log)));
+	}
+
+	/**
+	 * Execute the sql script in the given BufferedReader from a file with the given
+	 * {@link ScriptExecutionOptions}. The given BufferedReader is closed at the end.
+	 *
+	 * @param bufferedReader
+	 *            a BufferedReader from a script file.
+	 * @param connection
+	 *            the connection
+	 * @param options
+	 *            the execution options like the batch size
+	 * @return the {@link ScriptResult} of the execution
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             connection
+	 */
+	public static ScriptResult executeSqlScript(final @NonNull BufferedReader bufferedReader,
+		final @NonNull Connection connection, final @NonNull ScriptExecutionOptions options)
+		throws IOException, SQLException
+	{
+		try (SqlScriptTokenizer tokenizer = new SqlScriptTokenizer(bufferedReader,
+			options.isBackslashEscapes()))
 		{
-			sb.append(s);
+			return new SqlScriptExecutor(connection, options).execute(tokenizer);
 		}
-		bufferedReader.close();
-		final String sqlScript = sb.toString();
-		executeSqlScript(connection, sqlScript, log);
 	}
 
 	/**
-	 * Execute the sql script from a file
+	 * Execute all sql statements from the given {@link SqlScriptTokenizer}. Every statement is
+	 * executed as soon as the tokenizer returns it.
+	 *
+	 * @param tokenizer
+	 *            the tokenizer of the sql script
+	 * @param connection
+	 *            the connection
+	 * @param log
+	 *            the flag if the statements are measured and a summary with the slowest
+	 *            statements is logged.
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             connection
+	 */
+	public static void executeSqlScript(final @NonNull SqlScriptTokenizer tokenizer,
+		final @NonNull Connection connection, final boolean log) throws IOException, SQLException
+	{
+		log(new SqlScriptExecutor(connection, ScriptExecutionOptions.of(log)).execute(tokenizer));
+	}
+
+	/**
+	 * Execute the sql script from a UTF-8 encoded file
 	 *
 	 * @param sqlScript
 	 *            the sql script file
 	 * @param connection
 	 *            the connection
 	 * @param log
-	 *            the flag if it will be logged.
+	 *            the flag if the statements are measured and a summary with the slowest
+	 *            statements is logged.
 	 * @throws IOException
 	 *             Signals that an I/O exception has occurred.
 	 * @throws SQLException
@@ -111,12 +176,79 @@ public final class ConnectionsExtensions
 	public static void executeSqlScript(final @NonNull File sqlScript,
 		final @NonNull Connection connection, final boolean log) throws IOException, SQLException
 	{
-		BufferedReader bufferedReader = new BufferedReader(new FileReader(sqlScript));
-		ConnectionsExtensions.executeSqlScript(bufferedReader, connection, log);
+		log(ConnectionsExtensions.executeSqlScript(sqlScript, connection,
+			ScriptExecutionOptions.of(log)));
 	}
 
 	/**
-	 * Execute the sql script from a file
+	 * Execute the sql script from a UTF-8 encoded file with the given
+	 * {@link ScriptExecutionOptions}. The script file is memory mapped with a
+	 * {@link MappedScriptReader} and decoded incrementally. If a checkpoint file is set in the
+	 * options and exists, the script file is read from the byte offset of the checkpoint and the
+	 * statements before are not read again. A gzip compressed script file or a zip archive of
+	 * script files is detected from the first bytes of the file and is decompressed while it is
+	 * executed as described in
+	 * {@link #executeSqlScript(InputStream, Connection, ScriptExecutionOptions)}. If a
+	 * {@link ScriptCache} is set in the options, the statements of an unchanged script file are
+	 * taken from the cache.
+	 *
+	 * @param sqlScript
+	 *            the sql script file
+	 * @param connection
+	 *            the connection
+	 * @param options
+	 *            the execution options like the batch size
+	 * @return the {@link ScriptResult} of the execution
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             connection
+	 */
+	public static ScriptResult executeSqlScript(final @NonNull File sqlScript,
+		final @NonNull Connection connection, final @NonNull ScriptExecutionOptions options)
+		throws IOException, SQLException
+	{
+		try (SqlScriptTokenizer tokenizer = SqlScriptTokenizer.of(sqlScript, options))
+		{
+			return new SqlScriptExecutor(connection, options).execute(tokenizer);
+		}
+	}
+
+	/**
+	 * Execute the UTF-8 encoded sql script from the given {@link InputStream} with the given
+	 * {@link ScriptExecutionOptions}. The compression of the script is detected from the first
+	 * bytes and the script is decompressed while it is executed, so no temporary files are
+	 * written. A gzip compressed script is executed as one script and the file entries of a zip
+	 * archive are executed in the order of the archive as one continuous script. If a checkpoint
+	 * file is set in the options and exists, the statements before the checkpoint are read again
+	 * but not executed. The given {@link InputStream} is closed after the execution.
+	 *
+	 * @param inputStream
+	 *            the input stream of the plain, gzip compressed or zipped sql script
+	 * @param connection
+	 *            the connection
+	 * @param options
+	 *            the execution options like the batch size
+	 * @return the {@link ScriptResult} of the execution
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             connection
+	 */
+	public static ScriptResult executeSqlScript(final @NonNull InputStream inputStream,
+		final @NonNull Connection connection, final @NonNull ScriptExecutionOptions options)
+		throws IOException, SQLException
+	{
+		try (SqlScriptTokenizer tokenizer = SqlScriptTokenizer.of(inputStream, options))
+		{
+			return new SqlScriptExecutor(connection, options).execute(tokenizer);
+		}
+	}
+
+	/**
+	 * Execute the sql script from a UTF-8 encoded file
 	 *
 	 * @param sqlScript
 	 *            the sql script file
@@ -159,7 +291,8 @@ public final class ConnectionsExtensions
 	 * @param connection
 	 *            the connection
 	 * @param log
-	 *            the flag if it will be logged.
+	 *            the flag if the statements are measured and a summary with the slowest
+	 *            statements is logged.
 	 * @throws SQLException
 	 *             is thrown if a database access error occurs or this method is called on a closed
 	 *             connection
@@ -167,30 +300,129 @@ public final class ConnectionsExtensions
 	public static void executeSqlScript(final @NonNull Connection connection,
 		final @NonNull String sqlScript, final boolean log) throws SQLException
 	{
-		final String[] sqlStatements = sqlScript.split(";");
-		try (Statement st = connection.createStatement())
+		log(executeSqlScript(connection, sqlScript, ScriptExecutionOptions.of(log)));
+	}
+
+	/**
+	 * Execute the sql script given as String object with the given {@link ScriptExecutionOptions}
+	 *
+	 * @param connection
+	 *            the connection
+	 * @param sqlScript
+	 *            The sql script as String object.
+	 * @param options
+	 *            the execution options like the batch size
+	 * @return the {@link ScriptResult} of the execution
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             connection
+	 */
+	public static ScriptResult executeSqlScript(final @NonNull Connection connection,
+		final @NonNull String sqlScript, final @NonNull ScriptExecutionOptions options)
+		throws SQLException
+	{
+		try (SqlScriptTokenizer tokenizer = new SqlScriptTokenizer(new StringReader(sqlScript),
+			options.isBackslashEscapes()))
+		{
+			return new SqlScriptExecutor(connection, options).execute(tokenizer);
+		}
+		catch (final IOException e)
+		{
+			// a StringReader does not throw an IOException on an open reader
+			throw new SQLException(e);
+		}
+	}
+
+	/**
+	 * Execute the sql script from a UTF-8 encoded file asynchronous on a connection from the given
+	 * {@link DataSource} with the default executor from
+	 * {@link SqlScriptFuture#getDefaultExecutor()} that uses virtual threads on java 21 or newer.
+	 * The script file is read as described in
+	 * {@link #executeSqlScript(File, Connection, ScriptExecutionOptions)}.
+	 *
+	 * @param dataSource
+	 *            the data source of the connection
+	 * @param sqlScript
+	 *            the sql script file
+	 * @param options
+	 *            the execution options like the batch size
+	 * @return the {@link SqlScriptFuture} of the execution that cancels the running statement if it
+	 *         is cancelled
+	 */
+	public static SqlScriptFuture executeSqlScriptAsync(final @NonNull DataSource dataSource,
+		final @NonNull File sqlScript, final @NonNull ScriptExecutionOptions options)
+	{
+		return executeSqlScriptAsync(dataSource, sqlScript, options,
+			SqlScriptFuture.getDefaultExecutor());
+	}
+
+	/**
+	 * Execute the sql script from a UTF-8 encoded file asynchronous on a connection from the given
+	 * {@link DataSource} with the given {@link Executor}. The script file is read as described in
+	 * {@link #executeSqlScript(File, Connection, ScriptExecutionOptions)}.
+	 *
+	 * @param dataSource
+	 *            the data source of the connection
+	 * @param sqlScript
+	 *            the sql script file
+	 * @param options
+	 *            the execution options like the batch size
+	 * @param executor
+	 *            the executor that runs the execution
+	 * @return the {@link SqlScriptFuture} of the execution that cancels the running statement if it
+	 *         is cancelled
+	 */
+	public static SqlScriptFuture executeSqlScriptAsync(final @NonNull DataSource dataSource,
+		final @NonNull File sqlScript, final @NonNull ScriptExecutionOptions options,
+		final @NonNull Executor executor)
+	{
+		return SqlScriptFuture.supplyAsync(dataSource,
+			() -> SqlScriptTokenizer.of(sqlScript, options), options, executor);
+	}
+
+	/**
+	 * Execute the sql script given as String object asynchronous on a connection from the given
+	 * {@link DataSource} with the given {@link Executor}
+	 *
+	 * @param dataSource
+	 *            the data source of the connection
+	 * @param sqlScript
+	 *            The sql script as String object.
+	 * @param options
+	 *            the execution options like the batch size
+	 * @param executor
+	 *            the executor that runs the execution
+	 * @return the {@link SqlScriptFuture} of the execution that cancels the running statement if it
+	 *         is cancelled
+	 */
+	public static SqlScriptFuture executeSqlScriptAsync(final @NonNull DataSource dataSource,
+		final @NonNull String sqlScript, final @NonNull ScriptExecutionOptions options,
+		final @NonNull Executor executor)
+	{
+		return SqlScriptFuture.supplyAsync(dataSource,
+			() -> new SqlScriptTokenizer(new StringReader(sqlScript), options.isBackslashEscapes()),
+			options, executor);
+	}
+
+	private static void log(final ScriptResult result)
+	{
+		final ScriptStatistics statistics = result.getStatistics();
+		if (statistics == null || !LOGGER.isLoggable(Level.INFO))
+		{
+			return;
+		}
+		final StringBuilder sb = new StringBuilder(String.format(
+			"executed %d statements in %d ms with %.1f statements per second and %d updates",
+			statistics.getStatementCount(),
+			TimeUnit.NANOSECONDS.toMillis(statistics.getElapsedNanos()),
+			statistics.getStatementsPerSecond(), statistics.getUpdateCount()));
+		for (final StatementTiming timing : statistics.getSlowestStatements())
 		{
-			if (log)
-			{
-				for (final String sqlStatement : sqlStatements)
-				{
-					if (!sqlStatement.trim().isEmpty())
-					{
-						st.executeUpdate(sqlStatement);
-					}
-				}
-			}
-			else
-			{
-				for (final String sqlStatement : sqlStatements)
-				{
-					if (!sqlStatement.trim().isEmpty())
-					{
-						st.executeUpdate(sqlStatement);
-					}
-				}
-			}
+			sb.append(String.format("%n  %d ms statement %d (%d statements): %s",
+				TimeUnit.NANOSECONDS.toMillis(timing.getElapsedNanos()),
+				timing.getStatementIndex(), timing.getStatementCount(), timing.getSql()));
 		}
+		LOGGER.info(sb.toString());
 	}
 
 }
@@ -0,0 +1,406 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link DatabaseCatalog} checks the existence of databases with one indexed query on the
+ * catalog of a database server, like <code>pg_database</code> of PostgreSQL or
+ * <code>information_schema.SCHEMATA</code> of MySQL. The query runs as prepared statement over an
+ * admin connection that is opened on the first use and reused by all later checks. The admin
+ * connection is reopened if it has been closed or has thrown an exception, and a check that fails
+ * on a reused admin connection with a connection error (SQLState class <code>08</code>) is
+ * retried once on a new admin connection.<br>
+ * <br>
+ * Optionally the results of the checks are cached for a short time to live. The cached result of
+ * a database is invalidated if a statement is executed over
+ * {@link #executeUpdate(String, String)} for this database.<br>
+ * <br>
+ * Note: an instance of this class is thread safe, the checks of one instance are serialized on the
+ * admin connection and an invalidation waits for a running check, so a stale result is never
+ * cached after its invalidation
+ */
+public class DatabaseCatalog implements Closeable
+{
+
+	/** Constant for the query of the existence of a database in PostgreSQL. */
+	public static final String POSTGRESQL_EXISTS_QUERY = "SELECT 1 FROM pg_database "
+		+ "WHERE datname = ?";
+
+	/** Constant for the query of the existence of a database in MySQL. */
+	public static final String MYSQL_EXISTS_QUERY = "SELECT 1 FROM information_schema.SCHEMATA "
+		+ "WHERE SCHEMA_NAME = ?";
+
+	/** The shared catalogs by driver class name, url, user, password and query. */
+	private static final Map<List<String>, DatabaseCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+	/** The driver class name of the admin connection. */
+	private final String driverClassName;
+
+	/** The url of the admin connection. */
+	private final String url;
+
+	/** The user of the admin connection. */
+	private final String user;
+
+	/** The password of the admin connection. */
+	private final String password;
+
+	/** The query of the existence of a database with the database name as parameter. */
+	private final String existsQuery;
+
+	/** The cached results with the value of {@link System#nanoTime()} when they expire. */
+	private final ConcurrentMap<String, CachedResult> cache = new ConcurrentHashMap<>();
+
+	/** The time to live of a cached result in milliseconds, zero if nothing is cached. */
+	private volatile long cacheTtlMillis;
+
+	/** The admin connection or null if it is not open. */
+	private Connection connection;
+
+	/** The prepared statement of the existence query or null if it is not prepared. */
+	private PreparedStatement existsStatement;
+
+	/**
+	 * Instantiates a new {@link DatabaseCatalog} object
+	 *
+	 * @param driverClassName
+	 *            the driver class name of the admin connection
+	 * @param url
+	 *            the url of the admin connection
+	 * @param user
+	 *            the user of the admin connection or null
+	 * @param password
+	 *            the password of the admin connection or null
+	 * @param existsQuery
+	 *            the query of the existence of a database with the database name as parameter
+	 */
+	public DatabaseCatalog(final @NonNull String driverClassName, final @NonNull String url,
+		final String user, final String password, final @NonNull String existsQuery)
+	{
+		this.driverClassName = driverClassName;
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.existsQuery = existsQuery;
+	}
+
+	/**
+	 * Gets the shared {@link DatabaseCatalog} of the given admin connection data and existence
+	 * query. The catalog is created on the first call, a call with another password gets another
+	 * catalog. The shared catalogs keep their admin connection open and hold the given password
+	 * until {@link #closeAll()} is called.
+	 *
+	 * @param driverClassName
+	 *            the driver class name of the admin connection
+	 * @param url
+	 *            the url of the admin connection
+	 * @param user
+	 *            the user of the admin connection or null
+	 * @param password
+	 *            the password of the admin connection or null
+	 * @param existsQuery
+	 *            the query of the existence of a database with the database name as parameter
+	 * @return the shared {@link DatabaseCatalog}
+	 */
+	public static DatabaseCatalog of(final @NonNull String driverClassName,
+		final @NonNull String url, final String user, final String password,
+		final @NonNull String existsQuery)
+	{
+		return CATALOGS.computeIfAbsent(newKey(driverClassName, url, user, password, existsQuery),
+			key -> new DatabaseCatalog(driverClassName, url, user, password, existsQuery));
+	}
+
+	/**
+	 * Removes the cached result of the given database from the shared {@link DatabaseCatalog} of
+	 * the given admin connection data and existence query. In difference to
+	 * {@link #of(String, String, String, String, String)} no catalog is created if there is none.
+	 *
+	 * @param driverClassName
+	 *            the driver class name of the admin connection
+	 * @param url
+	 *            the url of the admin connection
+	 * @param user
+	 *            the user of the admin connection or null
+	 * @param password
+	 *            the password of the admin connection or null
+	 * @param existsQuery
+	 *            the query of the existence of a database with the database name as parameter
+	 * @param databaseName
+	 *            the database name
+	 */
+	public static void invalidateIfPresent(final @NonNull String driverClassName,
+		final @NonNull String url, final String user, final String password,
+		final @NonNull String existsQuery, final @NonNull String databaseName)
+	{
+		final DatabaseCatalog catalog = CATALOGS
+			.get(newKey(driverClassName, url, user, password, existsQuery));
+		if (catalog != null)
+		{
+			catalog.invalidate(databaseName);
+		}
+	}
+
+	/**
+	 * Closes the admin connections of all shared catalogs and removes them together with their
+	 * credentials
+	 */
+	public static void closeAll()
+	{
+		CATALOGS.values().removeIf(catalog -> {
+			catalog.close();
+			return true;
+		});
+	}
+
+	/**
+	 * Checks if the database with the given name exists
+	 *
+	 * @param databaseName
+	 *            the database name
+	 * @return true, if the database exists otherwise false
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	public boolean existsDatabase(final @NonNull String databaseName) throws SQLException
+	{
+		final long ttlMillis = cacheTtlMillis;
+		if (0 < ttlMillis)
+		{
+			final CachedResult cachedResult = cache.get(databaseName);
+			if (cachedResult != null && System.nanoTime() - cachedResult.expiresNanos < 0)
+			{
+				return cachedResult.exists;
+			}
+		}
+		// the query and the put are done under the lock of the invalidation, so a result that is
+		// queried before a concurrent change can not be cached after its invalidation
+		synchronized (this)
+		{
+			final boolean exists = queryExists(databaseName);
+			if (0 < ttlMillis)
+			{
+				cache.put(databaseName, new CachedResult(exists,
+					System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+			}
+			return exists;
+		}
+	}
+
+	/**
+	 * Executes the given sql statement like <code>CREATE DATABASE</code> over the admin connection
+	 * and invalidates the cached result of the given database
+	 *
+	 * @param sql
+	 *            the sql statement
+	 * @param databaseName
+	 *            the name of the database that is changed by the sql statement
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	public synchronized void executeUpdate(final @NonNull String sql,
+		final @NonNull String databaseName)
+		throws SQLException
+	{
+		try (Statement statement = getAdminConnection().createStatement())
+		{
+			statement.executeUpdate(sql);
+		}
+		catch (final SQLException e)
+		{
+			closeAdminConnection();
+			throw e;
+		}
+		finally
+		{
+			cache.remove(databaseName);
+		}
+	}
+
+	/**
+	 * Removes the cached result of the given database
+	 *
+	 * @param databaseName
+	 *            the database name
+	 */
+	public synchronized void invalidate(final @NonNull String databaseName)
+	{
+		cache.remove(databaseName);
+	}
+
+	/**
+	 * Removes all cached results
+	 */
+	public synchronized void invalidateAll()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * Gets the time to live of a cached result in milliseconds
+	 *
+	 * @return the time to live of a cached result in milliseconds, zero if nothing is cached
+	 */
+	public long getCacheTtlMillis()
+	{
+		return cacheTtlMillis;
+	}
+
+	/**
+	 * Sets the time to live of a cached result in milliseconds, a value less than one switches the
+	 * cache off
+	 *
+	 * @param cacheTtlMillis
+	 *            the time to live of a cached result in milliseconds
+	 */
+	public void setCacheTtlMillis(final long cacheTtlMillis)
+	{
+		this.cacheTtlMillis = Math.max(0, cacheTtlMillis);
+		if (cacheTtlMillis < 1)
+		{
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Closes the admin connection, it is reopened on the next use
+	 */
+	@Override
+	public synchronized void close()
+	{
+		closeAdminConnection();
+	}
+
+	private static List<String> newKey(final String driverClassName, final String url,
+		final String user, final String password, final String existsQuery)
+	{
+		return Arrays.asList(driverClassName, url, user, password, existsQuery);
+	}
+
+	private boolean queryExists(final String databaseName) throws SQLException
+	{
+		final boolean reused = connection != null;
+		try
+		{
+			return executeExistsQuery(databaseName);
+		}
+		catch (final SQLException e)
+		{
+			if (!reused || !isConnectionFailure(e))
+			{
+				throw e;
+			}
+		}
+		// the server may have closed the idle admin connection, so the check is retried once
+		return executeExistsQuery(databaseName);
+	}
+
+	private boolean executeExistsQuery(final String databaseName) throws SQLException
+	{
+		try
+		{
+			if (existsStatement == null)
+			{
+				existsStatement = getAdminConnection().prepareStatement(existsQuery);
+			}
+			existsStatement.setString(1, databaseName);
+			try (ResultSet resultSet = existsStatement.executeQuery())
+			{
+				return resultSet.next();
+			}
+		}
+		catch (final SQLException e)
+		{
+			closeAdminConnection();
+			throw e;
+		}
+	}
+
+	private static boolean isConnectionFailure(final SQLException exception)
+	{
+		final String sqlState = exception.getSQLState();
+		return sqlState != null && sqlState.startsWith("08");
+	}
+
+	private Connection getAdminConnection() throws SQLException
+	{
+		if (connection == null || connection.isClosed())
+		{
+			closeAdminConnection();
+			connection = DriverRegistry.connect(driverClassName, url, user, password);
+		}
+		return connection;
+	}
+
+	private void closeAdminConnection()
+	{
+		existsStatement = null;
+		if (connection != null)
+		{
+			try
+			{
+				connection.close();
+			}
+			catch (final SQLException e)
+			{
+				// the connection is reopened anyway
+			}
+			connection = null;
+		}
+	}
+
+	/**
+	 * The class {@link CachedResult} holds a cached result of an existence check
+	 */
+	private static final class CachedResult
+	{
+
+		private final boolean exists;
+
+		private final long expiresNanos;
+
+		private CachedResult(final boolean exists, final long expiresNanos)
+		{
+			this.exists = exists;
+			this.expiresNanos = expiresNanos;
+		}
+
+	}
+
+}
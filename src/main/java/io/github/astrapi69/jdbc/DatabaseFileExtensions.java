@@ -0,0 +1,122 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * The class {@link DatabaseFileExtensions} have methods to clone file databases like SQLite, H2 or
+ * HyperSQL databases from a template database with a copy of the database files. A clone from a
+ * template that is build once with all scripts is much faster than the creation of a new database
+ * and the execution of the scripts.<br>
+ * <br>
+ * Note: the template database must not be written while it is copied, otherwise the copy is not
+ * consistent.
+ */
+@UtilityClass
+public final class DatabaseFileExtensions
+{
+
+	/**
+	 * Copies the files of the given template database to the given database. Every file is copied
+	 * to a temporary file in the target directory and moved with an atomic move to its name. The
+	 * main file is copied as last file, so a database with an existing main file is always
+	 * complete. An optional file of the new database that does not exist in the template database,
+	 * like the journal of an aborted earlier run, is deleted before the main file is copied.
+	 *
+	 * @param templatePath
+	 *            the path of the template database files without the file suffix
+	 * @param databasePath
+	 *            the path of the new database files without the file suffix
+	 * @param mainFileSuffix
+	 *            the suffix of the main file that must exist in the template database
+	 * @param optionalFileSuffixes
+	 *            the suffixes of the files that are copied if they exist in the template database
+	 * @return the {@link CreationState}, {@link CreationState#ALREADY_EXISTS} if the main file of
+	 *         the new database already exists
+	 * @throws NoSuchFileException
+	 *             is thrown if the main file of the template database does not exist
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static CreationState copyDatabaseFiles(final @NonNull String templatePath,
+		final @NonNull String databasePath, final @NonNull String mainFileSuffix,
+		final @NonNull String... optionalFileSuffixes) throws IOException
+	{
+		final Path mainFile = Paths.get(databasePath + mainFileSuffix);
+		if (Files.exists(mainFile))
+		{
+			return CreationState.ALREADY_EXISTS;
+		}
+		final Path templateMainFile = Paths.get(templatePath + mainFileSuffix);
+		if (!Files.exists(templateMainFile))
+		{
+			throw new NoSuchFileException(templateMainFile.toString(), null,
+				"the template database does not exist");
+		}
+		final Path directory = mainFile.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		for (final String suffix : optionalFileSuffixes)
+		{
+			final Path templateFile = Paths.get(templatePath + suffix);
+			final Path file = Paths.get(databasePath + suffix);
+			if (Files.exists(templateFile))
+			{
+				copy(templateFile, file, directory);
+			}
+			else
+			{
+				Files.deleteIfExists(file);
+			}
+		}
+		copy(templateMainFile, mainFile, directory);
+		return CreationState.CREATED;
+	}
+
+	private static void copy(final Path source, final Path target, final Path directory)
+		throws IOException
+	{
+		final Path temporaryFile = Files.createTempFile(directory,
+			target.getFileName().toString(), ".tmp");
+		try
+		{
+			Files.copy(source, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+}
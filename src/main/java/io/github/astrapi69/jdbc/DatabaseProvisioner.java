@@ -0,0 +1,333 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import io.github.astrapi69.jdbc.script.ScriptCache;
+import io.github.astrapi69.jdbc.script.ScriptExecutionOptions;
+import lombok.NonNull;
+
+/**
+ * The class {@link DatabaseProvisioner} creates a list of databases like tenant databases on one
+ * database server and executes an init script in every created database. The databases are
+ * provisioned by a bounded number of workers. Every worker checks the existence and creates the
+ * databases over its own admin connection that is reused for all databases of the worker, and
+ * executes the init script in a created database before it takes the next one, so the init
+ * scripts run concurrently.<br>
+ * <br>
+ * A failed database does not abort the provisioning of the other databases, the exception is
+ * returned in its {@link DatabaseProvisioningResult}. The init script is not executed in a
+ * database that already exists.
+ */
+public class DatabaseProvisioner
+{
+
+	/** The driver class name. */
+	private final String driverClassName;
+
+	/** The url of the admin connection. */
+	private final String adminUrl;
+
+	/** The user of the admin connection and the connections to the created databases. */
+	private final String user;
+
+	/** The password of the admin connection and the connections to the created databases. */
+	private final String password;
+
+	/** The query of the existence of a database with the database name as parameter. */
+	private final String existsQuery;
+
+	/** The function that returns the sql statement that creates the given database. */
+	private final UnaryOperator<String> createStatement;
+
+	/** The function that returns the url of the given database. */
+	private final UnaryOperator<String> databaseUrl;
+
+	/**
+	 * Instantiates a new {@link DatabaseProvisioner} object
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @param adminUrl
+	 *            the url of the admin connection
+	 * @param user
+	 *            the user of the admin connection and the connections to the created databases or
+	 *            null
+	 * @param password
+	 *            the password of the admin connection and the connections to the created databases
+	 *            or null
+	 * @param existsQuery
+	 *            the query of the existence of a database with the database name as parameter
+	 * @param createStatement
+	 *            the function that returns the sql statement that creates the given database
+	 * @param databaseUrl
+	 *            the function that returns the url of the given database
+	 */
+	public DatabaseProvisioner(final @NonNull String driverClassName,
+		final @NonNull String adminUrl, final String user, final String password,
+		final @NonNull String existsQuery, final @NonNull UnaryOperator<String> createStatement,
+		final @NonNull UnaryOperator<String> databaseUrl)
+	{
+		this.driverClassName = driverClassName;
+		this.adminUrl = adminUrl;
+		this.user = user;
+		this.password = password;
+		this.existsQuery = existsQuery;
+		this.createStatement = createStatement;
+		this.databaseUrl = databaseUrl;
+	}
+
+	/**
+	 * Creates the given databases and executes the given init script in every created database
+	 * with the default execution options
+	 *
+	 * @param databaseNames
+	 *            the names of the databases
+	 * @param initScript
+	 *            the init script or null if no script is executed
+	 * @param parallelism
+	 *            the maximum number of concurrent workers
+	 * @return the {@link DatabaseProvisioningResult} of every database by its name in the order of
+	 *         the given names
+	 * @throws InterruptedException
+	 *             is thrown if the current thread was interrupted while waiting
+	 */
+	public Map<String, DatabaseProvisioningResult> provision(
+		final @NonNull List<String> databaseNames, final File initScript, final int parallelism)
+		throws InterruptedException
+	{
+		return provision(databaseNames, initScript, parallelism, ScriptExecutionOptions.DEFAULT);
+	}
+
+	/**
+	 * Creates the given databases and executes the given init script in every created database.
+	 * If no {@link ScriptCache} is set in the given options, a new one is used, so the init script
+	 * is parsed only once for all databases.
+	 *
+	 * @param databaseNames
+	 *            the names of the databases
+	 * @param initScript
+	 *            the init script or null if no script is executed
+	 * @param parallelism
+	 *            the maximum number of concurrent workers
+	 * @param options
+	 *            the execution options of the init script, a checkpoint file is not allowed
+	 *            because it can not be shared between the databases
+	 * @return the {@link DatabaseProvisioningResult} of every database by its name in the order of
+	 *         the given names
+	 * @throws InterruptedException
+	 *             is thrown if the current thread was interrupted while waiting
+	 * @throws IllegalArgumentException
+	 *             is thrown if the parallelism is less than one, a name is not unique or a
+	 *             checkpoint file is set
+	 */
+	public Map<String, DatabaseProvisioningResult> provision(
+		final @NonNull List<String> databaseNames, final File initScript, final int parallelism,
+		final @NonNull ScriptExecutionOptions options) throws InterruptedException
+	{
+		if (parallelism < 1)
+		{
+			throw new IllegalArgumentException("parallelism must be greater than zero");
+		}
+		if (options.getCheckpointFile() != null)
+		{
+			throw new IllegalArgumentException(
+				"a checkpoint file can not be shared between the provisioned databases");
+		}
+		final Map<String, DatabaseProvisioningResult> results = new LinkedHashMap<>();
+		for (final String databaseName : databaseNames)
+		{
+			if (results.containsKey(databaseName))
+			{
+				throw new IllegalArgumentException("duplicate database name: " + databaseName);
+			}
+			results.put(databaseName, null);
+		}
+		if (databaseNames.isEmpty())
+		{
+			return results;
+		}
+		final ScriptExecutionOptions initOptions = options.getScriptCache() != null
+			? options
+			: options.toBuilder().scriptCache(new ScriptCache()).build();
+		final Queue<String> pending = new ConcurrentLinkedQueue<>(databaseNames);
+		final Map<String, DatabaseProvisioningResult> completedResults = new ConcurrentHashMap<>();
+		final List<Callable<Void>> workers = new ArrayList<>();
+		for (int i = 0; i < Math.min(parallelism, databaseNames.size()); i++)
+		{
+			workers.add(new Worker(pending, completedResults, initScript, initOptions));
+		}
+		final ExecutorService executorService = Executors.newFixedThreadPool(workers.size());
+		try
+		{
+			for (final Future<Void> future : executorService.invokeAll(workers))
+			{
+				future.get();
+			}
+		}
+		catch (final ExecutionException e)
+		{
+			if (e.getCause() instanceof Error)
+			{
+				throw (Error)e.getCause();
+			}
+			throw (RuntimeException)e.getCause();
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+		results.replaceAll((databaseName, result) -> completedResults.get(databaseName));
+		return results;
+	}
+
+	private Connection getConnection(final String url) throws SQLException
+	{
+		return DriverRegistry.connect(driverClassName, url, user, password);
+	}
+
+	/**
+	 * The class {@link Worker} provisions databases from the shared queue over the admin
+	 * connection of its own {@link DatabaseCatalog}, which is not shared, until the queue is empty
+	 */
+	private final class Worker implements Callable<Void>
+	{
+
+		private final Queue<String> pending;
+
+		private final Map<String, DatabaseProvisioningResult> results;
+
+		private final File initScript;
+
+		private final ScriptExecutionOptions options;
+
+		private final DatabaseCatalog catalog = new DatabaseCatalog(driverClassName, adminUrl, user,
+			password, existsQuery);
+
+		private Worker(final Queue<String> pending,
+			final Map<String, DatabaseProvisioningResult> results, final File initScript,
+			final ScriptExecutionOptions options)
+		{
+			this.pending = pending;
+			this.results = results;
+			this.initScript = initScript;
+			this.options = options;
+		}
+
+		@Override
+		public Void call()
+		{
+			try
+			{
+				String databaseName;
+				while (!Thread.currentThread().isInterrupted()
+					&& (databaseName = pending.poll()) != null)
+				{
+					results.put(databaseName, provision(databaseName));
+				}
+			}
+			finally
+			{
+				catalog.close();
+			}
+			return null;
+		}
+
+		private DatabaseProvisioningResult provision(final String databaseName)
+		{
+			final DatabaseProvisioningResult result = DatabaseProvisioningResult.builder()
+				.databaseName(databaseName).build();
+			long start = System.nanoTime();
+			try
+			{
+				result.setCreationState(create(databaseName));
+			}
+			catch (final SQLException | RuntimeException e)
+			{
+				result.setFailure(e);
+				return result;
+			}
+			finally
+			{
+				result.setCreationNanos(System.nanoTime() - start);
+			}
+			if (initScript != null && result.getCreationState() == CreationState.CREATED)
+			{
+				start = System.nanoTime();
+				try (Connection connection = getConnection(databaseUrl.apply(databaseName)))
+				{
+					result.setScriptResult(
+						ConnectionsExtensions.executeSqlScript(initScript, connection, options));
+				}
+				catch (final IOException | SQLException | RuntimeException e)
+				{
+					result.setFailure(e);
+				}
+				finally
+				{
+					result.setInitNanos(System.nanoTime() - start);
+				}
+			}
+			return result;
+		}
+
+		private CreationState create(final String databaseName) throws SQLException
+		{
+			if (catalog.existsDatabase(databaseName))
+			{
+				return CreationState.ALREADY_EXISTS;
+			}
+			try
+			{
+				catalog.executeUpdate(createStatement.apply(databaseName), databaseName);
+			}
+			finally
+			{
+				DatabaseCatalog.invalidateIfPresent(driverClassName, adminUrl, user, password,
+					existsQuery, databaseName);
+			}
+			return CreationState.CREATED;
+		}
+
+	}
+
+}
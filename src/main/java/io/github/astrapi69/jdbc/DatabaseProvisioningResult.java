@@ -0,0 +1,75 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import io.github.astrapi69.jdbc.script.ScriptResult;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The class {@link DatabaseProvisioningResult} holds the result of the provisioning of one database
+ * with the {@link DatabaseProvisioner}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DatabaseProvisioningResult
+{
+
+	/** The name of the database. */
+	String databaseName;
+
+	/** The creation state of the database or null if the creation failed. */
+	CreationState creationState;
+
+	/** The wall time of the existence check and the creation in nanoseconds. */
+	long creationNanos;
+
+	/** The wall time of the init script in nanoseconds, zero if it is not executed. */
+	long initNanos;
+
+	/** The result of the init script or null if it is not executed or failed. */
+	ScriptResult scriptResult;
+
+	/** The exception of the failed creation or init script or null if nothing failed. */
+	Exception failure;
+
+	/**
+	 * Checks if the provisioning of the database failed
+	 *
+	 * @return true, if the creation or the init script failed otherwise false
+	 */
+	public boolean isFailed()
+	{
+		return failure != null;
+	}
+
+}
@@ -0,0 +1,241 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * The class {@link DriverRegistry} resolves the {@link Driver} of a driver class name only once
+ * and connects directly over {@link Driver#connect(String, Properties)}. So a connection needs no
+ * class loading and no lookup through all drivers that are registered at the
+ * {@link java.sql.DriverManager}.
+ *
+ * @author Asterios Raptis
+ */
+@UtilityClass
+public final class DriverRegistry
+{
+
+	/** The resolved drivers by the driver class name. */
+	private static final ConcurrentMap<String, Driver> DRIVERS = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets the cached {@link Driver} of the given driver class name. The driver is instantiated
+	 * on the first call for a driver class name.
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @return the {@link Driver} of the given driver class name
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located.
+	 * @throws SQLException
+	 *             is thrown if the class is not a {@link Driver} or can not be instantiated
+	 */
+	public static Driver getDriver(final @NonNull String driverClassName)
+		throws ClassNotFoundException, SQLException
+	{
+		final Driver driver = DRIVERS.get(driverClassName);
+		if (driver != null)
+		{
+			return driver;
+		}
+		final Driver newDriver = newDriver(driverClassName);
+		final Driver existingDriver = DRIVERS.putIfAbsent(driverClassName, newDriver);
+		return existingDriver != null ? existingDriver : newDriver;
+	}
+
+	/**
+	 * Gets a new connection from the cached {@link Driver} of the given driver class name
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @param url
+	 *            the database url
+	 * @return the new connection
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or the driver does not accept the
+	 *             given url
+	 */
+	public static Connection getConnection(final @NonNull String driverClassName,
+		final @NonNull String url) throws ClassNotFoundException, SQLException
+	{
+		return getConnection(driverClassName, url, new Properties());
+	}
+
+	/**
+	 * Gets a new connection from the cached {@link Driver} of the given driver class name with the
+	 * given user and password
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @param url
+	 *            the database url
+	 * @param user
+	 *            the database user or null
+	 * @param password
+	 *            the database password or null
+	 * @return the new connection
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or the driver does not accept the
+	 *             given url
+	 */
+	public static Connection getConnection(final @NonNull String driverClassName,
+		final @NonNull String url, final String user, final String password)
+		throws ClassNotFoundException, SQLException
+	{
+		return getConnection(driverClassName, url, newInfo(user, password));
+	}
+
+	/**
+	 * Gets a new connection from the cached {@link Driver} of the given driver class name with the
+	 * given connection properties
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @param url
+	 *            the database url
+	 * @param info
+	 *            the connection properties like user and password
+	 * @return the new connection
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or the driver does not accept the
+	 *             given url
+	 */
+	public static Connection getConnection(final @NonNull String driverClassName,
+		final @NonNull String url, final @NonNull Properties info)
+		throws ClassNotFoundException, SQLException
+	{
+		final Connection connection = getDriver(driverClassName).connect(url, info);
+		if (connection == null)
+		{
+			throw new SQLException(
+				"The driver " + driverClassName + " does not accept the url " + url, "08001");
+		}
+		return connection;
+	}
+
+	/**
+	 * Connects with the cached {@link Driver} of the given driver class name with the given user
+	 * and password. In difference to {@link #getConnection(String, String, String, String)} a
+	 * driver class that is not found is signaled with an {@link SQLException} of the SQLState
+	 * <code>08001</code>.
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @param url
+	 *            the database url
+	 * @param user
+	 *            the database user or null
+	 * @param password
+	 *            the database password or null
+	 * @return the new connection
+	 * @throws SQLException
+	 *             is thrown if the driver class is not found, a database access error occurs or
+	 *             the driver does not accept the given url
+	 */
+	public static Connection connect(final @NonNull String driverClassName,
+		final @NonNull String url, final String user, final String password) throws SQLException
+	{
+		return connect(driverClassName, url, newInfo(user, password));
+	}
+
+	/**
+	 * Connects with the cached {@link Driver} of the given driver class name with the given
+	 * connection properties. In difference to {@link #getConnection(String, String, Properties)} a
+	 * driver class that is not found is signaled with an {@link SQLException} of the SQLState
+	 * <code>08001</code>.
+	 *
+	 * @param driverClassName
+	 *            the driver class name
+	 * @param url
+	 *            the database url
+	 * @param info
+	 *            the connection properties like user and password
+	 * @return the new connection
+	 * @throws SQLException
+	 *             is thrown if the driver class is not found, a database access error occurs or
+	 *             the driver does not accept the given url
+	 */
+	public static Connection connect(final @NonNull String driverClassName,
+		final @NonNull String url, final @NonNull Properties info) throws SQLException
+	{
+		try
+		{
+			return getConnection(driverClassName, url, info);
+		}
+		catch (final ClassNotFoundException e)
+		{
+			throw new SQLException("The driver " + driverClassName + " was not found", "08001", e);
+		}
+	}
+
+	private static Properties newInfo(final String user, final String password)
+	{
+		final Properties info = new Properties();
+		if (user != null)
+		{
+			info.setProperty("user", user);
+		}
+		if (password != null)
+		{
+			info.setProperty("password", password);
+		}
+		return info;
+	}
+
+	private static Driver newDriver(final String driverClassName)
+		throws ClassNotFoundException, SQLException
+	{
+		final Class<?> driverClass = Class.forName(driverClassName);
+		if (!Driver.class.isAssignableFrom(driverClass))
+		{
+			throw new SQLException("The class " + driverClassName + " is not a java.sql.Driver");
+		}
+		try
+		{
+			return (Driver)driverClass.getDeclaredConstructor().newInstance();
+		}
+		catch (final ReflectiveOperationException e)
+		{
+			throw new SQLException("The driver " + driverClassName + " can not be instantiated",
+				e);
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import java.util.List;
+import java.util.Properties;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The class {@link MultiHostConnectionBean} encapsulates the settings of a
+ * {@link MultiHostConnectionFactory}. A value less than one of a threshold, an interval or a
+ * timeout uses the default value as documented on the field.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class MultiHostConnectionBean
+{
+
+	/** The driver class name of the databases. */
+	String driverClassName;
+
+	/** The jdbc urls of the hosts, a jdbc url is built with {@link JdbcUrlBean#buildUrlString}. */
+	@Singular
+	List<JdbcUrlBean> jdbcUrlBeans;
+
+	/** The database user. */
+	String user;
+
+	/** The database password. */
+	String password;
+
+	/**
+	 * The optional additional connection properties, for instance the connect timeout of the
+	 * driver.
+	 */
+	Properties properties;
+
+	/** The order in that the hosts are tried, null is the same as round robin. */
+	HostSelectionStrategy strategy;
+
+	/**
+	 * The number of consecutive connects that failed with a connection error after that a host is
+	 * skipped until a health probe succeeds, the default is one.
+	 */
+	int failureThreshold;
+
+	/**
+	 * The interval of the health probes of the skipped hosts in milliseconds, the default is five
+	 * seconds.
+	 */
+	long probeIntervalMillis;
+
+	/** The timeout of the validation of a health probe in seconds, the default is five seconds. */
+	int probeTimeoutSeconds;
+
+}
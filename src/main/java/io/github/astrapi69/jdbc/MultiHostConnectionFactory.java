@@ -0,0 +1,344 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link MultiHostConnectionFactory} connects to one of several equivalent hosts of a
+ * database. The hosts are tried in the order of the {@link HostSelectionStrategy} until a connect
+ * succeeds.<br>
+ * <br>
+ * Every host has a circuit breaker: a host with the configured number of consecutive connects
+ * that failed with a connection error (SQLState class <code>08</code> or a
+ * {@link SQLTransientConnectionException} or {@link SQLNonTransientConnectionException}) is
+ * skipped locally without a connect attempt, so a dead host costs its connect timeout
+ * only once. A background thread probes the skipped hosts periodically and brings them back as soon
+ * as a probe succeeds. If all hosts are skipped, the skipped hosts are tried anyway.<br>
+ * <br>
+ * Note: an instance of this class is thread safe and has to be closed if it is no more used
+ */
+public class MultiHostConnectionFactory implements Closeable
+{
+
+	/** Constant for the default interval of the health probes in milliseconds. */
+	public static final long DEFAULT_PROBE_INTERVAL_MILLIS = 5000;
+
+	/** Constant for the default timeout of the validation of a health probe in seconds. */
+	public static final int DEFAULT_PROBE_TIMEOUT_SECONDS = 5;
+
+	/** Constant for the weight of a new connect latency in the average latency of a host. */
+	private static final double LATENCY_WEIGHT = 0.2;
+
+	/** The settings of this factory. */
+	private final MultiHostConnectionBean connectionBean;
+
+	/** The connection properties with the user and the password. */
+	private final Properties info;
+
+	/** The states of the hosts. */
+	private final List<HostState> hosts;
+
+	/** The counter for the first host of the round robin strategy. */
+	private final AtomicInteger nextHost = new AtomicInteger();
+
+	/** The executor of the health probes. */
+	private final ScheduledExecutorService prober;
+
+	/**
+	 * Instantiates a new {@link MultiHostConnectionFactory} object
+	 *
+	 * @param connectionBean
+	 *            the settings of the factory
+	 */
+	public MultiHostConnectionFactory(final @NonNull MultiHostConnectionBean connectionBean)
+	{
+		if (connectionBean.getDriverClassName() == null)
+		{
+			throw new IllegalArgumentException("The driver class name is required");
+		}
+		if (connectionBean.getJdbcUrlBeans() == null || connectionBean.getJdbcUrlBeans().isEmpty())
+		{
+			throw new IllegalArgumentException("At least one host is required");
+		}
+		this.connectionBean = connectionBean;
+		this.info = new Properties();
+		if (connectionBean.getProperties() != null)
+		{
+			info.putAll(connectionBean.getProperties());
+		}
+		if (connectionBean.getUser() != null)
+		{
+			info.setProperty("user", connectionBean.getUser());
+		}
+		if (connectionBean.getPassword() != null)
+		{
+			info.setProperty("password", connectionBean.getPassword());
+		}
+		this.hosts = connectionBean.getJdbcUrlBeans().stream().map(HostState::new)
+			.collect(Collectors.toList());
+		this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "multi-host-health-probe");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final long interval = 0 < connectionBean.getProbeIntervalMillis()
+			? connectionBean.getProbeIntervalMillis()
+			: DEFAULT_PROBE_INTERVAL_MILLIS;
+		prober.scheduleWithFixedDelay(this::probe, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets a new connection to the first host in the order of the {@link HostSelectionStrategy}
+	 * that accepts the connect
+	 *
+	 * @return the new connection
+	 * @throws SQLException
+	 *             is thrown if no host accepts the connect, the connect errors of the hosts are
+	 *             added as suppressed exceptions
+	 */
+	public Connection getConnection() throws SQLException
+	{
+		final SQLException failure = new SQLException("No host accepts the connect", "08001");
+		for (final HostState host : getCandidates())
+		{
+			try
+			{
+				return connect(host);
+			}
+			catch (final SQLException e)
+			{
+				failure.addSuppressed(e);
+			}
+		}
+		throw failure;
+	}
+
+	/**
+	 * Gets the hosts that are not skipped
+	 *
+	 * @return the hosts that are not skipped
+	 */
+	public List<JdbcUrlBean> getAvailableHosts()
+	{
+		return hosts.stream().filter(host -> !host.open).map(host -> host.jdbcUrlBean)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Gets the hosts that are skipped until a health probe succeeds
+	 *
+	 * @return the hosts that are skipped
+	 */
+	public List<JdbcUrlBean> getUnavailableHosts()
+	{
+		return hosts.stream().filter(host -> host.open).map(host -> host.jdbcUrlBean)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Stops the health probes
+	 */
+	@Override
+	public void close()
+	{
+		prober.shutdownNow();
+	}
+
+	private List<HostState> getCandidates()
+	{
+		List<HostState> candidates = hosts.stream().filter(host -> !host.open)
+			.collect(Collectors.toList());
+		if (candidates.isEmpty())
+		{
+			// the last resort if all circuits are open
+			candidates = new ArrayList<>(hosts);
+		}
+		final HostSelectionStrategy strategy = connectionBean.getStrategy() != null
+			? connectionBean.getStrategy()
+			: HostSelectionStrategy.ROUND_ROBIN;
+		switch (strategy)
+		{
+			case RANDOM :
+				Collections.shuffle(candidates, ThreadLocalRandom.current());
+				break;
+			case LATENCY_WEIGHTED :
+				candidates.sort(Comparator.comparingDouble(host -> host.latencyNanos));
+				Collections.swap(candidates, 0, chooseByLatency(candidates));
+				break;
+			default :
+				Collections.rotate(candidates,
+					-Math.floorMod(nextHost.getAndIncrement(), candidates.size()));
+		}
+		return candidates;
+	}
+
+	private static int chooseByLatency(final List<HostState> candidates)
+	{
+		double fastest = 0;
+		for (final HostState candidate : candidates)
+		{
+			final double latency = candidate.latencyNanos;
+			if (0 < latency && (fastest == 0 || latency < fastest))
+			{
+				fastest = latency;
+			}
+		}
+		final double[] weights = new double[candidates.size()];
+		double total = 0;
+		for (int i = 0; i < weights.length; i++)
+		{
+			// a host without a measured latency gets the weight of the fastest measured host
+			final double latency = candidates.get(i).latencyNanos;
+			weights[i] = 1 / Math.max(1, latency == 0 ? fastest : latency);
+			total += weights[i];
+		}
+		double random = ThreadLocalRandom.current().nextDouble(total);
+		for (int i = 0; i < weights.length; i++)
+		{
+			random -= weights[i];
+			if (random < 0)
+			{
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	private Connection connect(final HostState host) throws SQLException
+	{
+		final long start = System.nanoTime();
+		final Connection connection;
+		try
+		{
+			connection = DriverRegistry.connect(connectionBean.getDriverClassName(), host.url,
+				info);
+		}
+		catch (final SQLException e)
+		{
+			// a refused login or another error of the request says nothing about the host
+			if (!isConnectionFailure(e))
+			{
+				throw e;
+			}
+			final int threshold = Math.max(1, connectionBean.getFailureThreshold());
+			if (threshold <= host.failureCount.incrementAndGet())
+			{
+				host.open = true;
+			}
+			throw e;
+		}
+		host.succeeded(System.nanoTime() - start);
+		return connection;
+	}
+
+	private static boolean isConnectionFailure(final SQLException exception)
+	{
+		final String sqlState = exception.getSQLState();
+		return (sqlState != null && sqlState.startsWith("08"))
+			|| exception instanceof SQLTransientConnectionException
+			|| exception instanceof SQLNonTransientConnectionException;
+	}
+
+	private void probe()
+	{
+		final int timeout = 0 < connectionBean.getProbeTimeoutSeconds()
+			? connectionBean.getProbeTimeoutSeconds()
+			: DEFAULT_PROBE_TIMEOUT_SECONDS;
+		for (final HostState host : hosts)
+		{
+			if (!host.open)
+			{
+				continue;
+			}
+			final long start = System.nanoTime();
+			try (Connection connection = DriverRegistry
+				.connect(connectionBean.getDriverClassName(), host.url, info))
+			{
+				if (connection.isValid(timeout))
+				{
+					host.succeeded(System.nanoTime() - start);
+				}
+			}
+			catch (final SQLException | RuntimeException e)
+			{
+				// the host stays skipped until the next probe
+			}
+		}
+	}
+
+	/**
+	 * The class {@link HostState} holds the circuit breaker state and the connect latency of a
+	 * host
+	 */
+	private static final class HostState
+	{
+
+		private final JdbcUrlBean jdbcUrlBean;
+
+		private final String url;
+
+		private final AtomicInteger failureCount = new AtomicInteger();
+
+		private volatile boolean open;
+
+		private volatile double latencyNanos;
+
+		private HostState(final JdbcUrlBean jdbcUrlBean)
+		{
+			this.jdbcUrlBean = jdbcUrlBean;
+			this.url = JdbcUrlBean.buildUrlString(jdbcUrlBean);
+		}
+
+		private void succeeded(final long elapsedNanos)
+		{
+			failureCount.set(0);
+			open = false;
+			// an exponentially weighted moving average of the connect latency
+			latencyNanos = latencyNanos == 0
+				? elapsedNanos
+				: latencyNanos + LATENCY_WEIGHT * (elapsedNanos - latencyNanos);
+		}
+
+	}
+
+}
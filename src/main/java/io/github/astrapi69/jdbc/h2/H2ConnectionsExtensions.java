@@ -24,10 +24,14 @@
  */
 package io.github.astrapi69.jdbc.h2;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+import io.github.astrapi69.jdbc.CreationState;
+import io.github.astrapi69.jdbc.DatabaseFileExtensions;
+import io.github.astrapi69.jdbc.DriverRegistry;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
@@ -54,6 +58,9 @@ public final class H2ConnectionsExtensions
 	/** Constant for the default password from H2-database. */
 	public static final String DEFAULT_PASSWORD = "";
 
+	/** Constant for the file suffix from H2-database. */
+	public static final String FILE_SUFFIX = ".mv.db";
+
 	/**
 	 * Gets the H2 connection.
 	 *
@@ -79,8 +86,7 @@ public final class H2ConnectionsExtensions
 		String slashIfMissing = !path.endsWith("/") ? "/" : "";
 		String directoryPath = path + slashIfMissing;
 		final String url = URL_PREFIX + directoryPath + databaseName;
-		Class.forName(DRIVER_NAME);
-		return DriverManager.getConnection(url, dbuser, dbpasswort);
+		return DriverRegistry.getConnection(DRIVER_NAME, url, dbuser, dbpasswort);
 	}
 
 	/**
@@ -104,4 +110,25 @@ public final class H2ConnectionsExtensions
 		return getConnection(path, databaseName, DEFAULT_USER, DEFAULT_PASSWORD);
 	}
 
+	/**
+	 * Creates a new H2 file database with the given name as copy of the given template database in
+	 * the same directory. The template database must be closed while it is copied.
+	 *
+	 * @param path
+	 *            the path of the directory
+	 * @param templateName
+	 *            the name of the template database
+	 * @param databaseName
+	 *            the name of the new database
+	 * @return the {@link CreationState}
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static CreationState newDatabaseFromTemplate(final @NonNull String path,
+		final @NonNull String templateName, final @NonNull String databaseName) throws IOException
+	{
+		return DatabaseFileExtensions.copyDatabaseFiles(new File(path, templateName).getPath(),
+			new File(path, databaseName).getPath(), FILE_SUFFIX);
+	}
+
 }
@@ -24,10 +24,13 @@
  */
 package io.github.astrapi69.jdbc.hsqldb;
 
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+import io.github.astrapi69.jdbc.CreationState;
+import io.github.astrapi69.jdbc.DatabaseFileExtensions;
+import io.github.astrapi69.jdbc.DriverRegistry;
 import lombok.NonNull;
 
 /**
@@ -76,8 +79,31 @@ public class HyperSQLExtensions
 		final @NonNull String dbPassword) throws ClassNotFoundException, SQLException
 	{
 		final String url = URL_PREFIX + CATALOG_TYPE_FILE + ":" + directoryPath + dbFileName;
-		Class.forName(DRIVER_NAME);
-		return DriverManager.getConnection(url, dbUser, dbPassword);
+		return DriverRegistry.getConnection(DRIVER_NAME, url, dbUser, dbPassword);
+	}
+
+	/**
+	 * Creates a new HyperSQL file catalog with the given file name as copy of the files of the
+	 * given template catalog in the same directory. The template catalog must be shut down while
+	 * it is copied.
+	 *
+	 * @param directoryPath
+	 *            the directory path that ends with a separator
+	 * @param templateFileName
+	 *            the file name of the template catalog
+	 * @param dbFileName
+	 *            the file name of the new catalog
+	 * @return the {@link CreationState}
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static CreationState newFileDatabaseFromTemplate(final @NonNull String directoryPath,
+		final @NonNull String templateFileName, final @NonNull String dbFileName)
+		throws IOException
+	{
+		return DatabaseFileExtensions.copyDatabaseFiles(directoryPath + templateFileName,
+			directoryPath + dbFileName, ".script", ".properties", ".data", ".backup", ".log",
+			".lobs");
 	}
 
 	/**
@@ -101,7 +127,6 @@ public class HyperSQLExtensions
 		throws ClassNotFoundException, SQLException
 	{
 		final String url = URL_PREFIX + CATALOG_TYPE_MEMORY + ":" + databaseName;
-		Class.forName(DRIVER_NAME);
-		return DriverManager.getConnection(url, dbUser, dbPassword);
+		return DriverRegistry.getConnection(DRIVER_NAME, url, dbUser, dbPassword);
 	}
 }
@@ -24,16 +24,17 @@
  */
 package io.github.astrapi69.jdbc.mysql;
 
+import java.io.File;
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import io.github.astrapi69.jdbc.CreationState;
+import io.github.astrapi69.jdbc.DatabaseCatalog;
+import io.github.astrapi69.jdbc.DatabaseProvisioner;
+import io.github.astrapi69.jdbc.DatabaseProvisioningResult;
+import io.github.astrapi69.jdbc.DriverRegistry;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
@@ -88,25 +89,28 @@ public final class MySqlConnectionsExtensions
 		final @NonNull String databaseName, final @NonNull String dbuser,
 		final @NonNull String dbpasswort) throws SQLException, ClassNotFoundException
 	{
-		try (Connection connection = MySqlConnectionsExtensions.getConnection(hostname, "", dbuser,
-			dbpasswort))
-		{
-			final DatabaseMetaData meta = connection.getMetaData();
-			try (ResultSet rs = meta.getCatalogs())
-			{
-				final List<String> existingDatabases = new ArrayList<>();
-				while (rs.next())
-				{
-					final String existingDatabaseName = rs.getString("TABLE_CAT");
-					existingDatabases.add(existingDatabaseName);
-				}
-				if (existingDatabases.contains(databaseName))
-				{
-					return true;
-				}
-			}
-		}
-		return false;
+		return getDatabaseCatalog(hostname, dbuser, dbpasswort).existsDatabase(databaseName);
+	}
+
+	/**
+	 * Gets the shared {@link DatabaseCatalog} of the given MySQL server. The catalog checks the
+	 * existence of databases with a query on <code>information_schema.SCHEMATA</code> over a
+	 * reused admin connection, and its cache of the results can be switched on with
+	 * {@link DatabaseCatalog#setCacheTtlMillis(long)}.
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param dbuser
+	 *            the dbuser
+	 * @param dbpasswort
+	 *            the dbpasswort
+	 * @return the shared {@link DatabaseCatalog} of the given MySQL server
+	 */
+	public static DatabaseCatalog getDatabaseCatalog(final @NonNull String hostname,
+		final @NonNull String dbuser, final @NonNull String dbpasswort)
+	{
+		return DatabaseCatalog.of(DRIVER_NAME, URL_PREFIX + hostname + ":" + MYSQL_PORT + "/",
+			dbuser, dbpasswort, DatabaseCatalog.MYSQL_EXISTS_QUERY);
 	}
 
 	/**
@@ -134,8 +138,7 @@ public final class MySqlConnectionsExtensions
 		final @NonNull String dbpasswort) throws ClassNotFoundException, SQLException
 	{
 		final String url = URL_PREFIX + hostname + ":" + portNumber + "/" + databaseName;
-		Class.forName(DRIVER_NAME);
-		return DriverManager.getConnection(url, dbuser, dbpasswort);
+		return DriverRegistry.getConnection(DRIVER_NAME, url, dbuser, dbpasswort);
 	}
 
 	/**
@@ -216,31 +219,79 @@ public final class MySqlConnectionsExtensions
 		final @NonNull String dbPassword, final @NonNull String characterSet,
 		final @NonNull String collate) throws SQLException, ClassNotFoundException
 	{
-		if (existsDatabase(hostname, databaseName, dbUser, dbPassword))
+		final DatabaseCatalog databaseCatalog = getDatabaseCatalog(hostname, dbUser, dbPassword);
+		if (databaseCatalog.existsDatabase(databaseName))
 		{
 			return CreationState.ALREADY_EXISTS;
 		}
-		try (
-			Connection connection = MySqlConnectionsExtensions.getConnection(hostname, "", dbUser,
-				dbPassword);
-			Statement stmt = connection.createStatement())
+		StringBuilder sb = new StringBuilder();
+		sb.append("CREATE DATABASE ");
+		sb.append(databaseName);
+		if (characterSet != null && !characterSet.isEmpty())
 		{
-			StringBuilder sb = new StringBuilder();
-			sb.append("CREATE DATABASE ");
-			sb.append(databaseName);
-			if (characterSet != null && !characterSet.isEmpty())
+			sb.append(" DEFAULT CHARACTER SET ");
+			sb.append(characterSet);
+			if (collate != null && !collate.isEmpty())
 			{
-				sb.append(" DEFAULT CHARACTER SET ");
-				sb.append(characterSet);
-				if (collate != null && !collate.isEmpty())
-				{
-					sb.append(" COLLATE ");
-					sb.append(collate);
-				}
+				sb.append(" COLLATE ");
+				sb.append(collate);
 			}
-			stmt.executeUpdate(sb.toString());
 		}
+		databaseCatalog.executeUpdate(sb.toString(), databaseName);
 		return CreationState.CREATED;
 	}
 
+	/**
+	 * Factory method for create a new {@link DatabaseProvisioner} for the given MySQL server.
+	 * The databases are created with a plain <code>CREATE DATABASE</code> statement.
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param dbUser
+	 *            the database user
+	 * @param dbPassword
+	 *            the database password
+	 * @return the new {@link DatabaseProvisioner}
+	 */
+	public static DatabaseProvisioner newDatabaseProvisioner(final @NonNull String hostname,
+		final @NonNull String dbUser, final @NonNull String dbPassword)
+	{
+		final String serverUrl = URL_PREFIX + hostname + ":" + MYSQL_PORT + "/";
+		return new DatabaseProvisioner(DRIVER_NAME, serverUrl, dbUser, dbPassword,
+			DatabaseCatalog.MYSQL_EXISTS_QUERY,
+			databaseName -> "CREATE DATABASE " + databaseName,
+			databaseName -> serverUrl + databaseName);
+	}
+
+	/**
+	 * Creates the given MySQL databases with the given parallelism and executes the given init
+	 * script in every created database
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param databaseNames
+	 *            the names of the databases
+	 * @param initScript
+	 *            the init script or null if no script is executed
+	 * @param dbUser
+	 *            the database user
+	 * @param dbPassword
+	 *            the database password
+	 * @param parallelism
+	 *            the maximum number of concurrent workers
+	 * @return the {@link DatabaseProvisioningResult} of every database by its name in the order of
+	 *         the given names
+	 * @throws InterruptedException
+	 *             is thrown if the current thread was interrupted while waiting
+	 */
+	public static Map<String, DatabaseProvisioningResult> newDatabases(
+		final @NonNull String hostname, final @NonNull List<String> databaseNames,
+		final File initScript, final @NonNull String dbUser, final @NonNull String dbPassword,
+		final int parallelism)
+		throws InterruptedException
+	{
+		return newDatabaseProvisioner(hostname, dbUser, dbPassword)
+			.provision(databaseNames, initScript, parallelism);
+	}
+
 }
@@ -24,13 +24,18 @@
  */
 package io.github.astrapi69.jdbc.postgresql;
 
+import java.io.File;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import io.github.astrapi69.jdbc.CreationState;
+import io.github.astrapi69.jdbc.DatabaseCatalog;
+import io.github.astrapi69.jdbc.DatabaseProvisioner;
+import io.github.astrapi69.jdbc.DatabaseProvisioningResult;
+import io.github.astrapi69.jdbc.DriverRegistry;
 import io.github.astrapi69.jdbc.JdbcConnectionInfo;
 import io.github.astrapi69.jdbc.JdbcUrlBean;
 import lombok.NonNull;
@@ -81,7 +86,9 @@ public final class PostgreSQLConnectionsExtensions
 	public static final String APP_DB_PASSWORD = "app.db-password";
 
 	/**
-	 * Drops the given PostgreSQL database with the given databaseName if it does exist.
+	 * Drops the given PostgreSQL database with the given databaseName if it does exist. The admin
+	 * connection stays open in the shared {@link DatabaseCatalog} of the server until
+	 * {@link DatabaseCatalog#closeAll()} is called.
 	 *
 	 * @param hostname
 	 *            the hostname
@@ -101,24 +108,38 @@ public final class PostgreSQLConnectionsExtensions
 		final @NonNull String databaseName, final @NonNull String dbuser,
 		final @NonNull String dbpasswort) throws SQLException, ClassNotFoundException
 	{
-		if (existsDatabase(hostname, databaseName, dbuser, dbpasswort))
+		final DatabaseCatalog databaseCatalog = getDatabaseCatalog(hostname,
+			DEFAULT_POSTGRESQL_PORT, dbuser, dbpasswort);
+		if (databaseCatalog.existsDatabase(databaseName))
 		{
-			try (
-				Connection connection = PostgreSQLConnectionsExtensions.getConnection(hostname, "",
-					dbuser, dbpasswort);
-				Statement stmt = connection.createStatement())
-			{
-
-
-				final StringBuilder sb = new StringBuilder();
-				sb.append("DROP DATABASE ");
-				sb.append(databaseName);
-
-				stmt.executeUpdate(sb.toString());
-			}
+			databaseCatalog.executeUpdate("DROP DATABASE " + databaseName, databaseName);
 		}
 	}
 
+	/**
+	 * Gets the shared {@link DatabaseCatalog} of the given PostgreSQL server. The catalog checks
+	 * the existence of databases with a query on <code>pg_database</code> over a reused admin
+	 * connection, and its cache of the results can be switched on with
+	 * {@link DatabaseCatalog#setCacheTtlMillis(long)}. The shared catalog holds the given password
+	 * and its admin connection until {@link DatabaseCatalog#closeAll()} is called.
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param port
+	 *            the port number
+	 * @param dbuser
+	 *            the dbuser
+	 * @param dbpasswort
+	 *            the dbpasswort
+	 * @return the shared {@link DatabaseCatalog} of the given PostgreSQL server
+	 */
+	public static DatabaseCatalog getDatabaseCatalog(final @NonNull String hostname,
+		final int port, final @NonNull String dbuser, final @NonNull String dbpasswort)
+	{
+		return DatabaseCatalog.of(DRIVER_NAME, URL_PREFIX + hostname + ":" + port + "/", dbuser,
+			dbpasswort, DatabaseCatalog.POSTGRESQL_EXISTS_QUERY);
+	}
+
 	/**
 	 * Checks if the given database exists in the Postgresql Database.
 	 *
@@ -140,7 +161,9 @@ public final class PostgreSQLConnectionsExtensions
 	}
 
 	/**
-	 * Checks if the given database exists in the Postgresql Database.
+	 * Checks if the given database exists in the Postgresql Database. The check reuses the admin
+	 * connection of the shared {@link DatabaseCatalog} of the server, which keeps the connection
+	 * and the given credentials until {@link DatabaseCatalog#closeAll()} is called.
 	 *
 	 * @param hostname
 	 *            the hostname
@@ -152,18 +175,18 @@ public final class PostgreSQLConnectionsExtensions
 	 *            the dbuser
 	 * @param dbpasswort
 	 *            the dbpasswort
-	 * @return true, if successful otherwise false
+	 * @return true, if successful otherwise false, also if the server could not be queried
 	 */
 	public static boolean existsDatabase(final @NonNull String hostname, final int port,
 		final @NonNull String databaseName, final @NonNull String dbuser,
 		final @NonNull String dbpasswort)
 	{
-		try (Connection connection = PostgreSQLConnectionsExtensions.getConnection(hostname, port,
-			databaseName, dbuser, dbpasswort))
+		try
 		{
-			return true;
+			return getDatabaseCatalog(hostname, port, dbuser, dbpasswort)
+				.existsDatabase(databaseName);
 		}
-		catch (final Exception e)
+		catch (final SQLException e)
 		{
 			return false;
 		}
@@ -225,8 +248,8 @@ public final class PostgreSQLConnectionsExtensions
 		sb.append(portNumber);
 		sb.append("/");
 		sb.append(databaseName);
-		Class.forName(DRIVER_NAME);
-		return getConnection(sb.toString().trim(), dbuser, dbpasswort);
+		return DriverRegistry.getConnection(DRIVER_NAME, sb.toString().trim(), dbuser,
+			dbpasswort);
 	}
 
 	/**
@@ -246,7 +269,7 @@ public final class PostgreSQLConnectionsExtensions
 	public static Connection getConnection(final @NonNull String url, final @NonNull String dbuser,
 		final @NonNull String dbpasswort) throws SQLException
 	{
-		return DriverManager.getConnection(url, dbuser, dbpasswort);
+		return DriverRegistry.connect(DRIVER_NAME, url, dbuser, dbpasswort);
 	}
 
 	/**
@@ -282,8 +305,7 @@ public final class PostgreSQLConnectionsExtensions
 	public static Connection getConnection(final @NonNull JdbcUrlBean jdbcUrlBean,
 		final @NonNull String dbuser, final @NonNull String dbpasswort) throws SQLException
 	{
-		return DriverManager.getConnection(JdbcUrlBean.buildUrlString(jdbcUrlBean), dbuser,
-			dbpasswort);
+		return getConnection(JdbcUrlBean.buildUrlString(jdbcUrlBean), dbuser, dbpasswort);
 	}
 
 	/**
@@ -335,7 +357,9 @@ public final class PostgreSQLConnectionsExtensions
 	}
 
 	/**
-	 * Creates a new PostgreSQL database with the given database name if it does not exist
+	 * Creates a new PostgreSQL database with the given database name if it does not exist. The
+	 * statements run over the admin connection of the shared {@link DatabaseCatalog} of the server,
+	 * call {@link DatabaseCatalog#closeAll()} to close it and release the given credentials.
 	 *
 	 * @param hostname
 	 *            the host name
@@ -363,30 +387,26 @@ public final class PostgreSQLConnectionsExtensions
 		final @NonNull String dbPassword, final @NonNull String characterSet,
 		final @NonNull String collate) throws SQLException, ClassNotFoundException
 	{
-		if (existsDatabase(hostname, portNumber, databaseName, dbUser, dbPassword))
+		final DatabaseCatalog databaseCatalog = getDatabaseCatalog(hostname, portNumber, dbUser,
+			dbPassword);
+		if (databaseCatalog.existsDatabase(databaseName))
 		{
 			return CreationState.ALREADY_EXISTS;
 		}
-		try (
-			Connection connection = PostgreSQLConnectionsExtensions.getConnection(hostname,
-				portNumber, "", dbUser, dbPassword);
-			Statement stmt = connection.createStatement())
+		StringBuilder sb = new StringBuilder();
+		sb.append("CREATE DATABASE ");
+		sb.append(databaseName);
+		if (characterSet != null && !characterSet.isEmpty())
 		{
-			StringBuilder sb = new StringBuilder();
-			sb.append("CREATE DATABASE ");
-			sb.append(databaseName);
-			if (characterSet != null && !characterSet.isEmpty())
+			sb.append(" DEFAULT CHARACTER SET ");
+			sb.append(characterSet);
+			if (collate != null && !collate.isEmpty())
 			{
-				sb.append(" DEFAULT CHARACTER SET ");
-				sb.append(characterSet);
-				if (collate != null && !collate.isEmpty())
-				{
-					sb.append(" COLLATE ");
-					sb.append(collate);
-				}
+				sb.append(" COLLATE ");
+				sb.append(collate);
 			}
-			stmt.executeUpdate(sb.toString());
 		}
+		databaseCatalog.executeUpdate(sb.toString(), databaseName);
 		return CreationState.CREATED;
 	}
 
@@ -490,4 +510,135 @@ public final class PostgreSQLConnectionsExtensions
 		return PostgreSQLConnectionsExtensions.newDatabase(host, port, dbName, dbUser, dbPw);
 	}
 
+	/**
+	 * Creates a new PostgreSQL database as copy of the given template database with
+	 * <code>CREATE DATABASE ... TEMPLATE</code>. The server copies the files of the template
+	 * database, so a template that is build once with all scripts is cloned much faster than a new
+	 * database is initialized with the same scripts. No other session may be connected to the
+	 * template database while it is copied. Like {@link #newDatabase(String, int, String, String,
+	 * String, String, String)} it uses the shared {@link DatabaseCatalog} of the server.
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param portNumber
+	 *            the port number
+	 * @param databaseName
+	 *            the database name
+	 * @param templateName
+	 *            the name of the template database
+	 * @param dbUser
+	 *            the database user
+	 * @param dbPassword
+	 *            the database password
+	 * @return the {@link CreationState}
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or the template database is in use
+	 */
+	public static CreationState newDatabaseFromTemplate(final @NonNull String hostname,
+		final int portNumber, final @NonNull String databaseName,
+		final @NonNull String templateName, final @NonNull String dbUser,
+		final @NonNull String dbPassword) throws SQLException
+	{
+		final DatabaseCatalog databaseCatalog = getDatabaseCatalog(hostname, portNumber, dbUser,
+			dbPassword);
+		if (databaseCatalog.existsDatabase(databaseName))
+		{
+			return CreationState.ALREADY_EXISTS;
+		}
+		databaseCatalog.executeUpdate(newCreateDatabaseFromTemplate(databaseName, templateName),
+			databaseName);
+		return CreationState.CREATED;
+	}
+
+	/**
+	 * Factory method for create a new {@link DatabaseProvisioner} for the given PostgreSQL
+	 * server. The databases are created with a plain <code>CREATE DATABASE</code> statement.
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param portNumber
+	 *            the port number
+	 * @param dbUser
+	 *            the database user
+	 * @param dbPassword
+	 *            the database password
+	 * @return the new {@link DatabaseProvisioner}
+	 */
+	public static DatabaseProvisioner newDatabaseProvisioner(final @NonNull String hostname,
+		final int portNumber, final @NonNull String dbUser, final @NonNull String dbPassword)
+	{
+		final String serverUrl = URL_PREFIX + hostname + ":" + portNumber + "/";
+		return new DatabaseProvisioner(DRIVER_NAME, serverUrl, dbUser, dbPassword,
+			DatabaseCatalog.POSTGRESQL_EXISTS_QUERY,
+			databaseName -> "CREATE DATABASE " + databaseName,
+			databaseName -> serverUrl + databaseName);
+	}
+
+	/**
+	 * Factory method for create a new {@link DatabaseProvisioner} for the given PostgreSQL
+	 * server. The databases are created as copy of the given template database with
+	 * <code>CREATE DATABASE ... TEMPLATE</code>, so an init script is often not needed.
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param portNumber
+	 *            the port number
+	 * @param templateName
+	 *            the name of the template database
+	 * @param dbUser
+	 *            the database user
+	 * @param dbPassword
+	 *            the database password
+	 * @return the new {@link DatabaseProvisioner}
+	 */
+	public static DatabaseProvisioner newDatabaseProvisioner(final @NonNull String hostname,
+		final int portNumber, final @NonNull String templateName, final @NonNull String dbUser,
+		final @NonNull String dbPassword)
+	{
+		final String serverUrl = URL_PREFIX + hostname + ":" + portNumber + "/";
+		return new DatabaseProvisioner(DRIVER_NAME, serverUrl, dbUser, dbPassword,
+			DatabaseCatalog.POSTGRESQL_EXISTS_QUERY,
+			databaseName -> newCreateDatabaseFromTemplate(databaseName, templateName),
+			databaseName -> serverUrl + databaseName);
+	}
+
+	/**
+	 * Creates the given PostgreSQL databases with the given parallelism and executes the given init
+	 * script in every created database
+	 *
+	 * @param hostname
+	 *            the hostname
+	 * @param portNumber
+	 *            the port number
+	 * @param databaseNames
+	 *            the names of the databases
+	 * @param initScript
+	 *            the init script or null if no script is executed
+	 * @param dbUser
+	 *            the database user
+	 * @param dbPassword
+	 *            the database password
+	 * @param parallelism
+	 *            the maximum number of concurrent workers
+	 * @return the {@link DatabaseProvisioningResult} of every database by its name in the order of
+	 *         the given names
+	 * @throws InterruptedException
+	 *             is thrown if the current thread was interrupted while waiting
+	 */
+	public static Map<String, DatabaseProvisioningResult> newDatabases(
+		final @NonNull String hostname, final int portNumber,
+		final @NonNull List<String> databaseNames, final File initScript,
+		final @NonNull String dbUser, final @NonNull String dbPassword, final int parallelism)
+		throws InterruptedException
+	{
+		return newDatabaseProvisioner(hostname, portNumber, dbUser, dbPassword)
+			.provision(databaseNames, initScript, parallelism);
+	}
+
+	private static String newCreateDatabaseFromTemplate(final String databaseName,
+		final String templateName)
+	{
+		return "CREATE DATABASE " + databaseName + " TEMPLATE " + templateName;
+	}
+
 }
@@ -0,0 +1,51 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+/**
+ * The enum {@link InsertCoalescing} defines how consecutive insert statements with literal values
+ * and the same shape are coalesced by the {@link SqlScriptExecutor}
+ */
+public enum InsertCoalescing
+{
+
+	/** The insert statements are executed as they are */
+	NONE,
+
+	/**
+	 * The literal values are bound as parameters to one {@link java.sql.PreparedStatement} that is
+	 * executed as jdbc batch. Note: drivers with strict parameter types like PostgreSQL needs the
+	 * connection property {@code stringtype=unspecified} for string literals of non text columns.
+	 */
+	PREPARED_BATCH,
+
+	/**
+	 * The rows are coalesced into one insert statement with multiple rows in the VALUES clause. The
+	 * literal values are kept as they are written in the script. If the database does not support
+	 * multiple rows, {@link #PREPARED_BATCH} is used.
+	 */
+	MULTI_ROW_VALUES
+
+}
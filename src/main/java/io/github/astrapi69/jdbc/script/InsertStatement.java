@@ -0,0 +1,454 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link InsertStatement} is a parsed {@code INSERT INTO ... VALUES ...} statement that
+ * contains only literal values like strings, numbers, {@code NULL}, {@code TRUE} and
+ * {@code FALSE}. Statements with the same shape, that is the same text before the keyword
+ * {@code VALUES} and the same number of values in a row, can be coalesced into one parameterized
+ * statement or one statement with multiple rows.
+ */
+public final class InsertStatement
+{
+
+	/** Constant for the keyword that starts the rows of an insert statement. */
+	private static final String VALUES = "VALUES";
+
+	/** Constant for the pattern of a numeric literal. */
+	private static final Pattern NUMBER = Pattern
+		.compile("[+-]?(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?");
+
+	/** The text before the keyword VALUES. */
+	private final String prefix;
+
+	/** The literal values of every row as they are written in the sql statement. */
+	private final List<String[]> rows;
+
+	/** The flag if a backslash escapes the next character in a string literal. */
+	private final boolean backslashEscapes;
+
+	private InsertStatement(final String prefix, final List<String[]> rows,
+		final boolean backslashEscapes)
+	{
+		this.prefix = prefix;
+		this.rows = rows;
+		this.backslashEscapes = backslashEscapes;
+	}
+
+	/**
+	 * Parses the given sql statement
+	 *
+	 * @param sqlStatement
+	 *            the sql statement
+	 * @param backslashEscapes
+	 *            the flag if a backslash escapes the next character in a string literal
+	 * @return the {@link InsertStatement} or null if the given sql statement is not an insert
+	 *         statement with only literal values
+	 */
+	public static InsertStatement parse(final @NonNull String sqlStatement,
+		final boolean backslashEscapes)
+	{
+		if (!sqlStatement.regionMatches(true, 0, "INSERT", 0, 6))
+		{
+			return null;
+		}
+		final int valuesIndex = indexOfValues(sqlStatement);
+		if (valuesIndex == -1)
+		{
+			return null;
+		}
+		final String prefix = sqlStatement.substring(0, valuesIndex).trim();
+		final List<String[]> rows = new ArrayList<>();
+		final List<String> row = new ArrayList<>();
+		int index = skipWhitespace(sqlStatement, valuesIndex + VALUES.length());
+		final int length = sqlStatement.length();
+		while (true)
+		{
+			if (index == length || sqlStatement.charAt(index) != '(')
+			{
+				return null;
+			}
+			row.clear();
+			index = skipWhitespace(sqlStatement, index + 1);
+			while (true)
+			{
+				final int end = endOfLiteral(sqlStatement, index, backslashEscapes);
+				if (end == -1)
+				{
+					return null;
+				}
+				row.add(sqlStatement.substring(index, end));
+				index = skipWhitespace(sqlStatement, end);
+				if (index == length)
+				{
+					return null;
+				}
+				final char c = sqlStatement.charAt(index);
+				index = skipWhitespace(sqlStatement, index + 1);
+				if (c == ')')
+				{
+					break;
+				}
+				if (c != ',')
+				{
+					return null;
+				}
+			}
+			if (!rows.isEmpty() && rows.get(0).length != row.size())
+			{
+				return null;
+			}
+			rows.add(row.toArray(new String[0]));
+			if (index == length)
+			{
+				return new InsertStatement(prefix, rows, backslashEscapes);
+			}
+			if (sqlStatement.charAt(index) != ',')
+			{
+				return null;
+			}
+			index = skipWhitespace(sqlStatement, index + 1);
+		}
+	}
+
+	/**
+	 * Gets the shape of this insert statement. Insert statements with the same shape can be
+	 * coalesced.
+	 *
+	 * @return the shape of this insert statement
+	 */
+	public String getShape()
+	{
+		return prefix + " " + VALUES + " " + rows.get(0).length;
+	}
+
+	/**
+	 * Gets the rows with the literal values as they are written in the sql statement
+	 *
+	 * @return the rows with the literal values
+	 */
+	public List<String[]> getRows()
+	{
+		return rows;
+	}
+
+	/**
+	 * Gets the sql statement with parameter markers for a single row
+	 *
+	 * @return the sql statement with parameter markers for a single row
+	 */
+	public String toPreparedSql()
+	{
+		final StringBuilder sb = new StringBuilder(prefix).append(' ').append(VALUES).append(" (");
+		for (int i = 0; i < rows.get(0).length; i++)
+		{
+			sb.append(i == 0 ? "?" : ", ?");
+		}
+		return sb.append(')').toString();
+	}
+
+	/**
+	 * Appends the rows of this insert statement to the given multi row insert statement. If the
+	 * given {@link StringBuilder} is empty, the text before the keyword VALUES is appended first.
+	 *
+	 * @param sb
+	 *            the {@link StringBuilder} of the multi row insert statement
+	 */
+	public void appendRows(final @NonNull StringBuilder sb)
+	{
+		for (final String[] row : rows)
+		{
+			sb.append(sb.length() == 0 ? prefix + " " + VALUES + " (" : ", (");
+			for (int i = 0; i < row.length; i++)
+			{
+				if (0 < i)
+				{
+					sb.append(", ");
+				}
+				sb.append(row[i]);
+			}
+			sb.append(')');
+		}
+	}
+
+	/**
+	 * Sets the literal values of the given row as parameters to the given
+	 * {@link PreparedStatement}. Quoted literals are bound as strings and <code>NULL</code> as a
+	 * null of the type {@link Types#VARCHAR}
+	 *
+	 * @param preparedStatement
+	 *            the prepared statement from {@link #toPreparedSql()}
+	 * @param row
+	 *            the row with the literal values
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             statement
+	 */
+	public void bind(final @NonNull PreparedStatement preparedStatement,
+		final @NonNull String[] row) throws SQLException
+	{
+		bind(preparedStatement, row, false);
+	}
+
+	/**
+	 * Sets the literal values of the given row as parameters to the given
+	 * {@link PreparedStatement}. If the flag untyped is true the quoted literals and
+	 * <code>NULL</code> are bound with the type {@link Types#OTHER}, so a database like PostgreSQL
+	 * infers the type from the column as it does for the literal instead of rejecting a string
+	 * parameter for a date, uuid, json or enum column
+	 *
+	 * @param preparedStatement
+	 *            the prepared statement from {@link #toPreparedSql()}
+	 * @param row
+	 *            the row with the literal values
+	 * @param untyped
+	 *            the flag if the quoted literals and <code>NULL</code> are bound untyped
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             statement
+	 */
+	public void bind(final @NonNull PreparedStatement preparedStatement,
+		final @NonNull String[] row, final boolean untyped) throws SQLException
+	{
+		for (int i = 0; i < row.length; i++)
+		{
+			final String literal = row[i];
+			final int parameterIndex = i + 1;
+			if (literal.charAt(0) == '\'')
+			{
+				if (untyped)
+				{
+					preparedStatement.setObject(parameterIndex, unquote(literal), Types.OTHER);
+				}
+				else
+				{
+					preparedStatement.setString(parameterIndex, unquote(literal));
+				}
+			}
+			else if (literal.equalsIgnoreCase("NULL"))
+			{
+				preparedStatement.setNull(parameterIndex, untyped ? Types.OTHER : Types.VARCHAR);
+			}
+			else if (literal.equalsIgnoreCase("TRUE") || literal.equalsIgnoreCase("FALSE"))
+			{
+				preparedStatement.setBoolean(parameterIndex, Boolean.parseBoolean(literal));
+			}
+			else
+			{
+				setNumber(preparedStatement, parameterIndex, literal);
+			}
+		}
+	}
+
+	private static void setNumber(final PreparedStatement preparedStatement,
+		final int parameterIndex, final String literal) throws SQLException
+	{
+		final String number = literal.charAt(0) == '+' ? literal.substring(1) : literal;
+		if (number.indexOf('.') == -1 && number.indexOf('e') == -1 && number.indexOf('E') == -1
+			&& number.length() < 19)
+		{
+			preparedStatement.setLong(parameterIndex, Long.parseLong(number));
+		}
+		else
+		{
+			preparedStatement.setBigDecimal(parameterIndex, new BigDecimal(number));
+		}
+	}
+
+	private String unquote(final String literal)
+	{
+		final StringBuilder sb = new StringBuilder(literal.length());
+		for (int i = 1; i < literal.length() - 1; i++)
+		{
+			final char c = literal.charAt(i);
+			if (c == '\'')
+			{
+				// a doubled quote
+				i++;
+			}
+			else if (c == '\\' && backslashEscapes)
+			{
+				i++;
+				sb.append(unescape(literal.charAt(i)));
+				continue;
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	private static String unescape(final char c)
+	{
+		switch (c)
+		{
+			case '0' :
+				return "\0";
+			case 'b' :
+				return "\b";
+			case 'n' :
+				return "\n";
+			case 'r' :
+				return "\r";
+			case 't' :
+				return "\t";
+			case 'Z' :
+				return "\u001A";
+			case '%' :
+			case '_' :
+				// the escaped wildcards keeps the backslash like in MySQL
+				return "\\" + c;
+			default :
+				return String.valueOf(c);
+		}
+	}
+
+	private static int indexOfValues(final String sql)
+	{
+		int depth = 0;
+		for (int i = 0; i < sql.length(); i++)
+		{
+			final char c = sql.charAt(i);
+			if (c == '\'' || c == '"' || c == '`')
+			{
+				final int end = sql.indexOf(c, i + 1);
+				if (end == -1)
+				{
+					return -1;
+				}
+				i = end;
+			}
+			else if (c == '(')
+			{
+				depth++;
+			}
+			else if (c == ')')
+			{
+				depth--;
+			}
+			else if (depth == 0 && sql.regionMatches(true, i, VALUES, 0, VALUES.length())
+				&& 0 < i && !isWordPart(sql.charAt(i - 1))
+				&& (i + VALUES.length() == sql.length()
+					|| !isWordPart(sql.charAt(i + VALUES.length()))))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int endOfLiteral(final String sql, final int start,
+		final boolean backslashEscapes)
+	{
+		final int length = sql.length();
+		if (start == length)
+		{
+			return -1;
+		}
+		final char first = sql.charAt(start);
+		if (first == '\'')
+		{
+			for (int i = start + 1; i < length; i++)
+			{
+				final char c = sql.charAt(i);
+				if (c == '\\' && backslashEscapes)
+				{
+					i++;
+				}
+				else if (c == '\'')
+				{
+					if (i + 1 < length && sql.charAt(i + 1) == '\'')
+					{
+						i++;
+					}
+					else
+					{
+						return i + 1;
+					}
+				}
+			}
+			return -1;
+		}
+		int end = start;
+		while (end < length && (isWordPart(sql.charAt(end)) || sql.charAt(end) == '.'
+			|| isSign(sql, start, end)))
+		{
+			end++;
+		}
+		if (end == start)
+		{
+			return -1;
+		}
+		final String literal = sql.substring(start, end);
+		if (literal.equalsIgnoreCase("NULL") || literal.equalsIgnoreCase("TRUE")
+			|| literal.equalsIgnoreCase("FALSE") || isNumber(literal))
+		{
+			return end;
+		}
+		return -1;
+	}
+
+	private static boolean isSign(final String sql, final int start, final int index)
+	{
+		final char c = sql.charAt(index);
+		if (c != '-' && c != '+')
+		{
+			return false;
+		}
+		// a sign at the start of a number or in the exponent
+		return index == start || sql.charAt(index - 1) == 'e' || sql.charAt(index - 1) == 'E';
+	}
+
+	private static boolean isNumber(final String literal)
+	{
+		return NUMBER.matcher(literal).matches();
+	}
+
+	private static boolean isWordPart(final char c)
+	{
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+	}
+
+	private static int skipWhitespace(final String sql, final int start)
+	{
+		int index = start;
+		while (index < sql.length() && Character.isWhitespace(sql.charAt(index)))
+		{
+			index++;
+		}
+		return index;
+	}
+
+}
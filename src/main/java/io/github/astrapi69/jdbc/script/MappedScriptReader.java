@@ -0,0 +1,213 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link MappedScriptReader} is a {@link Reader} that memory maps a script file window by
+ * window and decodes the mapped bytes incrementally into the char array of the caller. So a script
+ * file is read without intermediate strings and without copying the bytes into the java heap, and
+ * files that are larger than the maximum size of a single mapping are supported too.<br>
+ * <br>
+ * Note: the mapped windows are released by the garbage collector.
+ */
+public class MappedScriptReader extends Reader
+{
+
+	/** Constant for the default size of a mapped window. */
+	public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+	/** Constant for the minimum size of a mapped window that holds every encoded character. */
+	private static final long MINIMUM_WINDOW_SIZE = 16;
+
+	/** The file channel of the script file. */
+	private final FileChannel channel;
+
+	/** The decoder of the script file. */
+	private final CharsetDecoder decoder;
+
+	/** The size of a mapped window. */
+	private final long windowSize;
+
+	/** The size of the script file. */
+	private final long size;
+
+	/** The position in the script file where the current window starts. */
+	private long windowStart;
+
+	/** The current mapped window. */
+	private MappedByteBuffer window;
+
+	/** The low surrogate that is decoded but not yet returned. */
+	private int pendingLowSurrogate = -1;
+
+	/** The flag if the decoder is flushed at the end of the file. */
+	private boolean flushed;
+
+	/**
+	 * Instantiates a new {@link MappedScriptReader} object for the given script file that starts
+	 * at the begin of the file
+	 *
+	 * @param path
+	 *            the path of the script file
+	 * @param charset
+	 *            the charset of the script file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public MappedScriptReader(final @NonNull Path path, final @NonNull Charset charset)
+		throws IOException
+	{
+		this(path, charset, 0);
+	}
+
+	/**
+	 * Instantiates a new {@link MappedScriptReader} object for the given script file that starts
+	 * at the given byte offset
+	 *
+	 * @param path
+	 *            the path of the script file
+	 * @param charset
+	 *            the charset of the script file
+	 * @param byteOffset
+	 *            the byte offset in the script file where the reader starts
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public MappedScriptReader(final @NonNull Path path, final @NonNull Charset charset,
+		final long byteOffset) throws IOException
+	{
+		this(path, charset, byteOffset, DEFAULT_WINDOW_SIZE);
+	}
+
+	MappedScriptReader(final Path path, final Charset charset, final long byteOffset,
+		final long windowSize) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+			.onUnmappableCharacter(CodingErrorAction.REPORT);
+		this.windowSize = Math.max(MINIMUM_WINDOW_SIZE, windowSize);
+		this.size = channel.size();
+		this.windowStart = Math.min(byteOffset, size);
+		map();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(final char[] cbuf, final int off, final int len) throws IOException
+	{
+		if (len == 0)
+		{
+			return 0;
+		}
+		if (pendingLowSurrogate != -1)
+		{
+			cbuf[off] = (char)pendingLowSurrogate;
+			pendingLowSurrogate = -1;
+			return 1;
+		}
+		if (len == 1)
+		{
+			// a single char can be the high surrogate of a pair, so decode two chars
+			final char[] pair = new char[2];
+			final int count = read(pair, 0, 2);
+			if (count == 2)
+			{
+				pendingLowSurrogate = pair[1];
+			}
+			if (0 < count)
+			{
+				cbuf[off] = pair[0];
+			}
+			return Math.min(count, 1);
+		}
+		final CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		while (true)
+		{
+			final boolean endOfInput = windowStart + window.limit() == size;
+			final CoderResult result = decoder.decode(window, out, endOfInput);
+			if (result.isError())
+			{
+				result.throwException();
+			}
+			if (out.position() != off)
+			{
+				return out.position() - off;
+			}
+			if (result.isOverflow())
+			{
+				throw new IOException("the char buffer is too small to decode a character");
+			}
+			if (!endOfInput)
+			{
+				// remap from the first byte that is not decoded
+				windowStart += window.position();
+				map();
+				continue;
+			}
+			if (!flushed)
+			{
+				flushed = true;
+				decoder.flush(out);
+				if (out.position() != off)
+				{
+					return out.position() - off;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	private void map() throws IOException
+	{
+		window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+			Math.min(windowSize, size - windowStart));
+	}
+
+}
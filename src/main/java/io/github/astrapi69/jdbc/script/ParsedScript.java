@@ -0,0 +1,189 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ParsedScript} holds the tokenized statements of a sql script with the offsets
+ * and the delimiter after every statement. A {@link ParsedScript} is immutable and can be executed
+ * any number of times and from several threads over the tokenizers from {@link #newTokenizer()}
+ * without reading and tokenizing the sql script again.
+ */
+public final class ParsedScript
+{
+
+	/** The statements of the sql script without the delimiters. */
+	private final String[] statements;
+
+	/** The character offsets after every statement. */
+	private final long[] characterOffsets;
+
+	/** The UTF-8 encoded byte offsets after every statement. */
+	private final long[] byteOffsets;
+
+	/** The delimiters after every statement. */
+	private final String[] delimiters;
+
+	/** The sum of the lengths of all statements. */
+	private final long length;
+
+	private ParsedScript(final List<ScriptCheckpoint> checkpoints, final List<String> statements)
+	{
+		final int size = statements.size();
+		this.statements = statements.toArray(new String[size]);
+		this.characterOffsets = new long[size];
+		this.byteOffsets = new long[size];
+		this.delimiters = new String[size];
+		long length = 0;
+		for (int i = 0; i < size; i++)
+		{
+			final ScriptCheckpoint checkpoint = checkpoints.get(i);
+			this.characterOffsets[i] = checkpoint.getCharacterOffset();
+			this.byteOffsets[i] = checkpoint.getByteOffset();
+			this.delimiters[i] = checkpoint.getDelimiter();
+			length += this.statements[i].length();
+		}
+		this.length = length;
+	}
+
+	/**
+	 * Factory method for create a new {@link ParsedScript} object from all remaining statements of
+	 * the given {@link SqlScriptTokenizer}
+	 *
+	 * @param tokenizer
+	 *            the tokenizer of the sql script
+	 * @return the new {@link ParsedScript} object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static ParsedScript parse(final @NonNull SqlScriptTokenizer tokenizer)
+		throws IOException
+	{
+		final List<String> statements = new ArrayList<>();
+		final List<ScriptCheckpoint> checkpoints = new ArrayList<>();
+		String sqlStatement;
+		while ((sqlStatement = tokenizer.nextStatement()) != null)
+		{
+			statements.add(sqlStatement);
+			checkpoints.add(tokenizer.getCheckpoint());
+		}
+		return new ParsedScript(checkpoints, statements);
+	}
+
+	/**
+	 * Gets the number of statements
+	 *
+	 * @return the number of statements
+	 */
+	public int getStatementCount()
+	{
+		return statements.length;
+	}
+
+	/**
+	 * Gets the statement with the given zero based index
+	 *
+	 * @param index
+	 *            the zero based index of the statement
+	 * @return the statement without the delimiter
+	 */
+	public String getStatement(final int index)
+	{
+		return statements[index];
+	}
+
+	/**
+	 * Gets the sum of the lengths of all statements
+	 *
+	 * @return the sum of the lengths of all statements
+	 */
+	public long getLength()
+	{
+		return length;
+	}
+
+	/**
+	 * Factory method for create a new {@link SqlScriptTokenizer} object that returns the
+	 * statements of this {@link ParsedScript} without reading or tokenizing
+	 *
+	 * @return the new {@link SqlScriptTokenizer} object
+	 */
+	public SqlScriptTokenizer newTokenizer()
+	{
+		return new ParsedScriptTokenizer(this);
+	}
+
+	/**
+	 * Gets the {@link ScriptCheckpoint} after the given number of statements
+	 *
+	 * @param statementCount
+	 *            the number of statements
+	 * @return the {@link ScriptCheckpoint} after the given number of statements
+	 */
+	ScriptCheckpoint getCheckpoint(final int statementCount)
+	{
+		if (statementCount == 0)
+		{
+			return ScriptCheckpoint.builder().delimiter(SqlScriptTokenizer.DEFAULT_DELIMITER)
+				.build();
+		}
+		final int index = statementCount - 1;
+		return ScriptCheckpoint.builder().statementIndex(statementCount)
+			.characterOffset(characterOffsets[index]).byteOffset(byteOffsets[index])
+			.delimiter(delimiters[index]).build();
+	}
+
+	/**
+	 * Gets the UTF-8 encoded byte offset after the given number of statements
+	 *
+	 * @param statementCount
+	 *            the number of statements
+	 * @return the UTF-8 encoded byte offset after the given number of statements
+	 */
+	long getByteOffset(final int statementCount)
+	{
+		return statementCount == 0 ? 0 : byteOffsets[statementCount - 1];
+	}
+
+	/**
+	 * Gets the delimiter after the given number of statements
+	 *
+	 * @param statementCount
+	 *            the number of statements
+	 * @return the delimiter after the given number of statements
+	 */
+	String getDelimiter(final int statementCount)
+	{
+		return statementCount == 0
+			? SqlScriptTokenizer.DEFAULT_DELIMITER
+			: delimiters[statementCount - 1];
+	}
+
+}
@@ -0,0 +1,115 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.Reader;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ParsedScriptTokenizer} is a {@link SqlScriptTokenizer} that returns the already
+ * tokenized statements of a {@link ParsedScript}
+ */
+class ParsedScriptTokenizer extends SqlScriptTokenizer
+{
+
+	/** The parsed script. */
+	private final ParsedScript parsedScript;
+
+	/** The number of statements that are returned so far. */
+	private int statementCount;
+
+	/**
+	 * Instantiates a new {@link ParsedScriptTokenizer} object
+	 *
+	 * @param parsedScript
+	 *            the parsed script
+	 */
+	ParsedScriptTokenizer(final @NonNull ParsedScript parsedScript)
+	{
+		super(Reader.nullReader());
+		this.parsedScript = parsedScript;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String nextStatement()
+	{
+		if (statementCount == parsedScript.getStatementCount())
+		{
+			return null;
+		}
+		return parsedScript.getStatement(statementCount++);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void resumeFrom(final @NonNull ScriptCheckpoint checkpoint)
+	{
+		statementCount = (int)Math.min(checkpoint.getStatementIndex(),
+			parsedScript.getStatementCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ScriptCheckpoint getCheckpoint()
+	{
+		return withScript(parsedScript.getCheckpoint(statementCount));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getByteOffset()
+	{
+		return parsedScript.getByteOffset(statementCount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getStatementCount()
+	{
+		return statementCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getDelimiter()
+	{
+		return parsedScript.getDelimiter(statementCount);
+	}
+
+}
@@ -0,0 +1,353 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ScriptCache} is a size bounded least recently used cache of
+ * {@link ParsedScript} objects from UTF-8 encoded sql script files. The cache is bounded by the
+ * number of cached scripts and by the sum of the lengths of all cached statements, so a few huge
+ * scripts can not exhaust the heap. A script file that is larger than the maximum length on its
+ * own is not cached and does not evict other scripts. An entry is keyed by the real
+ * path of the script file and the tokenizer settings, and it is only reused as long as the size
+ * and the last modified time of the file are unchanged. So a repeated execution of an unchanged
+ * script file needs no reading and no tokenizing. Compressed script files are cached with their
+ * decompressed statements.<br>
+ * <br>
+ * Note: an instance of this class is thread safe and is meant to be shared
+ */
+public class ScriptCache
+{
+
+	/** Constant for the default maximum number of cached scripts. */
+	public static final int DEFAULT_MAX_ENTRIES = 64;
+
+	/** Constant for the default maximum sum of the lengths of all cached statements. */
+	public static final long DEFAULT_MAX_LENGTH = 32L * 1024 * 1024;
+
+	/** The cached scripts in the order of the last access. */
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The maximum number of cached scripts. */
+	private final int maxEntries;
+
+	/** The maximum sum of the lengths of all cached statements. */
+	private final long maxLength;
+
+	/** The sum of the lengths of all cached statements. */
+	private long length;
+
+	/** The number of requests that are served from the cache. */
+	private long hitCount;
+
+	/** The number of requests that has read and tokenized the script file. */
+	private long missCount;
+
+	/**
+	 * Instantiates a new {@link ScriptCache} object with the default maximum number of entries and
+	 * the default maximum length
+	 */
+	public ScriptCache()
+	{
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Instantiates a new {@link ScriptCache} object with the default maximum length
+	 *
+	 * @param maxEntries
+	 *            the maximum number of cached scripts
+	 */
+	public ScriptCache(final int maxEntries)
+	{
+		this(maxEntries, DEFAULT_MAX_LENGTH);
+	}
+
+	/**
+	 * Instantiates a new {@link ScriptCache} object
+	 *
+	 * @param maxEntries
+	 *            the maximum number of cached scripts
+	 * @param maxLength
+	 *            the maximum sum of the lengths of all cached statements in characters
+	 */
+	public ScriptCache(final int maxEntries, final long maxLength)
+	{
+		if (maxEntries < 1)
+		{
+			throw new IllegalArgumentException("maxEntries must be at least one");
+		}
+		if (maxLength < 1)
+		{
+			throw new IllegalArgumentException("maxLength must be at least one");
+		}
+		this.maxEntries = maxEntries;
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Checks if the given sql script file fits into this cache. A script file that is larger than
+	 * the maximum length should be streamed instead of being parsed into memory.
+	 *
+	 * @param sqlScript
+	 *            the sql script file
+	 * @return true if the given sql script file fits into this cache
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public boolean isCacheable(final @NonNull File sqlScript) throws IOException
+	{
+		return Files.size(sqlScript.toPath()) <= maxLength;
+	}
+
+	/**
+	 * Gets the {@link ParsedScript} of the given UTF-8 encoded sql script file. The script file is
+	 * only read and tokenized if it is not cached or if it has changed. A script that is larger
+	 * than the maximum length is parsed but not cached.
+	 *
+	 * @param sqlScript
+	 *            the sql script file
+	 * @param backslashEscapes
+	 *            the flag if a backslash escapes the next character in a quoted literal
+	 * @return the {@link ParsedScript} of the given sql script file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public ParsedScript get(final @NonNull File sqlScript, final boolean backslashEscapes)
+		throws IOException
+	{
+		final Path path = sqlScript.toPath().toRealPath();
+		final BasicFileAttributes attributes = Files.readAttributes(path,
+			BasicFileAttributes.class);
+		final Key key = new Key(path, backslashEscapes);
+		if (maxLength < attributes.size())
+		{
+			synchronized (entries)
+			{
+				missCount++;
+				remove(key);
+			}
+			return parse(path, backslashEscapes);
+		}
+		synchronized (entries)
+		{
+			final Entry entry = entries.get(key);
+			if (entry != null && entry.size == attributes.size()
+				&& entry.lastModifiedTime.equals(attributes.lastModifiedTime()))
+			{
+				hitCount++;
+				return entry.parsedScript;
+			}
+			missCount++;
+		}
+		final ParsedScript parsedScript = parse(path, backslashEscapes);
+		synchronized (entries)
+		{
+			if (maxLength < parsedScript.getLength())
+			{
+				// a decompressed script can exceed the maximum length on its own
+				remove(key);
+				return parsedScript;
+			}
+			final Entry previous = entries.put(key,
+				new Entry(attributes.size(), attributes.lastModifiedTime(), parsedScript));
+			if (previous != null)
+			{
+				length -= previous.parsedScript.getLength();
+			}
+			length += parsedScript.getLength();
+			evict();
+		}
+		return parsedScript;
+	}
+
+	/**
+	 * Removes all cached scripts
+	 */
+	public void clear()
+	{
+		synchronized (entries)
+		{
+			entries.clear();
+			length = 0;
+		}
+	}
+
+	/**
+	 * Gets the number of cached scripts
+	 *
+	 * @return the number of cached scripts
+	 */
+	public int size()
+	{
+		synchronized (entries)
+		{
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Gets the sum of the lengths of all cached statements
+	 *
+	 * @return the sum of the lengths of all cached statements
+	 */
+	public long getLength()
+	{
+		synchronized (entries)
+		{
+			return length;
+		}
+	}
+
+	/**
+	 * Gets the number of requests that are served from the cache
+	 *
+	 * @return the number of requests that are served from the cache
+	 */
+	public long getHitCount()
+	{
+		synchronized (entries)
+		{
+			return hitCount;
+		}
+	}
+
+	/**
+	 * Gets the number of requests that has read and tokenized the script file
+	 *
+	 * @return the number of requests that has read and tokenized the script file
+	 */
+	public long getMissCount()
+	{
+		synchronized (entries)
+		{
+			return missCount;
+		}
+	}
+
+	private void remove(final Key key)
+	{
+		final Entry previous = entries.remove(key);
+		if (previous != null)
+		{
+			length -= previous.parsedScript.getLength();
+		}
+	}
+
+	private void evict()
+	{
+		final Iterator<Entry> iterator = entries.values().iterator();
+		while ((maxEntries < entries.size() || maxLength < length) && iterator.hasNext())
+		{
+			length -= iterator.next().parsedScript.getLength();
+			iterator.remove();
+		}
+	}
+
+	private static ParsedScript parse(final Path path, final boolean backslashEscapes)
+		throws IOException
+	{
+		final ScriptCompression compression;
+		try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path)))
+		{
+			compression = ScriptCompression.detect(inputStream);
+		}
+		try (SqlScriptTokenizer tokenizer = compression == ScriptCompression.NONE
+			? new SqlScriptTokenizer(new MappedScriptReader(path, StandardCharsets.UTF_8),
+				backslashEscapes)
+			: SqlScriptTokenizer.of(new BufferedInputStream(Files.newInputStream(path)),
+				backslashEscapes))
+		{
+			return ParsedScript.parse(tokenizer);
+		}
+	}
+
+	private static final class Key
+	{
+
+		private final Path path;
+
+		private final boolean backslashEscapes;
+
+		private Key(final Path path, final boolean backslashEscapes)
+		{
+			this.path = path;
+			this.backslashEscapes = backslashEscapes;
+		}
+
+		@Override
+		public boolean equals(final Object object)
+		{
+			if (!(object instanceof Key))
+			{
+				return false;
+			}
+			final Key other = (Key)object;
+			return backslashEscapes == other.backslashEscapes && path.equals(other.path);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(path, backslashEscapes);
+		}
+
+	}
+
+	private static final class Entry
+	{
+
+		private final long size;
+
+		private final FileTime lastModifiedTime;
+
+		private final ParsedScript parsedScript;
+
+		private Entry(final long size, final FileTime lastModifiedTime,
+			final ParsedScript parsedScript)
+		{
+			this.size = size;
+			this.lastModifiedTime = lastModifiedTime;
+			this.parsedScript = parsedScript;
+		}
+
+	}
+
+}
@@ -0,0 +1,164 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The class {@link ScriptCheckpoint} holds the position in a sql script up to that all statements
+ * are committed. A failed execution can be resumed from the checkpoint instead of starting over.
+ * The size and the last modification time of the script file are stored with the position, so a
+ * checkpoint of a changed script file is not resumed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ScriptCheckpoint
+{
+
+	/** Constant for the property key of the statement index. */
+	public static final String KEY_STATEMENT_INDEX = "statementIndex";
+
+	/** Constant for the property key of the character offset. */
+	public static final String KEY_CHARACTER_OFFSET = "characterOffset";
+
+	/** Constant for the property key of the byte offset. */
+	public static final String KEY_BYTE_OFFSET = "byteOffset";
+
+	/** Constant for the property key of the delimiter. */
+	public static final String KEY_DELIMITER = "delimiter";
+
+	/** Constant for the property key of the script length. */
+	public static final String KEY_SCRIPT_LENGTH = "scriptLength";
+
+	/** Constant for the property key of the script last modification time. */
+	public static final String KEY_SCRIPT_LAST_MODIFIED = "scriptLastModified";
+
+	/** The number of statements before the checkpoint. */
+	long statementIndex;
+
+	/** The offset in characters after the last statement before the checkpoint. */
+	long characterOffset;
+
+	/** The offset in UTF-8 encoded bytes after the last statement before the checkpoint. */
+	long byteOffset;
+
+	/** The statement delimiter that is active at the checkpoint. */
+	String delimiter;
+
+	/** The size in bytes of the script file or zero if the script is not read from a file. */
+	long scriptLength;
+
+	/**
+	 * The last modification time in milliseconds of the script file or zero if the script is not
+	 * read from a file.
+	 */
+	long scriptLastModified;
+
+	/**
+	 * Reads the {@link ScriptCheckpoint} object from the given checkpoint file
+	 *
+	 * @param checkpointFile
+	 *            the checkpoint file
+	 * @return the {@link ScriptCheckpoint} object or null if the checkpoint file does not exist
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static ScriptCheckpoint read(final @NonNull File checkpointFile) throws IOException
+	{
+		if (!checkpointFile.exists())
+		{
+			return null;
+		}
+		final Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(checkpointFile.toPath(),
+			StandardCharsets.UTF_8))
+		{
+			properties.load(reader);
+		}
+		return ScriptCheckpoint.builder()
+			.statementIndex(Long.parseLong(properties.getProperty(KEY_STATEMENT_INDEX, "0")))
+			.characterOffset(Long.parseLong(properties.getProperty(KEY_CHARACTER_OFFSET, "0")))
+			.byteOffset(Long.parseLong(properties.getProperty(KEY_BYTE_OFFSET, "0")))
+			.delimiter(
+				properties.getProperty(KEY_DELIMITER, SqlScriptTokenizer.DEFAULT_DELIMITER))
+			.scriptLength(Long.parseLong(properties.getProperty(KEY_SCRIPT_LENGTH, "0")))
+			.scriptLastModified(
+				Long.parseLong(properties.getProperty(KEY_SCRIPT_LAST_MODIFIED, "0")))
+			.build();
+	}
+
+	/**
+	 * Writes the given {@link ScriptCheckpoint} object to the given checkpoint file. The file is
+	 * replaced atomically, so a crash during the write leaves the previous checkpoint intact.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 * @param checkpointFile
+	 *            the checkpoint file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void write(final @NonNull ScriptCheckpoint checkpoint,
+		final @NonNull File checkpointFile) throws IOException
+	{
+		final Properties properties = new Properties();
+		properties.setProperty(KEY_STATEMENT_INDEX, String.valueOf(checkpoint.getStatementIndex()));
+		properties.setProperty(KEY_CHARACTER_OFFSET,
+			String.valueOf(checkpoint.getCharacterOffset()));
+		properties.setProperty(KEY_BYTE_OFFSET, String.valueOf(checkpoint.getByteOffset()));
+		properties.setProperty(KEY_DELIMITER, checkpoint.getDelimiter());
+		properties.setProperty(KEY_SCRIPT_LENGTH, String.valueOf(checkpoint.getScriptLength()));
+		properties.setProperty(KEY_SCRIPT_LAST_MODIFIED,
+			String.valueOf(checkpoint.getScriptLastModified()));
+		final Path target = checkpointFile.getAbsoluteFile().toPath();
+		final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+		{
+			properties.store(writer, null);
+		}
+		Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+			StandardCopyOption.ATOMIC_MOVE);
+	}
+
+}
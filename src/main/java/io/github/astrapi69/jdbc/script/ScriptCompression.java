@@ -0,0 +1,112 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import lombok.NonNull;
+
+/**
+ * The enum {@link ScriptCompression} defines the compression formats of a sql script that are
+ * detected from the first bytes of the script
+ */
+public enum ScriptCompression
+{
+
+	/** The sql script is not compressed */
+	NONE,
+
+	/** The sql script is compressed with gzip */
+	GZIP,
+
+	/** The sql script is one or more entries of a zip archive */
+	ZIP;
+
+	/**
+	 * Detects the compression format from the first bytes of the given {@link InputStream}. The
+	 * given {@link InputStream} has to support mark and reset and is reset to the current position
+	 * after the detection.
+	 *
+	 * @param inputStream
+	 *            the input stream of the sql script
+	 * @return the detected {@link ScriptCompression}
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static ScriptCompression detect(final @NonNull InputStream inputStream)
+		throws IOException
+	{
+		if (!inputStream.markSupported())
+		{
+			throw new IllegalArgumentException("the input stream must support mark and reset");
+		}
+		final byte[] header = new byte[4];
+		inputStream.mark(header.length);
+		final int count;
+		try
+		{
+			count = inputStream.readNBytes(header, 0, header.length);
+		}
+		finally
+		{
+			inputStream.reset();
+		}
+		if (2 <= count && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B)
+		{
+			return GZIP;
+		}
+		if (4 <= count && header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4)
+		{
+			return ZIP;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Decorates the given {@link InputStream} with a decompressing {@link InputStream} for this
+	 * compression format
+	 *
+	 * @param inputStream
+	 *            the input stream of the compressed sql script
+	 * @return the input stream of the decompressed sql script
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public InputStream decompress(final @NonNull InputStream inputStream) throws IOException
+	{
+		switch (this)
+		{
+			case GZIP :
+				return new GZIPInputStream(inputStream, 65536);
+			case ZIP :
+				return new ZipScriptInputStream(inputStream);
+			default :
+				return inputStream;
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.File;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The class {@link ScriptExecutionOptions} holds the options for the execution of a sql script with
+ * the {@link SqlScriptExecutor}. An instance is immutable, so the shared {@link #DEFAULT} can not
+ * be changed by a caller, other options are created with {@link #toBuilder()}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ScriptExecutionOptions
+{
+
+	/** The default options that executes every statement on its own */
+	public static final ScriptExecutionOptions DEFAULT = ScriptExecutionOptions.builder().build();
+
+	/**
+	 * The number of DML statements that are grouped into one jdbc batch. A value less than two
+	 * disables the batch execution.
+	 */
+	int batchSize;
+
+	/** The flag if a backslash escapes the next character in a quoted literal like in MySQL. */
+	boolean backslashEscapes;
+
+	/** The coalescing of consecutive insert statements, null is the same as none. */
+	InsertCoalescing insertCoalescing;
+
+	/**
+	 * The maximum number of rows that are coalesced into one statement or one prepared batch. A
+	 * value less than two uses the default of the {@link SqlScriptExecutor}.
+	 */
+	int insertCoalescingSize;
+
+	/**
+	 * The number of statements after that a commit is executed. A value less than one disables the
+	 * commit by statement count.
+	 */
+	int commitInterval;
+
+	/**
+	 * The number of UTF-8 encoded script bytes after that a commit is executed. A value less than
+	 * one disables the commit by script bytes.
+	 */
+	long commitIntervalBytes;
+
+	/**
+	 * The optional file where a {@link ScriptCheckpoint} is written after every commit. If the file
+	 * exists on start the execution resumes from the checkpoint and the file is deleted after a
+	 * successful execution.
+	 */
+	File checkpointFile;
+
+	/**
+	 * The flag if the wall time and the update count of every statement is measured and a
+	 * {@link ScriptStatistics} is added to the {@link ScriptResult}.
+	 */
+	boolean instrumentation;
+
+	/**
+	 * The number of the slowest statements that are kept in the {@link ScriptStatistics}. A value
+	 * less than one uses the default of the {@link SqlScriptExecutor}.
+	 */
+	int slowStatementLimit;
+
+	/**
+	 * The optional cache of tokenized sql script files. If it is set, an unchanged script file is
+	 * executed from the cache without reading and tokenizing it again.
+	 */
+	ScriptCache scriptCache;
+
+	/**
+	 * Factory method for create the default options with the given instrumentation flag
+	 *
+	 * @param instrumentation
+	 *            the flag if the statements are measured
+	 * @return the default options with the given instrumentation flag
+	 */
+	public static ScriptExecutionOptions of(final boolean instrumentation)
+	{
+		return instrumentation ? DEFAULT.toBuilder().instrumentation(true).build() : DEFAULT;
+	}
+
+	/**
+	 * Checks if the statements are committed in chunks
+	 *
+	 * @return true, if the statements are committed in chunks otherwise false
+	 */
+	public boolean isChunkedCommit()
+	{
+		return 0 < commitInterval || 0 < commitIntervalBytes;
+	}
+
+}
@@ -0,0 +1,81 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The class {@link ScriptStatistics} holds the summary of an instrumented execution of a sql
+ * script with the totals, the throughput and the slowest executions
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ScriptStatistics
+{
+
+	/** The number of executed statements. */
+	long statementCount;
+
+	/** The number of executions, a jdbc batch or a coalesced insert group counts as one. */
+	long executionCount;
+
+	/** The sum of all known update counts. */
+	long updateCount;
+
+	/** The wall time of the whole script execution in nanoseconds. */
+	long elapsedNanos;
+
+	/** The sum of the wall times of all executions in nanoseconds. */
+	long executionNanos;
+
+	/** The slowest executions ordered from the slowest to the fastest. */
+	List<StatementTiming> slowestStatements;
+
+	/**
+	 * Gets the throughput of the script execution in statements per second
+	 *
+	 * @return the number of executed statements per second
+	 */
+	public double getStatementsPerSecond()
+	{
+		if (elapsedNanos <= 0)
+		{
+			return 0;
+		}
+		return statementCount * (double)TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+}
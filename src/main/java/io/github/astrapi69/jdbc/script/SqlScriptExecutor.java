@@ -0,0 +1,613 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link SqlScriptExecutor} executes the statements of a {@link SqlScriptTokenizer} on a
+ * {@link Connection} with the given {@link ScriptExecutionOptions}.<br>
+ * <br>
+ * If a batch size is set and the driver supports batch updates, consecutive DML statements are
+ * grouped into jdbc batches. A batch is flushed if it reaches the batch size or if a statement
+ * that is not a DML statement like a DDL statement follows, so the order of the statements is
+ * preserved.<br>
+ * <br>
+ * If a commit interval is set, the auto commit mode of the connection is switched off during the
+ * execution and a commit is executed every given number of statements or script bytes. After every
+ * commit an optional {@link ScriptCheckpoint} is written, so a failed execution can be resumed
+ * from the last commit.<br>
+ * <br>
+ * If an {@link InsertCoalescing} is set, consecutive insert statements with only literal values
+ * and the same shape are coalesced into one prepared jdbc batch or one insert statement with
+ * multiple rows. Every statement that can not be coalesced is executed as it is.<br>
+ * <br>
+ * If the instrumentation is enabled, the wall time and the update count of every execution is
+ * measured and a {@link ScriptStatistics} with the totals and the slowest executions is added to
+ * the {@link ScriptResult}.<br>
+ * <br>
+ * An execution can be cancelled from another thread with {@link #cancel()}.<br>
+ * <br>
+ * Note: an instance of this class is not thread safe except of the method {@link #cancel()}.
+ */
+public class SqlScriptExecutor
+{
+
+	/** The keywords that starts a DML statement that can be executed in a jdbc batch. */
+	private static final String[] DML_KEYWORDS = { "INSERT", "UPDATE", "DELETE", "MERGE",
+			"REPLACE", "UPSERT" };
+
+	/** Constant for the default maximum number of rows that are coalesced. */
+	public static final int DEFAULT_INSERT_COALESCING_SIZE = 1000;
+
+	/** Constant for the maximum length of a coalesced insert statement with multiple rows. */
+	private static final int MAX_COALESCED_LENGTH = 1024 * 1024;
+
+	/** Constant for the default number of the slowest statements that are kept. */
+	public static final int DEFAULT_SLOW_STATEMENT_LIMIT = 10;
+
+	/** Constant for the maximum length of a statement that is kept in a {@link StatementTiming}. */
+	private static final int MAX_TIMING_SQL_LENGTH = 256;
+
+	/** The connection. */
+	private final Connection connection;
+
+	/** The execution options. */
+	private final ScriptExecutionOptions options;
+
+	/** The update counts of the executed jdbc batches. */
+	private List<int[]> batchUpdateCounts;
+
+	/** The sum of all known update counts. */
+	private long updateCount;
+
+	/** The number of statements in the current jdbc batch. */
+	private int pending;
+
+	/** The effective coalescing of insert statements. */
+	private InsertCoalescing coalescing;
+
+	/** The flag if the literals of a prepared batch are bound untyped. */
+	private boolean untypedParameters;
+
+	/** The insert statements that are coalesced but not yet executed. */
+	private final List<InsertStatement> insertGroup = new ArrayList<>();
+
+	/** The number of rows in the insert statements that are not yet executed. */
+	private int insertGroupRows;
+
+	/** The length of the insert statements that are not yet executed. */
+	private long insertGroupLength;
+
+	/** The number of insert statements that are coalesced with other insert statements. */
+	private long coalescedStatementCount;
+
+	/** The one based index of the current statement in the sql script. */
+	private long statementIndex;
+
+	/** The index of the first statement in the current jdbc batch. */
+	private long batchStatementIndex;
+
+	/** The first statement in the current jdbc batch. */
+	private String batchSql;
+
+	/** The index of the first insert statement that is not yet executed. */
+	private long insertGroupStatementIndex;
+
+	/** The first insert statement that is not yet executed. */
+	private String insertGroupSql;
+
+	/** The slowest executions with the fastest of them as head, null without instrumentation. */
+	private PriorityQueue<StatementTiming> slowestStatements;
+
+	/** The number of the slowest executions that are kept. */
+	private int slowStatementLimit;
+
+	/** The number of measured executions. */
+	private long executionCount;
+
+	/** The sum of the wall times of the measured executions in nanoseconds. */
+	private long executionNanos;
+
+	/** The flag if the execution is cancelled. */
+	private volatile boolean cancelled;
+
+	/** The statement that is currently executed. */
+	private volatile Statement currentStatement;
+
+	/**
+	 * Instantiates a new {@link SqlScriptExecutor} object
+	 *
+	 * @param connection
+	 *            the connection
+	 * @param options
+	 *            the execution options
+	 */
+	public SqlScriptExecutor(final @NonNull Connection connection,
+		final @NonNull ScriptExecutionOptions options)
+	{
+		this.connection = connection;
+		this.options = options;
+	}
+
+	/**
+	 * Checks if the given sql statement is a DML statement that can be executed in a jdbc batch
+	 *
+	 * @param sqlStatement
+	 *            the sql statement
+	 * @return true, if the given sql statement is a DML statement otherwise false
+	 */
+	public static boolean isDataManipulation(final @NonNull String sqlStatement)
+	{
+		for (final String keyword : DML_KEYWORDS)
+		{
+			if (sqlStatement.regionMatches(true, 0, keyword, 0, keyword.length())
+				&& (sqlStatement.length() == keyword.length()
+					|| !Character.isLetterOrDigit(sqlStatement.charAt(keyword.length()))))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Cancels the current and all following executions of this {@link SqlScriptExecutor}. The
+	 * current statement is cancelled with {@link Statement#cancel()} if the driver supports it,
+	 * otherwise the execution stops before the next statement with an {@link SQLException}.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+		final Statement statement = currentStatement;
+		if (statement != null)
+		{
+			try
+			{
+				statement.cancel();
+			}
+			catch (final SQLException e)
+			{
+				// the execution stops anyway before the next statement
+			}
+		}
+	}
+
+	/**
+	 * Checks if this {@link SqlScriptExecutor} is cancelled
+	 *
+	 * @return true, if this {@link SqlScriptExecutor} is cancelled otherwise false
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * Execute all sql statements from the given {@link SqlScriptTokenizer}. If a checkpoint file is
+	 * set in the options and exists, the statements before the checkpoint are skipped, unless the
+	 * given tokenizer is already resumed from the checkpoint.
+	 *
+	 * @param tokenizer
+	 *            the tokenizer of the sql script
+	 * @return the {@link ScriptResult} of the execution
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred or the checkpoint was written for a
+	 *             script file that is changed since then.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or this method is called on a closed
+	 *             connection
+	 */
+	public ScriptResult execute(final @NonNull SqlScriptTokenizer tokenizer)
+		throws IOException, SQLException
+	{
+		batchUpdateCounts = new ArrayList<>();
+		updateCount = 0;
+		pending = 0;
+		insertGroup.clear();
+		insertGroupRows = 0;
+		insertGroupLength = 0;
+		coalescedStatementCount = 0;
+		executionCount = 0;
+		executionNanos = 0;
+		slowStatementLimit = 0 < options.getSlowStatementLimit()
+			? options.getSlowStatementLimit()
+			: DEFAULT_SLOW_STATEMENT_LIMIT;
+		slowestStatements = options.isInstrumentation()
+			? new PriorityQueue<>(Comparator.comparingLong(StatementTiming::getElapsedNanos))
+			: null;
+		final long start = System.nanoTime();
+		coalescing = getEffectiveCoalescing();
+		untypedParameters = coalescing == InsertCoalescing.PREPARED_BATCH
+			&& isDatabaseProduct("postgresql");
+		final long skippedStatementCount = skipToCheckpoint(tokenizer);
+		final boolean chunkedCommit = options.isChunkedCommit();
+		final boolean autoCommit = connection.getAutoCommit();
+		if (chunkedCommit && autoCommit)
+		{
+			connection.setAutoCommit(false);
+		}
+		try
+		{
+			final long commitCount = execute(tokenizer, chunkedCommit);
+			final File checkpointFile = options.getCheckpointFile();
+			if (checkpointFile != null)
+			{
+				Files.deleteIfExists(checkpointFile.toPath());
+			}
+			final long statementCount = tokenizer.getStatementCount() - skippedStatementCount;
+			return ScriptResult.builder().statementCount(statementCount).updateCount(updateCount)
+				.batchUpdateCounts(batchUpdateCounts)
+				.coalescedStatementCount(coalescedStatementCount).commitCount(commitCount)
+				.skippedStatementCount(skippedStatementCount)
+				.statistics(newStatistics(statementCount, System.nanoTime() - start)).build();
+		}
+		catch (final SQLException | IOException | RuntimeException e)
+		{
+			if (chunkedCommit)
+			{
+				rollback(e);
+			}
+			throw e;
+		}
+		finally
+		{
+			if (chunkedCommit && autoCommit)
+			{
+				connection.setAutoCommit(true);
+			}
+		}
+	}
+
+	private long execute(final SqlScriptTokenizer tokenizer, final boolean chunkedCommit)
+		throws IOException, SQLException
+	{
+		final boolean batch = 1 < options.getBatchSize()
+			&& connection.getMetaData().supportsBatchUpdates();
+		long commitCount = 0;
+		long statementsSinceCommit = 0;
+		long lastCommitByteOffset = tokenizer.getByteOffset();
+		try (Statement statement = connection.createStatement())
+		{
+			currentStatement = statement;
+			String sqlStatement;
+			while ((sqlStatement = tokenizer.nextStatement()) != null)
+			{
+				checkCancelled();
+				statementIndex = tokenizer.getStatementCount();
+				if (!coalesce(statement, sqlStatement))
+				{
+					executeInsertGroup(statement);
+					execute(statement, sqlStatement, batch);
+				}
+				statementsSinceCommit++;
+				if (chunkedCommit && isCommitDue(statementsSinceCommit,
+					tokenizer.getByteOffset() - lastCommitByteOffset))
+				{
+					commit(statement, tokenizer);
+					commitCount++;
+					statementsSinceCommit = 0;
+					lastCommitByteOffset = tokenizer.getByteOffset();
+				}
+			}
+			executeInsertGroup(statement);
+			executeBatch(statement);
+			checkCancelled();
+			if (chunkedCommit && 0 < statementsSinceCommit)
+			{
+				commit(statement, tokenizer);
+				commitCount++;
+			}
+		}
+		finally
+		{
+			currentStatement = null;
+		}
+		return commitCount;
+	}
+
+	private void checkCancelled() throws SQLException
+	{
+		if (cancelled)
+		{
+			throw new SQLException("The execution of the sql script is cancelled", "57014");
+		}
+	}
+
+	private void execute(final Statement statement, final String sqlStatement,
+		final boolean batch) throws SQLException
+	{
+		if (batch && isDataManipulation(sqlStatement))
+		{
+			if (pending == 0)
+			{
+				batchStatementIndex = statementIndex;
+				batchSql = sqlStatement;
+			}
+			statement.addBatch(sqlStatement);
+			pending++;
+			if (pending == options.getBatchSize())
+			{
+				executeBatch(statement);
+			}
+			return;
+		}
+		executeBatch(statement);
+		final long start = startTiming();
+		final long updateCountBefore = updateCount;
+		if (!statement.execute(sqlStatement) && 0 < statement.getUpdateCount())
+		{
+			updateCount += statement.getUpdateCount();
+		}
+		stopTiming(start, statementIndex, 1, sqlStatement, updateCountBefore);
+	}
+
+	private long startTiming()
+	{
+		return slowestStatements != null ? System.nanoTime() : 0;
+	}
+
+	private void stopTiming(final long start, final long index, final int count,
+		final String sqlStatement, final long updateCountBefore)
+	{
+		if (slowestStatements == null)
+		{
+			return;
+		}
+		final long elapsedNanos = System.nanoTime() - start;
+		executionCount++;
+		executionNanos += elapsedNanos;
+		if (slowestStatements.size() == slowStatementLimit)
+		{
+			if (elapsedNanos <= slowestStatements.peek().getElapsedNanos())
+			{
+				return;
+			}
+			slowestStatements.poll();
+		}
+		slowestStatements.add(StatementTiming.builder().statementIndex(index)
+			.statementCount(count)
+			.sql(sqlStatement.length() <= MAX_TIMING_SQL_LENGTH
+				? sqlStatement
+				: sqlStatement.substring(0, MAX_TIMING_SQL_LENGTH) + "...")
+			.elapsedNanos(elapsedNanos).updateCount(updateCount - updateCountBefore).build());
+	}
+
+	private ScriptStatistics newStatistics(final long statementCount, final long elapsedNanos)
+	{
+		if (slowestStatements == null)
+		{
+			return null;
+		}
+		final List<StatementTiming> slowest = new ArrayList<>(slowestStatements);
+		slowest.sort(Comparator.comparingLong(StatementTiming::getElapsedNanos).reversed());
+		return ScriptStatistics.builder().statementCount(statementCount)
+			.executionCount(executionCount).updateCount(updateCount).elapsedNanos(elapsedNanos)
+			.executionNanos(executionNanos).slowestStatements(slowest).build();
+	}
+
+	private long skipToCheckpoint(final SqlScriptTokenizer tokenizer) throws IOException
+	{
+		final File checkpointFile = options.getCheckpointFile();
+		if (checkpointFile == null)
+		{
+			return tokenizer.getStatementCount();
+		}
+		final ScriptCheckpoint checkpoint = ScriptCheckpoint.read(checkpointFile);
+		if (checkpoint != null)
+		{
+			tokenizer.checkResumable(checkpoint);
+			while (tokenizer.getStatementCount() < checkpoint.getStatementIndex()
+				&& tokenizer.nextStatement() != null)
+			{
+				// skip the statements that are already committed
+			}
+		}
+		return tokenizer.getStatementCount();
+	}
+
+	private boolean isCommitDue(final long statementsSinceCommit, final long bytesSinceCommit)
+	{
+		return (0 < options.getCommitInterval()
+			&& options.getCommitInterval() <= statementsSinceCommit)
+			|| (0 < options.getCommitIntervalBytes()
+				&& options.getCommitIntervalBytes() <= bytesSinceCommit);
+	}
+
+	private void commit(final Statement statement, final SqlScriptTokenizer tokenizer)
+		throws SQLException, IOException
+	{
+		executeInsertGroup(statement);
+		executeBatch(statement);
+		connection.commit();
+		final File checkpointFile = options.getCheckpointFile();
+		if (checkpointFile != null)
+		{
+			ScriptCheckpoint.write(tokenizer.getCheckpoint(), checkpointFile);
+		}
+	}
+
+	private void rollback(final Exception cause)
+	{
+		try
+		{
+			connection.rollback();
+		}
+		catch (final SQLException e)
+		{
+			cause.addSuppressed(e);
+		}
+	}
+
+	private InsertCoalescing getEffectiveCoalescing() throws SQLException
+	{
+		final InsertCoalescing insertCoalescing = options.getInsertCoalescing();
+		if (insertCoalescing == null)
+		{
+			return InsertCoalescing.NONE;
+		}
+		if (insertCoalescing == InsertCoalescing.MULTI_ROW_VALUES && isDatabaseProduct("oracle"))
+		{
+			return InsertCoalescing.PREPARED_BATCH;
+		}
+		return insertCoalescing;
+	}
+
+	private boolean isDatabaseProduct(final String name) throws SQLException
+	{
+		final String productName = connection.getMetaData().getDatabaseProductName();
+		return productName != null && productName.toLowerCase().contains(name);
+	}
+
+	private boolean coalesce(final Statement statement, final String sqlStatement)
+		throws SQLException
+	{
+		if (coalescing == InsertCoalescing.NONE)
+		{
+			return false;
+		}
+		final InsertStatement insertStatement = InsertStatement.parse(sqlStatement,
+			options.isBackslashEscapes());
+		if (insertStatement == null)
+		{
+			return false;
+		}
+		final int maxRows = 1 < options.getInsertCoalescingSize()
+			? options.getInsertCoalescingSize()
+			: DEFAULT_INSERT_COALESCING_SIZE;
+		if (!insertGroup.isEmpty() && (!insertGroup.get(0).getShape()
+			.equals(insertStatement.getShape())
+			|| maxRows < insertGroupRows + insertStatement.getRows().size()
+			|| MAX_COALESCED_LENGTH < insertGroupLength + sqlStatement.length()))
+		{
+			executeInsertGroup(statement);
+		}
+		if (insertGroup.isEmpty())
+		{
+			// keep the order of the statements
+			executeBatch(statement);
+			insertGroupStatementIndex = statementIndex;
+			insertGroupSql = sqlStatement;
+		}
+		insertGroup.add(insertStatement);
+		insertGroupRows += insertStatement.getRows().size();
+		insertGroupLength += sqlStatement.length();
+		return true;
+	}
+
+	private void executeInsertGroup(final Statement statement) throws SQLException
+	{
+		if (insertGroup.isEmpty())
+		{
+			return;
+		}
+		if (1 < insertGroup.size())
+		{
+			coalescedStatementCount += insertGroup.size();
+		}
+		final long start = startTiming();
+		final long updateCountBefore = updateCount;
+		if (coalescing == InsertCoalescing.PREPARED_BATCH && 1 < insertGroupRows)
+		{
+			try (PreparedStatement preparedStatement = connection
+				.prepareStatement(insertGroup.get(0).toPreparedSql()))
+			{
+				currentStatement = preparedStatement;
+				for (final InsertStatement insertStatement : insertGroup)
+				{
+					for (final String[] row : insertStatement.getRows())
+					{
+						insertStatement.bind(preparedStatement, row, untypedParameters);
+						preparedStatement.addBatch();
+					}
+				}
+				addUpdateCounts(preparedStatement.executeBatch());
+			}
+			finally
+			{
+				currentStatement = statement;
+			}
+		}
+		else
+		{
+			final StringBuilder sb = new StringBuilder((int)Math.min(insertGroupLength + 16,
+				MAX_COALESCED_LENGTH * 2L));
+			for (final InsertStatement insertStatement : insertGroup)
+			{
+				insertStatement.appendRows(sb);
+			}
+			final int count = statement.executeUpdate(sb.toString());
+			if (0 < count)
+			{
+				updateCount += count;
+			}
+		}
+		stopTiming(start, insertGroupStatementIndex, insertGroup.size(), insertGroupSql,
+			updateCountBefore);
+		insertGroup.clear();
+		insertGroupRows = 0;
+		insertGroupLength = 0;
+	}
+
+	private void executeBatch(final Statement statement) throws SQLException
+	{
+		if (pending == 0)
+		{
+			return;
+		}
+		final long start = startTiming();
+		final long updateCountBefore = updateCount;
+		final int[] updateCounts = statement.executeBatch();
+		statement.clearBatch();
+		addUpdateCounts(updateCounts);
+		stopTiming(start, batchStatementIndex, pending, batchSql, updateCountBefore);
+		pending = 0;
+	}
+
+	private void addUpdateCounts(final int[] updateCounts)
+	{
+		batchUpdateCounts.add(updateCounts);
+		for (final int count : updateCounts)
+		{
+			if (0 < count)
+			{
+				updateCount += count;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.sql.Connection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link SqlScriptFuture} is a {@link CompletableFuture} of the asynchronous execution of
+ * a sql script on a connection from a {@link DataSource}. The connection is taken from the
+ * {@link DataSource} when the execution starts and it is closed when the execution ends.<br>
+ * <br>
+ * If this future is cancelled, the cancellation is propagated to the {@link SqlScriptExecutor}
+ * that cancels the running statement with {@link java.sql.Statement#cancel()}. Note that the
+ * dependent futures that are created with methods like {@link #thenApply} do not propagate their
+ * cancellation to this future.
+ */
+public class SqlScriptFuture extends CompletableFuture<ScriptResult>
+{
+
+	/** The executor of the running execution or null if no execution is running. */
+	private volatile SqlScriptExecutor scriptExecutor;
+
+	/**
+	 * Instantiates a new {@link SqlScriptFuture} object that is not yet completed
+	 */
+	SqlScriptFuture()
+	{
+	}
+
+	/**
+	 * Factory method for create a new {@link SqlScriptFuture} object that executes the statements
+	 * of the tokenizer from the given supplier with the given {@link Executor}
+	 *
+	 * @param dataSource
+	 *            the data source of the connection
+	 * @param tokenizerSupplier
+	 *            the supplier of the tokenizer of the sql script, the tokenizer is closed after the
+	 *            execution
+	 * @param options
+	 *            the execution options
+	 * @param executor
+	 *            the executor that runs the execution
+	 * @return the new {@link SqlScriptFuture} object
+	 */
+	public static SqlScriptFuture supplyAsync(final @NonNull DataSource dataSource,
+		final @NonNull Callable<SqlScriptTokenizer> tokenizerSupplier,
+		final @NonNull ScriptExecutionOptions options, final @NonNull Executor executor)
+	{
+		final SqlScriptFuture future = new SqlScriptFuture();
+		executor.execute(() -> future.run(dataSource, tokenizerSupplier, options));
+		return future;
+	}
+
+	/**
+	 * Gets the default executor for asynchronous script executions. On java 21 or newer the
+	 * executor starts a virtual thread for every execution, otherwise the executor is a cached
+	 * thread pool with daemon threads.
+	 *
+	 * @return the default executor for asynchronous script executions
+	 */
+	public static Executor getDefaultExecutor()
+	{
+		return DefaultExecutorHolder.EXECUTOR;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning)
+	{
+		final boolean cancelled = super.cancel(mayInterruptIfRunning);
+		final SqlScriptExecutor executor = scriptExecutor;
+		if (executor != null)
+		{
+			executor.cancel();
+		}
+		return cancelled;
+	}
+
+	private void run(final DataSource dataSource,
+		final Callable<SqlScriptTokenizer> tokenizerSupplier, final ScriptExecutionOptions options)
+	{
+		if (isDone())
+		{
+			return;
+		}
+		try (Connection connection = dataSource.getConnection();
+			SqlScriptTokenizer tokenizer = tokenizerSupplier.call())
+		{
+			final SqlScriptExecutor executor = new SqlScriptExecutor(connection, options);
+			scriptExecutor = executor;
+			if (isCancelled())
+			{
+				executor.cancel();
+			}
+			complete(executor.execute(tokenizer));
+		}
+		catch (final Throwable e)
+		{
+			completeExceptionally(e);
+		}
+		finally
+		{
+			scriptExecutor = null;
+		}
+	}
+
+	private static final class DefaultExecutorHolder
+	{
+
+		private static final Executor EXECUTOR = newDefaultExecutor();
+
+		private static Executor newDefaultExecutor()
+		{
+			try
+			{
+				return (ExecutorService)Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}
+			catch (final ReflectiveOperationException e)
+			{
+				// virtual threads are available since java 21
+				final AtomicInteger threadCount = new AtomicInteger();
+				return Executors.newCachedThreadPool(runnable -> {
+					final Thread thread = new Thread(runnable,
+						"sql-script-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,312 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link SqlScriptSetRunner} executes a set of sql script files with declared
+ * dependencies. Scripts that does not depend on each other are executed concurrently, every script
+ * on its own connection from the given {@link DataSource}. The number of concurrent scripts is
+ * bounded by the given parallelism.<br>
+ * <br>
+ * The execution fails fast, if a script fails no further script is started and the scripts that
+ * are already running at this moment are cancelled with {@link SqlScriptExecutor#cancel()} and
+ * interrupted. The cancel is repeated until the running scripts are terminated, because a
+ * statement that is cancelled just before the driver starts it is not stopped. The exception of
+ * the failed script is thrown after all running scripts are
+ * terminated, but at most after {@link #TERMINATION_TIMEOUT_SECONDS} seconds, so a statement that
+ * blocks in a driver that does not support the cancel can not hang the failed execution.
+ */
+public class SqlScriptSetRunner
+{
+
+	/**
+	 * Constant for the maximum time in seconds to wait for the termination of the running scripts
+	 * after a script has failed.
+	 */
+	public static final long TERMINATION_TIMEOUT_SECONDS = 30;
+
+	/** Constant for the interval in milliseconds to repeat the cancel of the running scripts. */
+	private static final long CANCEL_INTERVAL_MILLIS = 100;
+
+	/** The data source that provides a connection for every script. */
+	private final DataSource dataSource;
+
+	/** The maximum number of concurrent executed scripts. */
+	private final int parallelism;
+
+	/** The execution options for every script. */
+	private final ScriptExecutionOptions options;
+
+	/**
+	 * Instantiates a new {@link SqlScriptSetRunner} object with the default execution options
+	 *
+	 * @param dataSource
+	 *            the data source that provides a connection for every script
+	 * @param parallelism
+	 *            the maximum number of concurrent executed scripts
+	 */
+	public SqlScriptSetRunner(final @NonNull DataSource dataSource, final int parallelism)
+	{
+		this(dataSource, parallelism, ScriptExecutionOptions.DEFAULT);
+	}
+
+	/**
+	 * Instantiates a new {@link SqlScriptSetRunner} object
+	 *
+	 * @param dataSource
+	 *            the data source that provides a connection for every script
+	 * @param parallelism
+	 *            the maximum number of concurrent executed scripts
+	 * @param options
+	 *            the execution options for every script, a checkpoint file is not allowed because
+	 *            it can not be shared between scripts
+	 */
+	public SqlScriptSetRunner(final @NonNull DataSource dataSource, final int parallelism,
+		final @NonNull ScriptExecutionOptions options)
+	{
+		if (parallelism < 1)
+		{
+			throw new IllegalArgumentException("parallelism must be greater than zero");
+		}
+		if (options.getCheckpointFile() != null)
+		{
+			throw new IllegalArgumentException(
+				"a checkpoint file can not be shared between the scripts of a script set");
+		}
+		this.dataSource = dataSource;
+		this.parallelism = parallelism;
+		this.options = options;
+	}
+
+	/**
+	 * Executes the given script set in the order of the declared dependencies
+	 *
+	 * @param entries
+	 *            the entries of the script set
+	 * @return the {@link ScriptResult} of every script by its name in the order of completion
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 * @throws InterruptedException
+	 *             is thrown if the current thread was interrupted while waiting for a script or
+	 *             for the termination of the running scripts after a script has failed
+	 * @throws IllegalArgumentException
+	 *             is thrown if a name is not unique, a dependency is unknown or the dependencies
+	 *             contains a cycle
+	 */
+	public Map<String, ScriptResult> run(final @NonNull Collection<ScriptSetEntry> entries)
+		throws IOException, SQLException, InterruptedException
+	{
+		final Map<String, ScriptSetEntry> entriesByName = new LinkedHashMap<>();
+		final Map<String, Integer> pendingDependencies = new HashMap<>();
+		final Map<String, List<String>> dependents = new HashMap<>();
+		for (final ScriptSetEntry entry : entries)
+		{
+			if (entriesByName.put(entry.getName(), entry) != null)
+			{
+				throw new IllegalArgumentException("duplicate script name: " + entry.getName());
+			}
+			dependents.put(entry.getName(), new ArrayList<>());
+		}
+		final Deque<String> ready = new ArrayDeque<>();
+		for (final ScriptSetEntry entry : entriesByName.values())
+		{
+			for (final String dependency : entry.getDependencies())
+			{
+				if (!dependents.containsKey(dependency))
+				{
+					throw new IllegalArgumentException(
+						"unknown dependency " + dependency + " of script " + entry.getName());
+				}
+				dependents.get(dependency).add(entry.getName());
+			}
+			pendingDependencies.put(entry.getName(), entry.getDependencies().size());
+			if (entry.getDependencies().isEmpty())
+			{
+				ready.add(entry.getName());
+			}
+		}
+		checkAcyclic(entriesByName.keySet(), pendingDependencies, dependents, ready);
+
+		final Map<String, ScriptResult> completedResults = new ConcurrentHashMap<>();
+		final Set<SqlScriptExecutor> runningExecutors = ConcurrentHashMap.newKeySet();
+		final AtomicBoolean failed = new AtomicBoolean();
+		final Map<String, ScriptResult> results = new LinkedHashMap<>();
+		final ExecutorService executorService = Executors
+			.newFixedThreadPool(Math.min(parallelism, Math.max(1, entriesByName.size())));
+		final CompletionService<String> completionService = new ExecutorCompletionService<>(
+			executorService);
+		final List<Future<String>> futures = new ArrayList<>();
+		try
+		{
+			int running = 0;
+			while (!ready.isEmpty() || 0 < running)
+			{
+				while (!ready.isEmpty())
+				{
+					final ScriptSetEntry entry = entriesByName.get(ready.poll());
+					futures.add(completionService.submit(() -> {
+						completedResults.put(entry.getName(),
+							execute(entry, runningExecutors, failed));
+						return entry.getName();
+					}));
+					running++;
+				}
+				final String completed = completionService.take().get();
+				running--;
+				results.put(completed, completedResults.get(completed));
+				for (final String dependent : dependents.get(completed))
+				{
+					if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0)
+					{
+						ready.add(dependent);
+					}
+				}
+			}
+		}
+		catch (final ExecutionException e)
+		{
+			failed.set(true);
+			for (final Future<String> future : futures)
+			{
+				future.cancel(true);
+			}
+			executorService.shutdownNow();
+			final long deadline = System.nanoTime()
+				+ TimeUnit.SECONDS.toNanos(TERMINATION_TIMEOUT_SECONDS);
+			do
+			{
+				runningExecutors.forEach(SqlScriptExecutor::cancel);
+			}
+			while (!executorService.awaitTermination(CANCEL_INTERVAL_MILLIS,
+				TimeUnit.MILLISECONDS) && System.nanoTime() - deadline < 0);
+			throw rethrow(e.getCause());
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+		return results;
+	}
+
+	private ScriptResult execute(final ScriptSetEntry entry,
+		final Set<SqlScriptExecutor> runningExecutors, final AtomicBoolean failed)
+		throws IOException, SQLException
+	{
+		try (Connection connection = dataSource.getConnection();
+			SqlScriptTokenizer tokenizer = SqlScriptTokenizer.of(entry.getFile(), options))
+		{
+			final SqlScriptExecutor executor = new SqlScriptExecutor(connection, options);
+			runningExecutors.add(executor);
+			try
+			{
+				// a script that is started while the failure is handled is cancelled as well
+				if (failed.get())
+				{
+					executor.cancel();
+				}
+				return executor.execute(tokenizer);
+			}
+			finally
+			{
+				runningExecutors.remove(executor);
+			}
+		}
+	}
+
+	private static void checkAcyclic(final Collection<String> names,
+		final Map<String, Integer> pendingDependencies, final Map<String, List<String>> dependents,
+		final Collection<String> ready)
+	{
+		final Map<String, Integer> pending = new HashMap<>(pendingDependencies);
+		final Deque<String> queue = new ArrayDeque<>(ready);
+		int visited = 0;
+		while (!queue.isEmpty())
+		{
+			visited++;
+			for (final String dependent : dependents.get(queue.poll()))
+			{
+				if (pending.merge(dependent, -1, Integer::sum) == 0)
+				{
+					queue.add(dependent);
+				}
+			}
+		}
+		if (visited != names.size())
+		{
+			throw new IllegalArgumentException(
+				"the dependencies of the script set contains a cycle");
+		}
+	}
+
+	private static SQLException rethrow(final Throwable cause) throws IOException
+	{
+		if (cause instanceof SQLException)
+		{
+			return (SQLException)cause;
+		}
+		if (cause instanceof IOException)
+		{
+			throw (IOException)cause;
+		}
+		if (cause instanceof RuntimeException)
+		{
+			throw (RuntimeException)cause;
+		}
+		if (cause instanceof Error)
+		{
+			throw (Error)cause;
+		}
+		return new SQLException(cause);
+	}
+
+}
@@ -0,0 +1,705 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link SqlScriptTokenizer} splits a sql script from a {@link Reader} into single sql
+ * statements. The script is read in chunks and every statement is returned as soon as its delimiter
+ * is reached, so the memory use is bounded by the largest single statement and not by the size of
+ * the script.<br>
+ * <br>
+ * The tokenizer is aware of single quoted string literals, double quoted and back tick quoted
+ * identifiers, line comments ({@code --}), block comments, PostgreSQL dollar quoting
+ * ({@code $$ ... $$} or {@code $tag$ ... $tag$}) and the MySQL client command {@code DELIMITER}.
+ * Line comments and block comments are removed from the statements, except of the MySQL
+ * conditional comments ({@code /*! ... *}{@code /}) and the optimizer hints
+ * ({@code /*+ ... *}{@code /}).
+ */
+public class SqlScriptTokenizer implements Closeable
+{
+
+	/** Constant for the default statement delimiter. */
+	public static final String DEFAULT_DELIMITER = ";";
+
+	/** Constant for the MySQL client command that changes the statement delimiter. */
+	private static final String DELIMITER_COMMAND = "delimiter";
+
+	/** Constant for the size of the read buffer. */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** Constant for the end of the stream. */
+	private static final int EOF = -1;
+
+	/** The reader of the sql script or of the current entry of a zip archive. */
+	private Reader reader;
+
+	/** The zip archive of scripts or null if the script is not read from a zip archive. */
+	private final ZipScriptInputStream archive;
+
+	/** The flag if a backslash escapes the next character in a quoted literal like in MySQL. */
+	private final boolean backslashEscapes;
+
+	/** The read buffer. */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/** The buffer for the current statement. */
+	private final StringBuilder statement = new StringBuilder();
+
+	/** The current position in the read buffer. */
+	private int position;
+
+	/** The number of valid characters in the read buffer. */
+	private int limit;
+
+	/** The character that was read ahead and has to be processed again. */
+	private int pushback = EOF;
+
+	/** The current statement delimiter. */
+	private String delimiter = DEFAULT_DELIMITER;
+
+	/** The number of statements that are returned so far. */
+	private long statementCount;
+
+	/** The number of consumed characters. */
+	private long characterOffset;
+
+	/** The number of consumed characters as UTF-8 encoded bytes. */
+	private long byteOffset;
+
+	/** The character offset after the last returned statement. */
+	private long statementEndCharacterOffset;
+
+	/** The byte offset after the last returned statement. */
+	private long statementEndByteOffset;
+
+	/** The size in bytes of the script file or zero if the script is not read from a file. */
+	private long scriptLength;
+
+	/** The last modification time of the script file or zero if it is not read from a file. */
+	private long scriptLastModified;
+
+	/**
+	 * Instantiates a new {@link SqlScriptTokenizer} object that treats a backslash in a quoted
+	 * literal as an ordinary character
+	 *
+	 * @param reader
+	 *            the reader of the sql script
+	 */
+	public SqlScriptTokenizer(final @NonNull Reader reader)
+	{
+		this(reader, false);
+	}
+
+	/**
+	 * Instantiates a new {@link SqlScriptTokenizer} object
+	 *
+	 * @param reader
+	 *            the reader of the sql script
+	 * @param backslashEscapes
+	 *            the flag if a backslash escapes the next character in a quoted literal, this is
+	 *            needed for scripts from mysqldump
+	 */
+	public SqlScriptTokenizer(final @NonNull Reader reader, final boolean backslashEscapes)
+	{
+		this.reader = reader;
+		this.archive = null;
+		this.backslashEscapes = backslashEscapes;
+	}
+
+	private SqlScriptTokenizer(final ZipScriptInputStream archive, final boolean backslashEscapes)
+	{
+		this.reader = new InputStreamReader(archive, StandardCharsets.UTF_8);
+		this.archive = archive;
+		this.backslashEscapes = backslashEscapes;
+	}
+
+	/**
+	 * Factory method for create a new {@link SqlScriptTokenizer} object for the given UTF-8
+	 * encoded sql script file with the given {@link ScriptExecutionOptions}. If a
+	 * {@link ScriptCache} is set in the options, the tokenizer returns the cached statements of an
+	 * unchanged script file that fits into the cache. A gzip compressed script file or a zip
+	 * archive of script files is decompressed while it is read. Otherwise the script file is
+	 * memory mapped with a {@link MappedScriptReader} and if a checkpoint file is set in the
+	 * options and exists, the tokenizer is resumed from the byte offset of the checkpoint. A
+	 * checkpoint that was written for a script file with another size or last modification time
+	 * is refused.
+	 *
+	 * @param sqlScript
+	 *            the sql script file
+	 * @param options
+	 *            the execution options
+	 * @return the new {@link SqlScriptTokenizer} object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static SqlScriptTokenizer of(final @NonNull File sqlScript,
+		final @NonNull ScriptExecutionOptions options) throws IOException
+	{
+		final long length = sqlScript.length();
+		final long lastModified = sqlScript.lastModified();
+		final SqlScriptTokenizer tokenizer;
+		if (options.getScriptCache() != null && options.getScriptCache().isCacheable(sqlScript))
+		{
+			tokenizer = options.getScriptCache().get(sqlScript, options.isBackslashEscapes())
+				.newTokenizer();
+			return tokenizer.withScript(length, lastModified);
+		}
+		final ScriptCompression compression;
+		try (InputStream inputStream = new BufferedInputStream(
+			Files.newInputStream(sqlScript.toPath())))
+		{
+			compression = ScriptCompression.detect(inputStream);
+		}
+		if (compression != ScriptCompression.NONE)
+		{
+			tokenizer = of(new BufferedInputStream(Files.newInputStream(sqlScript.toPath())),
+				options);
+			return tokenizer.withScript(length, lastModified);
+		}
+		final ScriptCheckpoint checkpoint = options.getCheckpointFile() != null
+			? ScriptCheckpoint.read(options.getCheckpointFile())
+			: null;
+		if (checkpoint != null)
+		{
+			checkResumable(checkpoint, length, lastModified);
+		}
+		tokenizer = new SqlScriptTokenizer(
+			new MappedScriptReader(sqlScript.toPath(), StandardCharsets.UTF_8,
+				checkpoint != null ? checkpoint.getByteOffset() : 0),
+			options.isBackslashEscapes()).withScript(length, lastModified);
+		if (checkpoint != null)
+		{
+			tokenizer.resumeFrom(checkpoint);
+		}
+		return tokenizer;
+	}
+
+	/**
+	 * Factory method for create a new {@link SqlScriptTokenizer} object for the UTF-8 encoded sql
+	 * script from the given {@link InputStream} with the given {@link ScriptExecutionOptions}. The
+	 * compression of the script is detected from the first bytes and a gzip compressed script or a
+	 * zip archive of scripts is decompressed while it is read. Every entry of a zip archive is
+	 * tokenized as a script of its own, so the delimiter is reset to the default delimiter and an
+	 * unterminated last statement of an entry is returned at the end of the entry.
+	 *
+	 * @param inputStream
+	 *            the input stream of the plain, gzip compressed or zipped sql script
+	 * @param options
+	 *            the execution options
+	 * @return the new {@link SqlScriptTokenizer} object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static SqlScriptTokenizer of(final @NonNull InputStream inputStream,
+		final @NonNull ScriptExecutionOptions options) throws IOException
+	{
+		return of(inputStream, options.isBackslashEscapes());
+	}
+
+	/**
+	 * Reads the next sql statement from the script without the delimiter
+	 *
+	 * @return the next sql statement or null if the end of the script is reached
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public String nextStatement() throws IOException
+	{
+		String sql = readStatement();
+		while (sql == null && archive != null && archive.nextEntry())
+		{
+			// the old reader is not closed, because it would close the archive
+			reader = new InputStreamReader(archive, StandardCharsets.UTF_8);
+			position = 0;
+			limit = 0;
+			pushback = EOF;
+			delimiter = DEFAULT_DELIMITER;
+			sql = readStatement();
+		}
+		return sql;
+	}
+
+	/**
+	 * Resumes this tokenizer from the given {@link ScriptCheckpoint}. The reader of this tokenizer
+	 * has to be positioned at the offset of the given checkpoint.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint to resume from
+	 */
+	public void resumeFrom(final @NonNull ScriptCheckpoint checkpoint)
+	{
+		statementCount = checkpoint.getStatementIndex();
+		characterOffset = checkpoint.getCharacterOffset();
+		byteOffset = checkpoint.getByteOffset();
+		statementEndCharacterOffset = characterOffset;
+		statementEndByteOffset = byteOffset;
+		if (checkpoint.getDelimiter() != null && !checkpoint.getDelimiter().isEmpty())
+		{
+			delimiter = checkpoint.getDelimiter();
+		}
+	}
+
+	/**
+	 * Gets the {@link ScriptCheckpoint} after the last returned statement
+	 *
+	 * @return the {@link ScriptCheckpoint} after the last returned statement
+	 */
+	public ScriptCheckpoint getCheckpoint()
+	{
+		return withScript(ScriptCheckpoint.builder().statementIndex(statementCount)
+			.characterOffset(statementEndCharacterOffset).byteOffset(statementEndByteOffset)
+			.delimiter(delimiter).build());
+	}
+
+	/**
+	 * Checks if the given {@link ScriptCheckpoint} was written for the script of this tokenizer. A
+	 * checkpoint or a tokenizer without the size and the last modification time of a script file
+	 * is not checked.
+	 *
+	 * @param checkpoint
+	 *            the checkpoint to check
+	 * @throws IOException
+	 *             if the script file was changed after the checkpoint was written
+	 */
+	public void checkResumable(final @NonNull ScriptCheckpoint checkpoint) throws IOException
+	{
+		checkResumable(checkpoint, scriptLength, scriptLastModified);
+	}
+
+	/**
+	 * Gets the offset in UTF-8 encoded bytes after the last returned statement
+	 *
+	 * @return the offset in UTF-8 encoded bytes after the last returned statement
+	 */
+	public long getByteOffset()
+	{
+		return statementEndByteOffset;
+	}
+
+	/**
+	 * Gets the number of statements that are returned so far
+	 *
+	 * @return the number of statements that are returned so far
+	 */
+	public long getStatementCount()
+	{
+		return statementCount;
+	}
+
+	/**
+	 * Gets the current statement delimiter
+	 *
+	 * @return the current statement delimiter
+	 */
+	public String getDelimiter()
+	{
+		return delimiter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		reader.close();
+	}
+
+	/**
+	 * Sets the size and the last modification time of the script file of this tokenizer
+	 *
+	 * @param length
+	 *            the size in bytes of the script file
+	 * @param lastModified
+	 *            the last modification time in milliseconds of the script file
+	 * @return this tokenizer
+	 */
+	SqlScriptTokenizer withScript(final long length, final long lastModified)
+	{
+		this.scriptLength = length;
+		this.scriptLastModified = lastModified;
+		return this;
+	}
+
+	/**
+	 * Sets the size and the last modification time of the script file of this tokenizer to the
+	 * given {@link ScriptCheckpoint}
+	 *
+	 * @param checkpoint
+	 *            the checkpoint
+	 * @return the given checkpoint
+	 */
+	ScriptCheckpoint withScript(final ScriptCheckpoint checkpoint)
+	{
+		checkpoint.setScriptLength(scriptLength);
+		checkpoint.setScriptLastModified(scriptLastModified);
+		return checkpoint;
+	}
+
+	/**
+	 * Factory method for create a new {@link SqlScriptTokenizer} object for the UTF-8 encoded sql
+	 * script from the given {@link InputStream}. The compression of the script is detected from
+	 * the first bytes and every entry of a zip archive is tokenized as a script of its own.
+	 *
+	 * @param inputStream
+	 *            the input stream of the plain, gzip compressed or zipped sql script
+	 * @param backslashEscapes
+	 *            the flag if a backslash escapes the next character in a quoted literal
+	 * @return the new {@link SqlScriptTokenizer} object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	static SqlScriptTokenizer of(final InputStream inputStream, final boolean backslashEscapes)
+		throws IOException
+	{
+		final InputStream bufferedInputStream = inputStream.markSupported()
+			? inputStream
+			: new BufferedInputStream(inputStream);
+		final InputStream decompressed = ScriptCompression.detect(bufferedInputStream)
+			.decompress(bufferedInputStream);
+		if (decompressed instanceof ZipScriptInputStream)
+		{
+			return new SqlScriptTokenizer((ZipScriptInputStream)decompressed, backslashEscapes);
+		}
+		return new SqlScriptTokenizer(new InputStreamReader(decompressed, StandardCharsets.UTF_8),
+			backslashEscapes);
+	}
+
+	private static void checkResumable(final ScriptCheckpoint checkpoint, final long length,
+		final long lastModified) throws IOException
+	{
+		if (checkpoint.getScriptLength() == 0 || length == 0)
+		{
+			return;
+		}
+		if (checkpoint.getScriptLength() != length
+			|| checkpoint.getScriptLastModified() != lastModified)
+		{
+			throw new IOException("The checkpoint was written for a script file with "
+				+ checkpoint.getScriptLength() + " bytes modified at "
+				+ checkpoint.getScriptLastModified() + ", but the script file has " + length
+				+ " bytes modified at " + lastModified);
+		}
+	}
+
+	private String readStatement() throws IOException
+	{
+		int c;
+		while ((c = read()) != EOF)
+		{
+			switch (c)
+			{
+				case '\'' :
+				case '"' :
+				case '`' :
+					statement.append((char)c);
+					readQuoted(c);
+					break;
+				case '-' :
+					if (!skipLineComment())
+					{
+						statement.append('-');
+					}
+					break;
+				case '/' :
+					if (!readBlockComment())
+					{
+						statement.append('/');
+					}
+					break;
+				case '$' :
+					readDollarQuoted();
+					break;
+				default :
+					if (Character.isWhitespace(c))
+					{
+						if (statement.length() == 0)
+						{
+							break;
+						}
+						if (isDelimiterCommand())
+						{
+							readDelimiterCommand();
+							break;
+						}
+					}
+					statement.append((char)c);
+			}
+			if (endsWith(delimiter))
+			{
+				statement.setLength(statement.length() - delimiter.length());
+				final String sql = statement.toString().trim();
+				statement.setLength(0);
+				if (!sql.isEmpty())
+				{
+					return onStatement(sql);
+				}
+			}
+		}
+		final String sql = statement.toString().trim();
+		statement.setLength(0);
+		if (sql.isEmpty())
+		{
+			return null;
+		}
+		return onStatement(sql);
+	}
+
+	private String onStatement(final String sql)
+	{
+		statementCount++;
+		statementEndCharacterOffset = characterOffset;
+		statementEndByteOffset = byteOffset;
+		return sql;
+	}
+
+	private int read() throws IOException
+	{
+		final int c;
+		if (pushback != EOF)
+		{
+			c = pushback;
+			pushback = EOF;
+		}
+		else
+		{
+			if (position == limit)
+			{
+				limit = reader.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0)
+				{
+					limit = 0;
+					return EOF;
+				}
+			}
+			c = buffer[position++];
+		}
+		characterOffset++;
+		byteOffset += utf8Length(c);
+		return c;
+	}
+
+	private void unread(final int c)
+	{
+		if (c != EOF)
+		{
+			pushback = c;
+			characterOffset--;
+			byteOffset -= utf8Length(c);
+		}
+	}
+
+	private static int utf8Length(final int c)
+	{
+		if (c < 0x80)
+		{
+			return 1;
+		}
+		if (c < 0x800 || Character.isSurrogate((char)c))
+		{
+			// a surrogate pair is encoded with four bytes, two for every half of the pair
+			return 2;
+		}
+		return 3;
+	}
+
+	private void readQuoted(final int quote) throws IOException
+	{
+		int c;
+		while ((c = read()) != EOF)
+		{
+			statement.append((char)c);
+			if (backslashEscapes && c == '\\' && quote != '`')
+			{
+				c = read();
+				if (c == EOF)
+				{
+					return;
+				}
+				statement.append((char)c);
+			}
+			else if (c == quote)
+			{
+				// a doubled quote is handled as a closing and a new opening quote
+				return;
+			}
+		}
+	}
+
+	private boolean skipLineComment() throws IOException
+	{
+		final int next = read();
+		if (next != '-')
+		{
+			unread(next);
+			return false;
+		}
+		int c;
+		while ((c = read()) != EOF && c != '\n')
+		{
+			// skip the comment
+		}
+		if (0 < statement.length())
+		{
+			statement.append('\n');
+		}
+		return true;
+	}
+
+	private boolean readBlockComment() throws IOException
+	{
+		final int next = read();
+		if (next != '*')
+		{
+			unread(next);
+			return false;
+		}
+		int c = read();
+		final boolean keep = c == '!' || c == '+';
+		if (keep)
+		{
+			statement.append("/*");
+		}
+		int previous = EOF;
+		while (c != EOF)
+		{
+			if (keep)
+			{
+				statement.append((char)c);
+			}
+			if (previous == '*' && c == '/')
+			{
+				break;
+			}
+			previous = c;
+			c = read();
+		}
+		if (!keep && 0 < statement.length())
+		{
+			statement.append(' ');
+		}
+		return true;
+	}
+
+	private void readDollarQuoted() throws IOException
+	{
+		final int length = statement.length();
+		final boolean identifierPart = 0 < length
+			&& isIdentifierPart(statement.charAt(length - 1));
+		statement.append('$');
+		// a delimiter like $$ from the MySQL client wins over the dollar quoting
+		if (identifierPart || delimiter.indexOf('$') != -1)
+		{
+			return;
+		}
+		int c = read();
+		if (c != EOF && Character.isDigit(c))
+		{
+			// a positional parameter like $1
+			unread(c);
+			return;
+		}
+		while (c != EOF && isIdentifierPart(c))
+		{
+			statement.append((char)c);
+			c = read();
+		}
+		if (c != '$')
+		{
+			unread(c);
+			return;
+		}
+		statement.append('$');
+		final String tag = statement.substring(length);
+		while ((c = read()) != EOF)
+		{
+			statement.append((char)c);
+			if (c == '$' && statement.length() - length >= tag.length() * 2 && endsWith(tag))
+			{
+				return;
+			}
+		}
+	}
+
+	private boolean isDelimiterCommand()
+	{
+		return statement.length() == DELIMITER_COMMAND.length()
+			&& statement.toString().equalsIgnoreCase(DELIMITER_COMMAND);
+	}
+
+	private void readDelimiterCommand() throws IOException
+	{
+		final StringBuilder newDelimiter = new StringBuilder();
+		int c;
+		while ((c = read()) != EOF && c != '\n')
+		{
+			newDelimiter.append((char)c);
+		}
+		final String value = newDelimiter.toString().trim();
+		if (!value.isEmpty())
+		{
+			delimiter = value;
+		}
+		statement.setLength(0);
+	}
+
+	private boolean endsWith(final String suffix)
+	{
+		final int length = statement.length();
+		final int suffixLength = suffix.length();
+		if (length < suffixLength
+			|| statement.charAt(length - 1) != suffix.charAt(suffixLength - 1))
+		{
+			return false;
+		}
+		for (int i = 0; i < suffixLength - 1; i++)
+		{
+			if (statement.charAt(length - suffixLength + i) != suffix.charAt(i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isIdentifierPart(final int c)
+	{
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ZipScriptInputStream} streams the file entries of a zip archive one after the
+ * other in the order of the archive. The end of every entry is signaled as the end of the stream
+ * and the next entry is opened with {@link #nextEntry()}, so every entry can be tokenized as a
+ * script of its own and no statement, quoting, comment or delimiter leaks into the next entry.
+ * The first entry is opened on the first read. Directory entries and the metadata entries of
+ * macOS ({@code __MACOSX/} and {@code ._} files) are skipped.
+ */
+public class ZipScriptInputStream extends InputStream
+{
+
+	/** Constant for the directory of the macOS metadata entries. */
+	private static final String MACOSX_DIRECTORY = "__MACOSX/";
+
+	/** Constant for the name prefix of the macOS metadata entries. */
+	private static final String APPLE_DOUBLE_PREFIX = "._";
+
+	/** The zip input stream of the archive. */
+	private final ZipInputStream zipInputStream;
+
+	/** The number of file entries that are opened so far. */
+	private int entryCount;
+
+	/** The flag if the last entry of the archive is read. */
+	private boolean finished;
+
+	/**
+	 * Instantiates a new {@link ZipScriptInputStream} object
+	 *
+	 * @param inputStream
+	 *            the input stream of the zip archive
+	 */
+	public ZipScriptInputStream(final @NonNull InputStream inputStream)
+	{
+		this.zipInputStream = new ZipInputStream(inputStream);
+	}
+
+	/**
+	 * Gets the number of file entries that are opened so far
+	 *
+	 * @return the number of opened file entries
+	 */
+	public int getEntryCount()
+	{
+		return entryCount;
+	}
+
+	/**
+	 * Opens the next file entry of the archive. The remaining bytes of the current entry are
+	 * skipped.
+	 *
+	 * @return true if a next file entry is opened, false if the end of the archive is reached
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public boolean nextEntry() throws IOException
+	{
+		if (finished)
+		{
+			return false;
+		}
+		ZipEntry entry;
+		while ((entry = zipInputStream.getNextEntry()) != null)
+		{
+			if (!entry.isDirectory() && !isMetadata(entry.getName()))
+			{
+				entryCount++;
+				return true;
+			}
+		}
+		finished = true;
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read() throws IOException
+	{
+		final byte[] single = new byte[1];
+		final int count = read(single, 0, 1);
+		return count < 0 ? -1 : single[0] & 0xFF;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(final byte[] buffer, final int offset, final int length) throws IOException
+	{
+		if (length == 0)
+		{
+			return 0;
+		}
+		if (entryCount == 0 && !nextEntry())
+		{
+			return -1;
+		}
+		if (finished)
+		{
+			return -1;
+		}
+		return zipInputStream.read(buffer, offset, length);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		zipInputStream.close();
+	}
+
+	private static boolean isMetadata(final String name)
+	{
+		final String fileName = name.substring(name.lastIndexOf('/') + 1);
+		return name.startsWith(MACOSX_DIRECTORY) || name.contains("/" + MACOSX_DIRECTORY)
+			|| fileName.startsWith(APPLE_DOUBLE_PREFIX);
+	}
+
+}
@@ -25,12 +25,19 @@
 package io.github.astrapi69.jdbc.sqlite;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import io.github.astrapi69.jdbc.ConnectionsExtensions;
 import io.github.astrapi69.jdbc.CreationState;
+import io.github.astrapi69.jdbc.DatabaseFileExtensions;
+import io.github.astrapi69.jdbc.DriverRegistry;
 import lombok.NonNull;
 
 /**
@@ -86,6 +93,30 @@ public class SqliteExtensions
 		return CreationState.CREATED;
 	}
 
+	/**
+	 * Creates a new sqllite database with the given file name as copy of the given template
+	 * database in the same directory. The write ahead log and the rollback journal of the template
+	 * are copied too if they exist. The template database must not be written while it is copied.
+	 *
+	 * @param directoryPath
+	 *            the absolute path of the directory
+	 * @param templateFileName
+	 *            the file name of the template database
+	 * @param dbFileName
+	 *            the file name of the new database
+	 * @return the {@link CreationState}
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static CreationState newFileDatabaseFromTemplate(final @NonNull String directoryPath,
+		final @NonNull String templateFileName, final @NonNull String dbFileName)
+		throws IOException
+	{
+		return DatabaseFileExtensions.copyDatabaseFiles(
+			new File(directoryPath, templateFileName).getPath(),
+			new File(directoryPath, dbFileName).getPath(), "", "-wal", "-journal");
+	}
+
 	/**
 	 * Gets the sqllite connection
 	 *
@@ -106,8 +137,31 @@ public class SqliteExtensions
 		String slashIfMissing = !directoryPath.endsWith("/") ? "/" : "";
 		String path = directoryPath + slashIfMissing;
 		final String url = URL_PREFIX + path + dbFileName;
-		Class.forName(DRIVER_NAME);
-		return DriverManager.getConnection(url);
+		return DriverRegistry.getConnection(DRIVER_NAME, url);
+	}
+
+	/**
+	 * Gets the sqllite connection with the pragmas of the given {@link SqlitePerformanceProfile}
+	 *
+	 * @param directoryPath
+	 *            the absolute path of the directory
+	 * @param dbFileName
+	 *            the file name of the database
+	 * @param profile
+	 *            the performance profile
+	 * @return the sqllite connection
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	public static Connection getFileConnection(final @NonNull String directoryPath,
+		final @NonNull String dbFileName, final @NonNull SqlitePerformanceProfile profile)
+		throws ClassNotFoundException, SQLException
+	{
+		String slashIfMissing = !directoryPath.endsWith("/") ? "/" : "";
+		final String url = URL_PREFIX + directoryPath + slashIfMissing + dbFileName;
+		return DriverRegistry.getConnection(DRIVER_NAME, url, profile.toProperties());
 	}
 
 	/**
@@ -126,8 +180,108 @@ public class SqliteExtensions
 		throws ClassNotFoundException, SQLException
 	{
 		String url = URL_PREFIX + ":" + "memory" + ":" + databaseName;
-		Class.forName(DRIVER_NAME);
-		return DriverManager.getConnection(url);
+		return DriverRegistry.getConnection(DRIVER_NAME, url);
+	}
+
+	/**
+	 * Gets a new sqllite memory connection that is restored from the given snapshot file, so the
+	 * memory database starts with the content of the snapshot. The database is held in memory only
+	 * and is shared by the connections that are opened with the url
+	 * <code>jdbc:sqlite:file:&lt;databaseName&gt;?mode=memory&amp;cache=shared</code> as long as
+	 * one of them is open. Note that the url of {@link #getMemoryConnection(String)} is no memory
+	 * url for sqlite, it opens the database file <code>:memory:&lt;databaseName&gt;</code> in the
+	 * working directory.
+	 *
+	 * @param databaseName
+	 *            the database name
+	 * @param snapshotFile
+	 *            the snapshot file that is written with {@link #snapshot(Connection, File)} or any
+	 *            other sqlite database file
+	 * @return the sqllite memory connection
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 * @throws NoSuchFileException
+	 *             is thrown if the snapshot file does not exist
+	 */
+	public static Connection getSharedMemoryConnection(final @NonNull String databaseName,
+		final @NonNull File snapshotFile)
+		throws ClassNotFoundException, SQLException, NoSuchFileException
+	{
+		checkSnapshotFile(snapshotFile);
+		final Connection connection = DriverRegistry.getConnection(DRIVER_NAME,
+			URL_PREFIX + "file:" + databaseName + "?mode=memory&cache=shared");
+		try
+		{
+			restore(connection, snapshotFile);
+		}
+		catch (final SQLException | NoSuchFileException e)
+		{
+			connection.close();
+			throw e;
+		}
+		return connection;
+	}
+
+	/**
+	 * Writes a snapshot of the main database of the given sqllite connection to the given file with
+	 * the online backup of sqlite. The source database can be in use while the snapshot is
+	 * written. The snapshot is written to a temporary file in the same directory that replaces the
+	 * given file with an atomic move, so the given file is never incomplete.
+	 *
+	 * @param connection
+	 *            the sqllite connection like a memory connection
+	 * @param snapshotFile
+	 *            the snapshot file
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public static void snapshot(final @NonNull Connection connection,
+		final @NonNull File snapshotFile) throws SQLException, IOException
+	{
+		final Path target = snapshotFile.getAbsoluteFile().toPath();
+		final Path temporaryFile = Files.createTempFile(target.getParent(),
+			target.getFileName().toString(), ".tmp");
+		try
+		{
+			try (Statement statement = connection.createStatement())
+			{
+				statement.executeUpdate("backup to " + quote(temporaryFile.toString()));
+			}
+			Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Replaces the content of the main database of the given sqllite connection with the content
+	 * of the given snapshot file with the online backup of sqlite
+	 *
+	 * @param connection
+	 *            the sqllite connection like a memory connection
+	 * @param snapshotFile
+	 *            the snapshot file that is written with {@link #snapshot(Connection, File)} or any
+	 *            other sqlite database file
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 * @throws NoSuchFileException
+	 *             is thrown if the snapshot file does not exist
+	 */
+	public static void restore(final @NonNull Connection connection,
+		final @NonNull File snapshotFile) throws SQLException, NoSuchFileException
+	{
+		checkSnapshotFile(snapshotFile);
+		try (Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("restore from " + quote(snapshotFile.getAbsolutePath()));
+		}
 	}
 
 	/**
@@ -147,4 +301,28 @@ public class SqliteExtensions
 		ConnectionsExtensions.executeSqlScript(connection, sql, true);
 	}
 
+	private static void checkSnapshotFile(final File snapshotFile) throws NoSuchFileException
+	{
+		// sqlite would restore an empty database from a missing file
+		if (!snapshotFile.isFile())
+		{
+			throw new NoSuchFileException(snapshotFile.getPath(), null,
+				"the snapshot file does not exist");
+		}
+	}
+
+	private static String quote(final String path)
+	{
+		if (path.indexOf('\'') < 0)
+		{
+			return "'" + path + "'";
+		}
+		if (path.indexOf('"') < 0)
+		{
+			return '"' + path + '"';
+		}
+		throw new IllegalArgumentException(
+			"the path can not contain single and double quotes: " + path);
+	}
+
 }
@@ -0,0 +1,135 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.sqlite;
+
+import java.util.Properties;
+
+import lombok.Getter;
+
+/**
+ * The enum {@link SqlitePerformanceProfile} defines named sets of the pragmas
+ * <code>journal_mode</code>, <code>synchronous</code>, <code>mmap_size</code>,
+ * <code>cache_size</code>, <code>temp_store</code> and <code>busy_timeout</code> that the sqlite
+ * driver applies on every connect if they are given as connection properties.<br>
+ * <br>
+ * Note: the journal mode <code>WAL</code> is persistent in the database file, a connection with
+ * another profile can switch the journal mode back only if no other connection is open.
+ */
+@Getter
+public enum SqlitePerformanceProfile
+{
+
+	/**
+	 * Write ahead log with a sync on every commit, a committed transaction survives a power loss.
+	 */
+	DURABLE("WAL", "FULL", 0L, -2000, "DEFAULT", 5000),
+
+	/**
+	 * Write ahead log with a sync only on checkpoints, a committed transaction survives a crash of
+	 * the application but the last transactions can be lost on a power loss. Recommended for most
+	 * applications.
+	 */
+	BALANCED("WAL", "NORMAL", 256L * 1024 * 1024, -64 * 1024, "MEMORY", 5000),
+
+	/**
+	 * Rollback journal in memory without any sync for the initial load of a database that can be
+	 * loaded again. A crash of the application or a power loss can corrupt the database.
+	 */
+	BULK_LOAD("MEMORY", "OFF", 256L * 1024 * 1024, -256 * 1024, "MEMORY", 30000),
+
+	/**
+	 * Write ahead log like {@link #BALANCED} with a larger memory map and page cache for read
+	 * mostly databases, readers are not blocked by the writer.
+	 */
+	READ_HEAVY("WAL", "NORMAL", 1024L * 1024 * 1024, -128 * 1024, "MEMORY", 5000);
+
+	/** Constant for the connection property of the journal mode. */
+	public static final String JOURNAL_MODE = "journal_mode";
+
+	/** Constant for the connection property of the synchronous mode. */
+	public static final String SYNCHRONOUS = "synchronous";
+
+	/** Constant for the connection property of the memory map size. */
+	public static final String MMAP_SIZE = "mmap_size";
+
+	/** Constant for the connection property of the page cache size. */
+	public static final String CACHE_SIZE = "cache_size";
+
+	/** Constant for the connection property of the storage of temporary tables and indices. */
+	public static final String TEMP_STORE = "temp_store";
+
+	/** Constant for the connection property of the busy timeout. */
+	public static final String BUSY_TIMEOUT = "busy_timeout";
+
+	/** The journal mode like <code>WAL</code>. */
+	private final String journalMode;
+
+	/** The synchronous mode like <code>NORMAL</code>. */
+	private final String synchronous;
+
+	/** The maximum number of bytes of the database file that are memory mapped. */
+	private final long mmapSize;
+
+	/**
+	 * The size of the page cache, a positive value is the number of pages and a negative value the
+	 * number of kibibytes.
+	 */
+	private final int cacheSize;
+
+	/** The storage of temporary tables and indices like <code>MEMORY</code>. */
+	private final String tempStore;
+
+	/** The time in milliseconds a connection waits for a lock of another connection. */
+	private final int busyTimeout;
+
+	SqlitePerformanceProfile(final String journalMode, final String synchronous,
+		final long mmapSize, final int cacheSize, final String tempStore, final int busyTimeout)
+	{
+		this.journalMode = journalMode;
+		this.synchronous = synchronous;
+		this.mmapSize = mmapSize;
+		this.cacheSize = cacheSize;
+		this.tempStore = tempStore;
+		this.busyTimeout = busyTimeout;
+	}
+
+	/**
+	 * Factory method for create the connection properties of this profile
+	 *
+	 * @return the new connection properties of this profile
+	 */
+	public Properties toProperties()
+	{
+		final Properties properties = new Properties();
+		properties.setProperty(JOURNAL_MODE, journalMode);
+		properties.setProperty(SYNCHRONOUS, synchronous);
+		properties.setProperty(MMAP_SIZE, String.valueOf(mmapSize));
+		properties.setProperty(CACHE_SIZE, String.valueOf(cacheSize));
+		properties.setProperty(TEMP_STORE, tempStore);
+		properties.setProperty(BUSY_TIMEOUT, String.valueOf(busyTimeout));
+		return properties;
+	}
+
+}
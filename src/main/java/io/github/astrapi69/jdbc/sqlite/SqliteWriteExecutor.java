@@ -0,0 +1,485 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.sqlite;
+
+import java.io.Closeable;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.astrapi69.jdbc.DriverRegistry;
+import lombok.NonNull;
+
+/**
+ * The class {@link SqliteWriteExecutor} serializes all writes to a sqlite file database over one
+ * write connection that is owned by a dedicated writer thread, so concurrent writers does not
+ * fail with <code>SQLITE_BUSY</code>. The submitted write tasks are queued and the writer thread
+ * executes all queued tasks up to the maximum batch size in one transaction, so the cost of the
+ * commit is shared by all tasks of the transaction (group commit). Every task is executed within
+ * its own savepoint, a failed task is rolled back to its savepoint and does not fail the other
+ * tasks of the transaction. The future of a task is completed after the commit. If the writer
+ * thread stops unexpectedly, the executor is closed and the futures of all queued tasks are
+ * completed exceptionally.<br>
+ * <br>
+ * Reads are executed on a pool of read only connections in parallel to the writer, the database
+ * is switched to the journal mode <code>WAL</code> so readers and the writer does not block each
+ * other.<br>
+ * <br>
+ * Note: an instance of this class is thread safe and has to be closed if it is no more used. A
+ * task must not commit, roll back or change the auto commit mode of the connection.
+ */
+public class SqliteWriteExecutor implements Closeable
+{
+
+	/** The default maximum number of write tasks in one transaction. */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+	/** The marker of the end of the queue that is added on close. */
+	private static final WriteRequest<Void> SHUTDOWN = new WriteRequest<>(connection -> null);
+
+	/** The queued write requests. */
+	private final BlockingQueue<WriteRequest<?>> queue = new LinkedBlockingQueue<>();
+
+	/** The idle read only connections. */
+	private final BlockingQueue<Connection> readers;
+
+	/** The lock of the closed flag, the queue and the return of the read only connections. */
+	private final Object lock = new Object();
+
+	/** The write connection that is only used by the writer thread. */
+	private final Connection writer;
+
+	/** The writer thread. */
+	private final Thread writerThread;
+
+	/** The maximum number of write tasks in one transaction. */
+	private final int maxBatchSize;
+
+	/** The maximum time the first write task of a transaction waits for further tasks. */
+	private final long maxLatencyNanos;
+
+	/** The number of executed write tasks. */
+	private final LongAdder taskCount = new LongAdder();
+
+	/** The number of commits. */
+	private final LongAdder commitCount = new LongAdder();
+
+	/** The flag if this executor is closed. */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link SqliteWriteExecutor} object with the default settings
+	 *
+	 * @param directoryPath
+	 *            the absolute path of the directory
+	 * @param dbFileName
+	 *            the file name of the database
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	public SqliteWriteExecutor(final @NonNull String directoryPath,
+		final @NonNull String dbFileName) throws ClassNotFoundException, SQLException
+	{
+		this(directoryPath, dbFileName, SqliteWriteExecutorBean.builder().build());
+	}
+
+	/**
+	 * Instantiates a new {@link SqliteWriteExecutor} object and opens the write connection and all
+	 * read only connections
+	 *
+	 * @param directoryPath
+	 *            the absolute path of the directory
+	 * @param dbFileName
+	 *            the file name of the database
+	 * @param settings
+	 *            the settings
+	 * @throws ClassNotFoundException
+	 *             is thrown if the Class was not found or could not be located
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	public SqliteWriteExecutor(final @NonNull String directoryPath,
+		final @NonNull String dbFileName, final @NonNull SqliteWriteExecutorBean settings)
+		throws ClassNotFoundException, SQLException
+	{
+		this.maxBatchSize = 0 < settings.getMaxBatchSize()
+			? settings.getMaxBatchSize()
+			: DEFAULT_MAX_BATCH_SIZE;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS
+			.toNanos(Math.max(0, settings.getMaxLatencyMillis()));
+		final int readerCount = 0 < settings.getReaderCount()
+			? settings.getReaderCount()
+			: Runtime.getRuntime().availableProcessors();
+		final SqlitePerformanceProfile profile = settings.getProfile() != null
+			? settings.getProfile()
+			: SqlitePerformanceProfile.BALANCED;
+		final Properties properties = profile.toProperties();
+		properties.setProperty(SqlitePerformanceProfile.JOURNAL_MODE, "WAL");
+		final String url = SqliteExtensions.URL_PREFIX
+			+ new File(directoryPath, dbFileName).getAbsolutePath();
+		this.readers = new ArrayBlockingQueue<>(readerCount);
+		this.writer = DriverRegistry.getConnection(SqliteExtensions.DRIVER_NAME, url, properties);
+		try
+		{
+			writer.setAutoCommit(false);
+			for (int i = 0; i < readerCount; i++)
+			{
+				final Connection reader = DriverRegistry
+					.getConnection(SqliteExtensions.DRIVER_NAME, url, properties);
+				readers.add(reader);
+				try (Statement statement = reader.createStatement())
+				{
+					statement.execute("PRAGMA query_only = ON");
+				}
+			}
+		}
+		catch (final SQLException e)
+		{
+			closeConnections();
+			throw e;
+		}
+		this.writerThread = new Thread(this::write, "sqlite-writer-" + dbFileName);
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Submits the given write task. The task is executed on the writer thread together with the
+	 * other queued tasks in one transaction.
+	 *
+	 * @param <T>
+	 *            the type of the result
+	 * @param task
+	 *            the write task
+	 * @return the future that is completed with the result of the task after the commit or with
+	 *         the exception of the task or the commit
+	 * @throws RejectedExecutionException
+	 *             is thrown if this executor is closed
+	 */
+	public <T> CompletableFuture<T> submit(final @NonNull SqliteConnectionTask<T> task)
+	{
+		final WriteRequest<T> request = new WriteRequest<>(task);
+		synchronized (lock)
+		{
+			if (closed)
+			{
+				throw new RejectedExecutionException("the sqlite write executor is closed");
+			}
+			queue.add(request);
+		}
+		return request.future;
+	}
+
+	/**
+	 * Executes the given read task on one of the read only connections. The current thread waits
+	 * if all read only connections are in use.
+	 *
+	 * @param <T>
+	 *            the type of the result
+	 * @param task
+	 *            the read task
+	 * @return the result of the task
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or the task tries to write
+	 * @throws InterruptedException
+	 *             is thrown if the current thread was interrupted while waiting
+	 * @throws RejectedExecutionException
+	 *             is thrown if this executor is closed
+	 */
+	public <T> T read(final @NonNull SqliteConnectionTask<T> task)
+		throws SQLException, InterruptedException
+	{
+		Connection reader;
+		while ((reader = readers.poll(100, TimeUnit.MILLISECONDS)) == null || closed)
+		{
+			if (closed)
+			{
+				closeQuietly(reader);
+				throw new RejectedExecutionException("the sqlite write executor is closed");
+			}
+		}
+		try
+		{
+			return task.execute(reader);
+		}
+		finally
+		{
+			release(reader);
+		}
+	}
+
+	/**
+	 * Gets the number of executed write tasks
+	 *
+	 * @return the number of executed write tasks
+	 */
+	public long getTaskCount()
+	{
+		return taskCount.sum();
+	}
+
+	/**
+	 * Gets the number of commits, every commit completes one or more write tasks
+	 *
+	 * @return the number of commits
+	 */
+	public long getCommitCount()
+	{
+		return commitCount.sum();
+	}
+
+	/**
+	 * Rejects new tasks, waits until the writer thread has executed all queued write tasks and
+	 * closes all connections. A read only connection that is in use is closed after its task.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (lock)
+		{
+			// the writer thread sets the closed flag itself if it stops unexpectedly, the
+			// connections are closed anyway
+			if (!closed)
+			{
+				closed = true;
+				queue.add(SHUTDOWN);
+			}
+		}
+		try
+		{
+			writerThread.join();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		closeConnections();
+	}
+
+	private void write()
+	{
+		final List<WriteRequest<?>> batch = new ArrayList<>();
+		Throwable failure = null;
+		try
+		{
+			writeBatches(batch);
+		}
+		catch (final Throwable e)
+		{
+			// the writer thread dies, so no more tasks are accepted and the pending tasks fail
+			failure = e;
+			synchronized (lock)
+			{
+				closed = true;
+			}
+			for (final WriteRequest<?> request : batch)
+			{
+				request.future.completeExceptionally(e);
+			}
+		}
+		WriteRequest<?> request;
+		while ((request = queue.poll()) != null)
+		{
+			request.future.completeExceptionally(
+				new RejectedExecutionException("the writer thread stopped", failure));
+		}
+	}
+
+	private void writeBatches(final List<WriteRequest<?>> batch)
+	{
+		boolean running = true;
+		while (running)
+		{
+			try
+			{
+				final WriteRequest<?> first = queue.take();
+				batch.add(first);
+				queue.drainTo(batch, maxBatchSize - batch.size());
+				final long deadline = first.enqueuedNanos + maxLatencyNanos;
+				while (batch.size() < maxBatchSize && batch.get(batch.size() - 1) != SHUTDOWN)
+				{
+					final WriteRequest<?> next = queue.poll(deadline - System.nanoTime(),
+						TimeUnit.NANOSECONDS);
+					if (next == null)
+					{
+						break;
+					}
+					batch.add(next);
+					queue.drainTo(batch, maxBatchSize - batch.size());
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				// the writer thread is only interrupted from outside, so no more tasks are accepted
+				synchronized (lock)
+				{
+					closed = true;
+				}
+				running = false;
+			}
+			if (!batch.isEmpty() && batch.get(batch.size() - 1) == SHUTDOWN)
+			{
+				batch.remove(batch.size() - 1);
+				running = false;
+			}
+			execute(batch);
+			batch.clear();
+		}
+	}
+
+	private void execute(final List<WriteRequest<?>> batch)
+	{
+		if (batch.isEmpty())
+		{
+			return;
+		}
+		try
+		{
+			for (final WriteRequest<?> request : batch)
+			{
+				final Savepoint savepoint = writer.setSavepoint();
+				try
+				{
+					request.execute(writer);
+					writer.releaseSavepoint(savepoint);
+				}
+				catch (final Throwable e)
+				{
+					writer.rollback(savepoint);
+					request.future.completeExceptionally(e);
+				}
+			}
+			writer.commit();
+			commitCount.increment();
+			taskCount.add(batch.size());
+			for (final WriteRequest<?> request : batch)
+			{
+				request.complete();
+			}
+		}
+		catch (final SQLException e)
+		{
+			try
+			{
+				writer.rollback();
+			}
+			catch (final SQLException rollbackException)
+			{
+				e.addSuppressed(rollbackException);
+			}
+			for (final WriteRequest<?> request : batch)
+			{
+				request.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private void release(final Connection reader)
+	{
+		synchronized (lock)
+		{
+			if (!closed)
+			{
+				readers.add(reader);
+				return;
+			}
+		}
+		closeQuietly(reader);
+	}
+
+	private void closeConnections()
+	{
+		Connection reader;
+		while ((reader = readers.poll()) != null)
+		{
+			closeQuietly(reader);
+		}
+		closeQuietly(writer);
+	}
+
+	private static void closeQuietly(final Connection connection)
+	{
+		if (connection != null)
+		{
+			try
+			{
+				connection.close();
+			}
+			catch (final SQLException e)
+			{
+				// nothing more can be done on close
+			}
+		}
+	}
+
+	/**
+	 * The class {@link WriteRequest} holds a queued write task, its result and its future
+	 *
+	 * @param <T>
+	 *            the type of the result
+	 */
+	private static final class WriteRequest<T>
+	{
+
+		private final SqliteConnectionTask<T> task;
+
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		private final long enqueuedNanos = System.nanoTime();
+
+		private T result;
+
+		private WriteRequest(final SqliteConnectionTask<T> task)
+		{
+			this.task = task;
+		}
+
+		private void execute(final Connection connection) throws SQLException
+		{
+			result = task.execute(connection);
+		}
+
+		private void complete()
+		{
+			future.complete(result);
+		}
+
+	}
+
+}
@@ -0,0 +1,321 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The abstract class {@link AbstractConnectionBag} is the base of the {@link ConnectionBag} objects
+ * that bound the borrowed connections and the reserved idle slots with a {@link Semaphore} with a
+ * permit for every slot. The subclasses only decide where the idle connections are kept.<br>
+ * <br>
+ * A permit holder that finds no idle connection may reserve a new slot, because the open
+ * connections without a permit are all idle. So if the maximum number of open connections is
+ * reached, an idle connection is on its way back and is polled on the next try.
+ */
+abstract class AbstractConnectionBag implements ConnectionBag
+{
+
+	/** The maximum number of open connections. */
+	private final int maxPoolSize;
+
+	/** The permits for the borrowed connections and the reserved idle slots. */
+	private final Semaphore permits;
+
+	/** The number of open connections including the connections that are opened right now. */
+	private final AtomicInteger totalCount = new AtomicInteger();
+
+	/** The counter of the borrowed connections. */
+	private final LongAdder activeCount = new LongAdder();
+
+	/** The counter of the idle connections. */
+	private final LongAdder idleCount = new LongAdder();
+
+	/** The flag if this bag is closed. */
+	private volatile boolean closed;
+
+	/**
+	 * Instantiates a new {@link AbstractConnectionBag} object
+	 *
+	 * @param maxPoolSize
+	 *            the maximum number of open connections
+	 * @param fair
+	 *            the flag if the waiting threads get the free permits in the order of their arrival
+	 */
+	AbstractConnectionBag(final int maxPoolSize, final boolean fair)
+	{
+		this.maxPoolSize = maxPoolSize;
+		this.permits = new Semaphore(maxPoolSize, fair);
+	}
+
+	@Override
+	public PooledConnection borrow(final long deadlineNanos) throws SQLException
+	{
+		if (closed)
+		{
+			throw ConnectionBag.newClosedException();
+		}
+		try
+		{
+			if (!tryAcquirePermit(deadlineNanos))
+			{
+				throw ConnectionBag.newTimeoutException();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			throw ConnectionBag.newInterruptedException(e);
+		}
+		activeCount.increment();
+		while (true)
+		{
+			if (closed)
+			{
+				activeCount.decrement();
+				permits.release();
+				throw ConnectionBag.newClosedException();
+			}
+			final PooledConnection pooledConnection = takeIdle();
+			if (pooledConnection != null)
+			{
+				return pooledConnection;
+			}
+			final int total = totalCount.get();
+			if (total < maxPoolSize)
+			{
+				if (totalCount.compareAndSet(total, total + 1))
+				{
+					return null;
+				}
+			}
+			else
+			{
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Override
+	public boolean requite(final PooledConnection pooledConnection)
+	{
+		if (closed)
+		{
+			return false;
+		}
+		pushReturned(pooledConnection);
+		idleCount.increment();
+		activeCount.decrement();
+		permits.release();
+		if (closed)
+		{
+			// a concurrent close has not seen the connection
+			drainTo(null);
+		}
+		return true;
+	}
+
+	@Override
+	public void discard()
+	{
+		totalCount.decrementAndGet();
+		activeCount.decrement();
+		permits.release();
+	}
+
+	@Override
+	public boolean reserveIdle()
+	{
+		if (closed || !permits.tryAcquire())
+		{
+			return false;
+		}
+		int total;
+		do
+		{
+			total = totalCount.get();
+			if (maxPoolSize <= total)
+			{
+				permits.release();
+				return false;
+			}
+		}
+		while (!totalCount.compareAndSet(total, total + 1));
+		return true;
+	}
+
+	@Override
+	public boolean addIdle(final PooledConnection pooledConnection)
+	{
+		if (closed)
+		{
+			return false;
+		}
+		pushNew(pooledConnection);
+		idleCount.increment();
+		permits.release();
+		if (closed)
+		{
+			drainTo(null);
+		}
+		return true;
+	}
+
+	@Override
+	public void cancelIdle()
+	{
+		totalCount.decrementAndGet();
+		permits.release();
+	}
+
+	@Override
+	public boolean removeIdle(final PooledConnection pooledConnection)
+	{
+		if (!remove(pooledConnection))
+		{
+			return false;
+		}
+		idleCount.decrement();
+		totalCount.decrementAndGet();
+		return true;
+	}
+
+	@Override
+	public List<PooledConnection> close()
+	{
+		closed = true;
+		final List<PooledConnection> connections = new ArrayList<>();
+		drainTo(connections);
+		// wake up the waiting threads, they see the closed flag and give the permit back
+		permits.release(maxPoolSize);
+		return connections;
+	}
+
+	@Override
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	@Override
+	public int getActiveCount()
+	{
+		return activeCount.intValue();
+	}
+
+	@Override
+	public int getIdleCount()
+	{
+		return idleCount.intValue();
+	}
+
+	@Override
+	public int getTotalCount()
+	{
+		return totalCount.get();
+	}
+
+	@Override
+	public int getPendingCount()
+	{
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * Polls an idle connection for a borrower
+	 *
+	 * @return the idle connection or null if no connection is idle
+	 */
+	protected abstract PooledConnection poll();
+
+	/**
+	 * Pushes a connection that a borrower has returned to the idle connections
+	 *
+	 * @param pooledConnection
+	 *            the returned connection
+	 */
+	protected abstract void pushReturned(PooledConnection pooledConnection);
+
+	/**
+	 * Pushes a new connection from a slot of {@link #reserveIdle()} to the idle connections
+	 *
+	 * @param pooledConnection
+	 *            the new connection
+	 */
+	protected abstract void pushNew(PooledConnection pooledConnection);
+
+	/**
+	 * Removes the given connection from the idle connections
+	 *
+	 * @param pooledConnection
+	 *            the connection to remove
+	 * @return true, if the connection was idle and is removed
+	 */
+	protected abstract boolean remove(PooledConnection pooledConnection);
+
+	private boolean tryAcquirePermit(final long deadlineNanos) throws InterruptedException
+	{
+		// an untimed tryAcquire barges, so it would ignore the order of a fair semaphore
+		if (!permits.isFair() && permits.tryAcquire())
+		{
+			return true;
+		}
+		return permits.tryAcquire(Math.max(0, deadlineNanos - System.nanoTime()),
+			TimeUnit.NANOSECONDS);
+	}
+
+	private PooledConnection takeIdle()
+	{
+		final PooledConnection pooledConnection = poll();
+		if (pooledConnection != null)
+		{
+			idleCount.decrement();
+		}
+		return pooledConnection;
+	}
+
+	private void drainTo(final List<PooledConnection> connections)
+	{
+		PooledConnection pooledConnection;
+		while ((pooledConnection = takeIdle()) != null)
+		{
+			totalCount.decrementAndGet();
+			if (connections != null)
+			{
+				connections.add(pooledConnection);
+			}
+			else
+			{
+				PooledDataSource.closeQuietly(pooledConnection.connection);
+			}
+		}
+	}
+
+}
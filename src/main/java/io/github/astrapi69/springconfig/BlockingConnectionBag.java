@@ -0,0 +1,273 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@link BlockingConnectionBag} is the {@link ConnectionBag} of the
+ * {@link PoolMode#BLOCKING} mode that guards its state with a monitor
+ */
+final class BlockingConnectionBag implements ConnectionBag
+{
+
+	/** The maximum number of open connections. */
+	private final int maxPoolSize;
+
+	/** The lock that guards the state of this bag. */
+	private final Object lock = new Object();
+
+	/** The idle connections with the most recently returned connection first. */
+	private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+
+	/** The number of open connections including the connections that are opened right now. */
+	private int totalCount;
+
+	/** The number of borrowed connections. */
+	private int activeCount;
+
+	/** The number of threads that are waiting for a free slot. */
+	private int pendingCount;
+
+	/** The flag if this bag is closed. */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new {@link BlockingConnectionBag} object
+	 *
+	 * @param maxPoolSize
+	 *            the maximum number of open connections
+	 */
+	BlockingConnectionBag(final int maxPoolSize)
+	{
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	@Override
+	public PooledConnection borrow(final long deadlineNanos) throws SQLException
+	{
+		synchronized (lock)
+		{
+			if (closed)
+			{
+				throw ConnectionBag.newClosedException();
+			}
+			while (idleConnections.isEmpty() && maxPoolSize <= totalCount)
+			{
+				final long remaining = deadlineNanos - System.nanoTime();
+				if (remaining <= 0)
+				{
+					throw ConnectionBag.newTimeoutException();
+				}
+				pendingCount++;
+				try
+				{
+					TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+				}
+				catch (final InterruptedException e)
+				{
+					throw ConnectionBag.newInterruptedException(e);
+				}
+				finally
+				{
+					pendingCount--;
+				}
+				if (closed)
+				{
+					throw ConnectionBag.newClosedException();
+				}
+			}
+			final PooledConnection pooledConnection = idleConnections.pollFirst();
+			if (pooledConnection == null)
+			{
+				totalCount++;
+			}
+			activeCount++;
+			return pooledConnection;
+		}
+	}
+
+	@Override
+	public boolean requite(final PooledConnection pooledConnection)
+	{
+		synchronized (lock)
+		{
+			if (closed)
+			{
+				return false;
+			}
+			activeCount--;
+			idleConnections.addFirst(pooledConnection);
+			lock.notify();
+			return true;
+		}
+	}
+
+	@Override
+	public void discard()
+	{
+		synchronized (lock)
+		{
+			totalCount--;
+			activeCount--;
+			lock.notify();
+		}
+	}
+
+	@Override
+	public boolean reserveIdle()
+	{
+		synchronized (lock)
+		{
+			if (closed || maxPoolSize <= totalCount)
+			{
+				return false;
+			}
+			totalCount++;
+			return true;
+		}
+	}
+
+	@Override
+	public boolean addIdle(final PooledConnection pooledConnection)
+	{
+		synchronized (lock)
+		{
+			if (closed)
+			{
+				return false;
+			}
+			idleConnections.addFirst(pooledConnection);
+			lock.notify();
+			return true;
+		}
+	}
+
+	@Override
+	public void cancelIdle()
+	{
+		synchronized (lock)
+		{
+			totalCount--;
+			lock.notify();
+		}
+	}
+
+	@Override
+	public boolean removeIdle(final PooledConnection pooledConnection)
+	{
+		synchronized (lock)
+		{
+			if (!idleConnections.removeFirstOccurrence(pooledConnection))
+			{
+				return false;
+			}
+			totalCount--;
+			lock.notify();
+			return true;
+		}
+	}
+
+	@Override
+	public List<PooledConnection> getIdleConnections()
+	{
+		synchronized (lock)
+		{
+			final List<PooledConnection> connections = new ArrayList<>(idleConnections.size());
+			final Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+			while (iterator.hasNext())
+			{
+				connections.add(iterator.next());
+			}
+			return connections;
+		}
+	}
+
+	@Override
+	public List<PooledConnection> close()
+	{
+		synchronized (lock)
+		{
+			closed = true;
+			final List<PooledConnection> connections = new ArrayList<>(idleConnections);
+			idleConnections.clear();
+			totalCount -= connections.size();
+			lock.notifyAll();
+			return connections;
+		}
+	}
+
+	@Override
+	public boolean isClosed()
+	{
+		synchronized (lock)
+		{
+			return closed;
+		}
+	}
+
+	@Override
+	public int getActiveCount()
+	{
+		synchronized (lock)
+		{
+			return activeCount;
+		}
+	}
+
+	@Override
+	public int getIdleCount()
+	{
+		synchronized (lock)
+		{
+			return idleConnections.size();
+		}
+	}
+
+	@Override
+	public int getTotalCount()
+	{
+		synchronized (lock)
+		{
+			return totalCount;
+		}
+	}
+
+	@Override
+	public int getPendingCount()
+	{
+		synchronized (lock)
+		{
+			return pendingCount;
+		}
+	}
+
+}
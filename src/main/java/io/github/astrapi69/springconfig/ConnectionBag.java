@@ -0,0 +1,183 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+/**
+ * The interface {@link ConnectionBag} keeps the idle connections of a {@link PooledDataSource} and
+ * bounds the number of open connections. A slot for a new connection is reserved before the
+ * physical connection is opened, so the maximum number of open connections is never exceeded.
+ */
+interface ConnectionBag
+{
+
+	/**
+	 * Borrows an idle connection or reserves a slot for a new connection that the caller opens
+	 *
+	 * @param deadlineNanos
+	 *            the value of {@link System#nanoTime()} until a slot has to be free
+	 * @return the idle connection or null if a slot for a new connection is reserved
+	 * @throws SQLException
+	 *             is thrown if no slot is free until the deadline, the waiting thread is
+	 *             interrupted or this bag is closed
+	 */
+	PooledConnection borrow(long deadlineNanos) throws SQLException;
+
+	/**
+	 * Takes back a borrowed connection as idle connection
+	 *
+	 * @param pooledConnection
+	 *            the borrowed connection
+	 * @return true, if the connection is taken back or false if this bag is closed and the caller
+	 *         has to discard the connection
+	 */
+	boolean requite(PooledConnection pooledConnection);
+
+	/**
+	 * Frees the slot of a borrowed connection or a reserved slot of a borrower that is discarded
+	 */
+	void discard();
+
+	/**
+	 * Reserves a slot for a new idle connection if the maximum number of open connections is not
+	 * reached
+	 *
+	 * @return true, if a slot is reserved
+	 */
+	boolean reserveIdle();
+
+	/**
+	 * Adds a new idle connection to a slot from {@link #reserveIdle()}
+	 *
+	 * @param pooledConnection
+	 *            the new idle connection
+	 * @return true, if the connection is added or false if this bag is closed and the caller has
+	 *         to call {@link #cancelIdle()} and close the connection
+	 */
+	boolean addIdle(PooledConnection pooledConnection);
+
+	/**
+	 * Frees a slot from {@link #reserveIdle()}
+	 */
+	void cancelIdle();
+
+	/**
+	 * Removes the given idle connection and frees its slot
+	 *
+	 * @param pooledConnection
+	 *            the idle connection
+	 * @return true, if the connection was idle and is removed
+	 */
+	boolean removeIdle(PooledConnection pooledConnection);
+
+	/**
+	 * Gets a snapshot of the idle connections with the least recently returned connection first
+	 *
+	 * @return the snapshot of the idle connections
+	 */
+	List<PooledConnection> getIdleConnections();
+
+	/**
+	 * Closes this bag, wakes up all waiting threads and removes all idle connections
+	 *
+	 * @return the removed idle connections that the caller has to close
+	 */
+	List<PooledConnection> close();
+
+	/**
+	 * Checks if this bag is closed
+	 *
+	 * @return true, if this bag is closed otherwise false
+	 */
+	boolean isClosed();
+
+	/**
+	 * Gets the number of borrowed connections
+	 *
+	 * @return the number of borrowed connections
+	 */
+	int getActiveCount();
+
+	/**
+	 * Gets the number of idle connections
+	 *
+	 * @return the number of idle connections
+	 */
+	int getIdleCount();
+
+	/**
+	 * Gets the number of open connections including the connections that are opened right now
+	 *
+	 * @return the number of open connections
+	 */
+	int getTotalCount();
+
+	/**
+	 * Gets the number of threads that are waiting for a free slot
+	 *
+	 * @return the number of waiting threads
+	 */
+	int getPendingCount();
+
+	/**
+	 * Factory method for create the exception of a closed bag
+	 *
+	 * @return the new exception
+	 */
+	static SQLException newClosedException()
+	{
+		return new SQLException("The data source is closed", "08003");
+	}
+
+	/**
+	 * Factory method for create the exception of a borrower that has not got a slot until the
+	 * deadline
+	 *
+	 * @return the new exception
+	 */
+	static SQLException newTimeoutException()
+	{
+		return new SQLTransientConnectionException(
+			"No free connection within the connection timeout", "08001");
+	}
+
+	/**
+	 * Factory method for create the exception of an interrupted borrower. The interrupt flag of
+	 * the current thread is set again.
+	 *
+	 * @param cause
+	 *            the interrupted exception
+	 * @return the new exception
+	 */
+	static SQLException newInterruptedException(final InterruptedException cause)
+	{
+		Thread.currentThread().interrupt();
+		return new SQLException("Interrupted while waiting for a connection", "08001", cause);
+	}
+
+}
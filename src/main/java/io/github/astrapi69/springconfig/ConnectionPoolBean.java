@@ -0,0 +1,132 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The class {@link ConnectionPoolBean} encapsulates the settings of the connection pool of a
+ * {@link PooledDataSource}. A value less than one of a size, a timeout or an interval uses the
+ * default value as documented on the field.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConnectionPoolBean
+{
+
+	/** The minimum number of idle connections that are kept open, the default is zero. */
+	int minIdle;
+
+	/** The maximum number of open connections, the default is ten. */
+	int maxPoolSize;
+
+	/**
+	 * The maximum time in milliseconds to wait for a free connection, the default is 30 seconds.
+	 */
+	long connectionTimeoutMillis;
+
+	/**
+	 * The time in milliseconds after that an idle connection above the minimum number of idle
+	 * connections is closed, the default is that idle connections are not closed.
+	 */
+	long idleTimeoutMillis;
+
+	/**
+	 * The maximum lifetime of a connection in milliseconds after that it is closed as soon as it is
+	 * idle, the default is an unlimited lifetime.
+	 */
+	long maxLifetimeMillis;
+
+	/**
+	 * The optional query that validates a connection, without a query a connection is validated
+	 * with {@link java.sql.Connection#isValid(int)}.
+	 */
+	String validationQuery;
+
+	/** The timeout of a validation in seconds, the default is five seconds. */
+	int validationTimeoutSeconds;
+
+	/** The flag if a connection is validated before it is handed out. */
+	boolean testOnBorrow;
+
+	/** The mode of the connection pool, null is the same as {@link PoolMode#BLOCKING}. */
+	PoolMode poolMode;
+
+	/**
+	 * The number of stripes of the {@link PoolMode#STRIPED} mode, a value less than one uses the
+	 * number of available processors.
+	 */
+	int stripeCount;
+
+	/**
+	 * The number of threads that open the minimum number of idle connections at the start of the
+	 * pool, the default is one thread for every connection.
+	 */
+	int warmUpParallelism;
+
+	/** The flag if the connections that are opened at the start of the pool are validated. */
+	boolean validateOnWarmUp;
+
+	/**
+	 * The optional sql statements that are prepared and executed on every connection that is
+	 * opened at the start of the pool.
+	 */
+	List<String> warmUpStatements;
+
+	/**
+	 * The maximum number of idle prepared statements that are cached per connection, the default
+	 * is that prepared statements are not cached.
+	 */
+	int statementCacheSize;
+
+	/**
+	 * The time in milliseconds after that a connection that is not returned is logged as possible
+	 * leak together with the stack trace of its borrower, the default is no leak detection.
+	 */
+	long leakDetectionThresholdMillis;
+
+	/**
+	 * The name of the pool in the log messages and in the JMX object name, the default is a
+	 * generated name.
+	 */
+	String poolName;
+
+	/**
+	 * The flag if the pool is registered as {@link PooledDataSourceMXBean} in the platform MBean
+	 * server.
+	 */
+	boolean registerMBean;
+
+}
@@ -112,9 +112,18 @@ public class DataSourceBean
 	/** The username. */
 	String username;
 
+	/**
+	 * The optional settings of a connection pool. If they are set, a new {@link DataSource} is a
+	 * {@link PooledDataSource} otherwise a new {@link DataSource} opens a new physical connection
+	 * for every connection.
+	 */
+	ConnectionPoolBean connectionPool;
+
 	/**
 	 * Factory method for create a new {@link DataSource} object from the given
-	 * {@link DataSourceBean} object
+	 * {@link DataSourceBean} object. If the given {@link DataSourceBean} object has the settings of
+	 * a connection pool, the new {@link DataSource} is a {@link PooledDataSource} that has to be
+	 * closed if it is no more used, otherwise it is a {@link DriverManagerDataSource}.
 	 * 
 	 * @param dataSourceBean
 	 *            the {@link DataSourceBean} object
@@ -123,6 +132,10 @@ public class DataSourceBean
 	 */
 	public static DataSource newDataSource(final @NonNull DataSourceBean dataSourceBean)
 	{
+		if (dataSourceBean.getConnectionPool() != null)
+		{
+			return new PooledDataSource(dataSourceBean, dataSourceBean.getConnectionPool());
+		}
 		final DriverManagerDataSource dataSource = new DriverManagerDataSource();
 		dataSource.setDriverClassName(dataSourceBean.getDriverClassName());
 		dataSource.setUrl(dataSourceBean.getUrl());
@@ -0,0 +1,162 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@link LatencyHistogram} records latencies in nanoseconds in buckets with a fixed
+ * relative precision like a HDR histogram. Every power of two range is split into 32 linear sub
+ * buckets, so a recorded value is kept with a relative error of at most about three percent and
+ * the memory of the histogram does not grow with the number of recorded values.<br>
+ * <br>
+ * Note: an instance of this class is thread safe and recording a value is lock free
+ */
+public final class LatencyHistogram
+{
+
+	/** Constant for the number of bits of the sub buckets of a power of two range. */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/** Constant for the number of sub buckets of a power of two range. */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/** The counts of the buckets. */
+	private final AtomicLongArray counts = new AtomicLongArray(
+		(Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT);
+
+	/** The number of recorded values. */
+	private final LongAdder count = new LongAdder();
+
+	/** The sum of the recorded values. */
+	private final LongAdder totalNanos = new LongAdder();
+
+	/** The greatest recorded value. */
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Records the given latency, a negative latency is recorded as zero
+	 *
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 */
+	public void record(final long nanos)
+	{
+		final long value = Math.max(0, nanos);
+		counts.incrementAndGet(getBucketIndex(value));
+		count.increment();
+		totalNanos.add(value);
+		if (maxNanos.get() < value)
+		{
+			maxNanos.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * Gets the number of recorded values
+	 *
+	 * @return the number of recorded values
+	 */
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	/**
+	 * Gets the greatest recorded value in nanoseconds
+	 *
+	 * @return the greatest recorded value in nanoseconds
+	 */
+	public long getMaxNanos()
+	{
+		return maxNanos.get();
+	}
+
+	/**
+	 * Gets the value in nanoseconds that is greater or equal than the given percentage of the
+	 * recorded values
+	 *
+	 * @param percentile
+	 *            the percentile between zero and hundred
+	 * @return the value at the given percentile or zero if no value is recorded
+	 */
+	public long getValueAtPercentile(final double percentile)
+	{
+		final long total = getCount();
+		if (total == 0)
+		{
+			return 0;
+		}
+		final long rank = Math.max(1,
+			(long)Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+		long cumulated = 0;
+		for (int i = 0; i < counts.length(); i++)
+		{
+			cumulated += counts.get(i);
+			if (rank <= cumulated)
+			{
+				return Math.min(getHighestValue(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * Factory method for create a snapshot of the current values of this histogram
+	 *
+	 * @return the new {@link LatencyStatistics} object
+	 */
+	public LatencyStatistics getStatistics()
+	{
+		return LatencyStatistics.builder().count(getCount()).totalNanos(totalNanos.sum())
+			.maxNanos(getMaxNanos()).medianNanos(getValueAtPercentile(50))
+			.p90Nanos(getValueAtPercentile(90)).p99Nanos(getValueAtPercentile(99))
+			.p999Nanos(getValueAtPercentile(99.9)).build();
+	}
+
+	private static int getBucketIndex(final long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int)value;
+		}
+		final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int)((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+	}
+
+	private static long getHighestValue(final int bucketIndex)
+	{
+		if (bucketIndex < SUB_BUCKET_COUNT)
+		{
+			return bucketIndex;
+		}
+		final int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+		final long lowest = (long)(SUB_BUCKET_COUNT + bucketIndex % SUB_BUCKET_COUNT) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+}
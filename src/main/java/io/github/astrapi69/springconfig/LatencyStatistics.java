@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * The class {@link LatencyStatistics} is a snapshot of the values of a {@link LatencyHistogram}.
+ * All latencies are in nanoseconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LatencyStatistics
+{
+
+	/** The number of recorded values. */
+	long count;
+
+	/** The sum of the recorded values. */
+	long totalNanos;
+
+	/** The greatest recorded value. */
+	long maxNanos;
+
+	/** The value at the 50th percentile. */
+	long medianNanos;
+
+	/** The value at the 90th percentile. */
+	long p90Nanos;
+
+	/** The value at the 99th percentile. */
+	long p99Nanos;
+
+	/** The value at the 99.9th percentile. */
+	long p999Nanos;
+
+	/**
+	 * Gets the mean of the recorded values
+	 *
+	 * @return the mean of the recorded values in nanoseconds or zero if no value is recorded
+	 */
+	public double getMeanNanos()
+	{
+		return count == 0 ? 0 : (double)totalNanos / count;
+	}
+
+}
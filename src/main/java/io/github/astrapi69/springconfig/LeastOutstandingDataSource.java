@@ -0,0 +1,280 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link LeastOutstandingDataSource} balances the connections over a list of equivalent
+ * {@link DataSource} objects like the read replicas of a database. A new connection is taken from
+ * the target data source with the least outstanding connections, that are the connections that are
+ * handed out and not closed yet. If several target data sources have the same number of
+ * outstanding connections, they are taken in turns.<br>
+ * <br>
+ * Note: if this data source is closed, every target data source that is {@link AutoCloseable} like
+ * a {@link PooledDataSource} is closed
+ */
+public class LeastOutstandingDataSource extends AbstractDataSource implements Closeable
+{
+
+	/** The target data sources. */
+	private final List<DataSource> targets;
+
+	/** The number of outstanding connections of every target data source. */
+	private final AtomicInteger[] outstandingCounts;
+
+	/** The counter for the start index of the search of the next target data source. */
+	private final AtomicInteger nextIndex = new AtomicInteger();
+
+	/**
+	 * Instantiates a new {@link LeastOutstandingDataSource} object
+	 *
+	 * @param targets
+	 *            the target data sources
+	 */
+	public LeastOutstandingDataSource(final @NonNull List<DataSource> targets)
+	{
+		if (targets.isEmpty())
+		{
+			throw new IllegalArgumentException("At least one target data source is required");
+		}
+		this.targets = new ArrayList<>(targets);
+		this.outstandingCounts = new AtomicInteger[targets.size()];
+		for (int i = 0; i < outstandingCounts.length; i++)
+		{
+			outstandingCounts[i] = new AtomicInteger();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		final int index = acquireTarget();
+		try
+		{
+			return newConnectionProxy(targets.get(index).getConnection(), index);
+		}
+		catch (final SQLException | RuntimeException e)
+		{
+			outstandingCounts[index].decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Connection getConnection(final String username, final String password)
+		throws SQLException
+	{
+		final int index = acquireTarget();
+		try
+		{
+			return newConnectionProxy(targets.get(index).getConnection(username, password),
+				index);
+		}
+		catch (final SQLException | RuntimeException e)
+		{
+			outstandingCounts[index].decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Gets the number of outstanding connections of the target data source with the given index
+	 *
+	 * @param index
+	 *            the index of the target data source
+	 * @return the number of outstanding connections of the target data source
+	 */
+	public int getOutstandingCount(final int index)
+	{
+		return outstandingCounts[index].get();
+	}
+
+	/**
+	 * Closes every target data source that is {@link AutoCloseable}. If a target data source could
+	 * not be closed, the other target data sources are closed anyway and the first exception is
+	 * thrown with the following exceptions as suppressed exceptions.
+	 *
+	 * @throws IOException
+	 *             Signals that a target data source could not be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		closeAll(targets);
+	}
+
+	/**
+	 * Closes every given data source that is {@link AutoCloseable}
+	 *
+	 * @param dataSources
+	 *            the data sources to close
+	 * @throws IOException
+	 *             Signals that a data source could not be closed, the exceptions of the other data
+	 *             sources are added as suppressed exceptions
+	 */
+	static void closeAll(final List<DataSource> dataSources) throws IOException
+	{
+		IOException exception = null;
+		for (final DataSource dataSource : dataSources)
+		{
+			if (!(dataSource instanceof AutoCloseable))
+			{
+				continue;
+			}
+			try
+			{
+				((AutoCloseable)dataSource).close();
+			}
+			catch (final Exception e)
+			{
+				if (exception == null)
+				{
+					exception = e instanceof IOException
+						? (IOException)e
+						: new IOException("The data source " + dataSource + " could not be closed",
+							e);
+				}
+				else
+				{
+					exception.addSuppressed(e);
+				}
+			}
+		}
+		if (exception != null)
+		{
+			throw exception;
+		}
+	}
+
+	private int acquireTarget()
+	{
+		while (true)
+		{
+			final int start = Math.floorMod(nextIndex.getAndIncrement(), targets.size());
+			int index = start;
+			int outstanding = outstandingCounts[start].get();
+			for (int i = 1; i < targets.size(); i++)
+			{
+				final int candidate = (start + i) % targets.size();
+				final int candidateOutstanding = outstandingCounts[candidate].get();
+				if (candidateOutstanding < outstanding)
+				{
+					index = candidate;
+					outstanding = candidateOutstanding;
+				}
+			}
+			// another thread may have taken the target in the meantime
+			if (outstandingCounts[index].compareAndSet(outstanding, outstanding + 1))
+			{
+				return index;
+			}
+		}
+	}
+
+	private Connection newConnectionProxy(final Connection connection, final int index)
+	{
+		return (Connection)Proxy.newProxyInstance(LeastOutstandingDataSource.class.getClassLoader(),
+			new Class<?>[] { Connection.class }, new OutstandingConnectionHandler(connection,
+				outstandingCounts[index]));
+	}
+
+	/**
+	 * The class {@link OutstandingConnectionHandler} is the {@link InvocationHandler} of a handed
+	 * out connection that decrements the outstanding connections of its target on close
+	 */
+	private static final class OutstandingConnectionHandler implements InvocationHandler
+	{
+
+		private final Connection connection;
+
+		private final AtomicInteger outstandingCount;
+
+		private boolean closed;
+
+		private OutstandingConnectionHandler(final Connection connection,
+			final AtomicInteger outstandingCount)
+		{
+			this.connection = connection;
+			this.outstandingCount = outstandingCount;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args)
+			throws Throwable
+		{
+			switch (method.getName())
+			{
+				case "close" :
+					if (!closed)
+					{
+						closed = true;
+						outstandingCount.decrementAndGet();
+					}
+					connection.close();
+					return null;
+				case "equals" :
+					return proxy == args[0];
+				case "hashCode" :
+					return System.identityHashCode(proxy);
+				case "toString" :
+					return "Outstanding" + connection;
+				default :
+			}
+			try
+			{
+				return method.invoke(connection, args);
+			}
+			catch (final InvocationTargetException e)
+			{
+				throw e.getCause();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The class {@link LockFreeConnectionBag} is the {@link ConnectionBag} of the
+ * {@link PoolMode#LOCK_FREE} mode. A fair {@link Semaphore} with a permit for every slot bounds the
+ * borrowed connections and the connections that are opened as idle connections, and the idle
+ * connections are kept in a {@link ConcurrentLinkedDeque}. A waiting thread parks in the
+ * semaphore and never blocks on a monitor, so waiting virtual threads do not pin their carrier
+ * threads.
+ */
+final class LockFreeConnectionBag extends AbstractConnectionBag
+{
+
+	/** The idle connections with the most recently returned connection first. */
+	private final Deque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * Instantiates a new {@link LockFreeConnectionBag} object
+	 *
+	 * @param maxPoolSize
+	 *            the maximum number of open connections
+	 */
+	LockFreeConnectionBag(final int maxPoolSize)
+	{
+		super(maxPoolSize, true);
+	}
+
+	@Override
+	public List<PooledConnection> getIdleConnections()
+	{
+		final List<PooledConnection> connections = new ArrayList<>();
+		final Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+		while (iterator.hasNext())
+		{
+			connections.add(iterator.next());
+		}
+		return connections;
+	}
+
+	@Override
+	protected PooledConnection poll()
+	{
+		return idleConnections.pollFirst();
+	}
+
+	@Override
+	protected void pushReturned(final PooledConnection pooledConnection)
+	{
+		idleConnections.addFirst(pooledConnection);
+	}
+
+	@Override
+	protected void pushNew(final PooledConnection pooledConnection)
+	{
+		idleConnections.addFirst(pooledConnection);
+	}
+
+	@Override
+	protected boolean remove(final PooledConnection pooledConnection)
+	{
+		return idleConnections.removeFirstOccurrence(pooledConnection);
+	}
+
+}
@@ -0,0 +1,57 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+/**
+ * The enum {@link PoolMode} defines how the connection pool of a {@link PooledDataSource} hands out
+ * and takes back its connections
+ */
+public enum PoolMode
+{
+
+	/**
+	 * The idle connections are guarded by a monitor and waiting threads are blocked on the
+	 * monitor. This mode has the lowest overhead for platform threads.
+	 */
+	BLOCKING,
+
+	/**
+	 * The idle connections are kept in a lock free deque and the number of handed out connections
+	 * is bounded by a fair semaphore. No thread is blocked on a monitor, so virtual threads that
+	 * wait for a connection do not pin their carrier threads, and waiting threads get a connection
+	 * in the order of their arrival.
+	 */
+	LOCK_FREE,
+
+	/**
+	 * The idle connections are split into stripes, a thread takes and returns its connections on
+	 * the stripe of its thread id and steals from other stripes only if its own stripe is empty.
+	 * The number of handed out connections is bounded by a semaphore that is not fair. This mode
+	 * has the lowest contention if many threads on many cores borrow connections, but waiting
+	 * threads are not served in the order of their arrival.
+	 */
+	STRIPED
+
+}
@@ -0,0 +1,258 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+/**
+ * The class {@link PooledConnection} holds a physical connection of a {@link PooledDataSource}
+ * together with its creation time and the time it was returned to the pool. The connection
+ * properties that a borrower can change are captured when the physical connection is opened, and
+ * the properties that are changed by a borrower are restored before the connection is reused.
+ */
+final class PooledConnection
+{
+
+	/** Constant for the dirty flag of the read only property. */
+	static final int DIRTY_READ_ONLY = 1;
+
+	/** Constant for the dirty flag of the transaction isolation property. */
+	static final int DIRTY_TRANSACTION_ISOLATION = 1 << 1;
+
+	/** Constant for the dirty flag of the catalog property. */
+	static final int DIRTY_CATALOG = 1 << 2;
+
+	/** Constant for the dirty flag of the schema property. */
+	static final int DIRTY_SCHEMA = 1 << 3;
+
+	/** Constant for the dirty flag of the network timeout property. */
+	static final int DIRTY_NETWORK_TIMEOUT = 1 << 4;
+
+	/** The physical connection. */
+	final Connection connection;
+
+	/** The value of {@link System#nanoTime()} when the physical connection was opened. */
+	final long createdNanos;
+
+	/** The value of {@link System#nanoTime()} when the connection was returned to the pool. */
+	volatile long returnedNanos;
+
+	/** The flag if the physical connection has thrown a connection error. */
+	volatile boolean broken;
+
+	/** The cache of the prepared statements or null if prepared statements are not cached. */
+	final PreparedStatementCache statementCache;
+
+	/** The read only property of the physical connection when it was opened. */
+	private final boolean defaultReadOnly;
+
+	/** The transaction isolation of the physical connection when it was opened. */
+	private final int defaultTransactionIsolation;
+
+	/** The catalog of the physical connection when it was opened. */
+	private final String defaultCatalog;
+
+	/** The schema of the physical connection when it was opened. */
+	private final String defaultSchema;
+
+	/** The flag if the driver supports the schema property. */
+	private final boolean schemaSupported;
+
+	/** The network timeout of the physical connection when it was opened or -1 if unsupported. */
+	private final int defaultNetworkTimeout;
+
+	/** The flags of the properties that are changed by the current borrower. */
+	int dirtyBits;
+
+	/** The catalog that is set over the pool or the catalog when the connection was opened. */
+	private String catalog;
+
+	/** The schema that is set over the pool or the schema when the connection was opened. */
+	private String schema;
+
+	/**
+	 * Instantiates a new {@link PooledConnection} object
+	 *
+	 * @param connection
+	 *            the physical connection
+	 * @param statementCache
+	 *            the cache of the prepared statements or null if prepared statements are not cached
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs while the connection properties are
+	 *             captured
+	 */
+	PooledConnection(final Connection connection, final PreparedStatementCache statementCache)
+		throws SQLException
+	{
+		this.connection = connection;
+		this.statementCache = statementCache;
+		this.createdNanos = System.nanoTime();
+		this.returnedNanos = createdNanos;
+		this.defaultReadOnly = connection.isReadOnly();
+		this.defaultTransactionIsolation = connection.getTransactionIsolation();
+		this.defaultCatalog = connection.getCatalog();
+		String schema = null;
+		boolean supported = true;
+		try
+		{
+			schema = connection.getSchema();
+		}
+		catch (final SQLFeatureNotSupportedException | AbstractMethodError e)
+		{
+			supported = false;
+		}
+		this.defaultSchema = schema;
+		this.schemaSupported = supported;
+		this.catalog = defaultCatalog;
+		this.schema = defaultSchema;
+		int networkTimeout;
+		try
+		{
+			networkTimeout = connection.getNetworkTimeout();
+		}
+		catch (final SQLFeatureNotSupportedException | AbstractMethodError e)
+		{
+			networkTimeout = -1;
+		}
+		this.defaultNetworkTimeout = networkTimeout;
+	}
+
+	/**
+	 * Marks the connection property that is changed by the given method of the connection as dirty
+	 *
+	 * @param methodName
+	 *            the name of the invoked method of the connection
+	 */
+	void markDirty(final String methodName)
+	{
+		switch (methodName)
+		{
+			case "setReadOnly" :
+				dirtyBits |= DIRTY_READ_ONLY;
+				break;
+			case "setTransactionIsolation" :
+				dirtyBits |= DIRTY_TRANSACTION_ISOLATION;
+				break;
+			case "setCatalog" :
+				dirtyBits |= DIRTY_CATALOG;
+				break;
+			case "setSchema" :
+				dirtyBits |= DIRTY_SCHEMA;
+				break;
+			case "setNetworkTimeout" :
+				dirtyBits |= DIRTY_NETWORK_TIMEOUT;
+				break;
+			default :
+		}
+	}
+
+	/**
+	 * Remembers the catalog or the schema that is set successfully by the given method of the
+	 * connection for the keys of the statement cache
+	 *
+	 * @param methodName
+	 *            the name of the invoked method of the connection
+	 * @param args
+	 *            the arguments of the invoked method
+	 */
+	void changed(final String methodName, final Object[] args)
+	{
+		if ("setCatalog".equals(methodName))
+		{
+			catalog = (String)args[0];
+		}
+		else if ("setSchema".equals(methodName))
+		{
+			schema = (String)args[0];
+		}
+	}
+
+	/**
+	 * Factory method for create the key of a cached statement in the current catalog and schema
+	 *
+	 * @param args
+	 *            the arguments of the {@code prepareStatement} method
+	 * @return the key of the statement
+	 */
+	List<Object> newStatementKey(final Object[] args)
+	{
+		return PreparedStatementCache.newKey(catalog, schema, args);
+	}
+
+	/**
+	 * Restores the connection properties that are marked as dirty to the values of the physical
+	 * connection when it was opened
+	 *
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs or the value of a dirty property
+	 *             could not be captured, in both cases the connection is not reusable
+	 */
+	void restoreDefaults() throws SQLException
+	{
+		if (dirtyBits == 0)
+		{
+			return;
+		}
+		if ((dirtyBits & DIRTY_READ_ONLY) != 0)
+		{
+			connection.setReadOnly(defaultReadOnly);
+		}
+		if ((dirtyBits & DIRTY_TRANSACTION_ISOLATION) != 0)
+		{
+			connection.setTransactionIsolation(defaultTransactionIsolation);
+		}
+		if ((dirtyBits & DIRTY_CATALOG) != 0)
+		{
+			if (defaultCatalog == null)
+			{
+				throw new SQLException("The catalog of the connection was not captured");
+			}
+			connection.setCatalog(defaultCatalog);
+			catalog = defaultCatalog;
+		}
+		if ((dirtyBits & DIRTY_SCHEMA) != 0)
+		{
+			if (!schemaSupported)
+			{
+				throw new SQLException("The schema of the connection was not captured");
+			}
+			connection.setSchema(defaultSchema);
+			schema = defaultSchema;
+		}
+		if ((dirtyBits & DIRTY_NETWORK_TIMEOUT) != 0)
+		{
+			if (defaultNetworkTimeout < 0)
+			{
+				throw new SQLException("The network timeout of the connection was not captured");
+			}
+			connection.setNetworkTimeout(Runnable::run, defaultNetworkTimeout);
+		}
+		dirtyBits = 0;
+	}
+
+}
@@ -0,0 +1,1162 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.io.Closeable;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+
+import io.github.astrapi69.jdbc.DriverRegistry;
+import lombok.NonNull;
+
+/**
+ * The class {@link PooledDataSource} is a lightweight {@link DataSource} that keeps the physical
+ * connections of a {@link DataSourceBean} open in a pool with the settings of a
+ * {@link ConnectionPoolBean}. A connection from {@link #getConnection()} is returned to the pool
+ * when it is closed. If the returned connection is not in auto commit mode, the open transaction
+ * is rolled back and the auto commit mode is switched on again. The read only property, the
+ * transaction isolation, the catalog, the schema and the network timeout that are changed by the
+ * borrower are restored to the values of the physical connection when it was opened, and the
+ * statements that the borrower has left open are closed.<br>
+ * <br>
+ * A housekeeping thread closes idle connections after the idle timeout and connections after the
+ * maximum lifetime, and it opens connections until the minimum number of idle connections is
+ * reached. At the start the minimum number of idle connections is opened in parallel and every
+ * connection can be validated and warmed up with prepared statements, the future of
+ * {@link #getReadiness()} is completed when the warm up is finished. A connection that has thrown
+ * an exception with a connection error SQLState is closed instead of returned to the pool.<br>
+ * <br>
+ * If the {@link ConnectionPoolBean} has a statement cache size, every physical connection keeps
+ * its idle prepared statements in a {@link PreparedStatementCache} and a closed prepared statement
+ * is put back into the cache instead of being closed.<br>
+ * <br>
+ * The data source records the time to get a connection, the time a connection is held and the
+ * time to open a physical connection in a {@link LatencyHistogram} each. A connection that is held
+ * longer than the leak detection threshold is logged with the stack trace of its borrower. The
+ * counts and the statistics are readable over the {@link PooledDataSourceMXBean} interface, that
+ * is optionally registered in the platform MBean server.<br>
+ * <br>
+ * The {@link PoolMode} of the {@link ConnectionPoolBean} defines if the idle connections are
+ * guarded by a monitor, are kept lock free for virtual threads or are split into stripes for many
+ * cores.<br>
+ * <br>
+ * Note: an instance of this class is thread safe and has to be closed if it is no more used
+ */
+public class PooledDataSource implements DataSource, Closeable, PooledDataSourceMXBean
+{
+
+	/** Constant for the default maximum number of open connections. */
+	public static final int DEFAULT_MAX_POOL_SIZE = 10;
+
+	/** Constant for the default maximum time in milliseconds to wait for a free connection. */
+	public static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = 30000;
+
+	/** Constant for the default timeout of a validation in seconds. */
+	public static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 5;
+
+	/** Constant for the maximum period of the housekeeping in milliseconds. */
+	private static final long MAX_HOUSEKEEPING_PERIOD_MILLIS = 30000;
+
+	/** Constant for the number of tracked statements of a connection that are checked for close. */
+	private static final int MIN_STATEMENT_PRUNE_SIZE = 64;
+
+	/** Constant for the minimum period of the housekeeping in milliseconds. */
+	private static final long MIN_HOUSEKEEPING_PERIOD_MILLIS = 50;
+
+	/** Constant for the logger. */
+	private static final Logger LOGGER = Logger.getLogger(PooledDataSource.class.getName());
+
+	/** The counter for the generated pool names. */
+	private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+	/** The data of the physical connections. */
+	private final DataSourceBean dataSourceBean;
+
+	/** The settings of the connection pool. */
+	private final ConnectionPoolBean connectionPool;
+
+	/** The maximum number of open connections. */
+	private final int maxPoolSize;
+
+	/** The maximum time in nanoseconds to wait for a free connection. */
+	private final long connectionTimeoutNanos;
+
+	/** The timeout of a validation in seconds. */
+	private final int validationTimeoutSeconds;
+
+	/** The bag of the idle connections. */
+	private final ConnectionBag connectionBag;
+
+	/** The executor of the housekeeping. */
+	private final ScheduledExecutorService housekeeper;
+
+	/** The counter of the prepared statements that are taken from a statement cache. */
+	private final LongAdder statementCacheHitCount = new LongAdder();
+
+	/** The counter of the prepared statements that are not found in a statement cache. */
+	private final LongAdder statementCacheMissCount = new LongAdder();
+
+	/** The histogram of the time to get a connection from the pool. */
+	private final LatencyHistogram acquireHistogram = new LatencyHistogram();
+
+	/** The histogram of the time a connection is held until it is returned. */
+	private final LatencyHistogram usageHistogram = new LatencyHistogram();
+
+	/** The histogram of the time to open a physical connection. */
+	private final LatencyHistogram creationHistogram = new LatencyHistogram();
+
+	/** The counter of the detected connection leaks. */
+	private final LongAdder leakCount = new LongAdder();
+
+	/** The handlers of the handed out connections, only filled if leaks are detected. */
+	private final Set<ConnectionHandler> handedOutConnections = ConcurrentHashMap.newKeySet();
+
+	/** The name of the pool. */
+	private final String poolName;
+
+	/** The JMX object name of the pool or null if the pool is not registered. */
+	private final ObjectName objectName;
+
+	/** The future that is completed when the warm up of the pool is finished. */
+	private final CompletableFuture<PooledDataSource> readiness;
+
+	/** The log writer of this data source. */
+	private PrintWriter logWriter;
+
+	/** The login timeout of this data source in seconds. */
+	private int loginTimeout;
+
+	/**
+	 * Instantiates a new {@link PooledDataSource} object
+	 *
+	 * @param dataSourceBean
+	 *            the data of the physical connections
+	 * @param connectionPool
+	 *            the settings of the connection pool
+	 */
+	public PooledDataSource(final @NonNull DataSourceBean dataSourceBean,
+		final @NonNull ConnectionPoolBean connectionPool)
+	{
+		this.dataSourceBean = dataSourceBean;
+		this.connectionPool = connectionPool;
+		this.maxPoolSize = 0 < connectionPool.getMaxPoolSize()
+			? connectionPool.getMaxPoolSize()
+			: DEFAULT_MAX_POOL_SIZE;
+		if (maxPoolSize < connectionPool.getMinIdle())
+		{
+			throw new IllegalArgumentException("minIdle must not be greater than maxPoolSize");
+		}
+		this.connectionTimeoutNanos = TimeUnit.MILLISECONDS
+			.toNanos(0 < connectionPool.getConnectionTimeoutMillis()
+				? connectionPool.getConnectionTimeoutMillis()
+				: DEFAULT_CONNECTION_TIMEOUT_MILLIS);
+		this.validationTimeoutSeconds = 0 < connectionPool.getValidationTimeoutSeconds()
+			? connectionPool.getValidationTimeoutSeconds()
+			: DEFAULT_VALIDATION_TIMEOUT_SECONDS;
+		if (dataSourceBean.getDriverClassName() != null)
+		{
+			try
+			{
+				DriverRegistry.getDriver(dataSourceBean.getDriverClassName());
+			}
+			catch (final ClassNotFoundException | SQLException e)
+			{
+				throw new IllegalArgumentException(
+					"driver class not found: " + dataSourceBean.getDriverClassName(), e);
+			}
+		}
+		this.connectionBag = newConnectionBag(connectionPool.getPoolMode());
+		this.poolName = connectionPool.getPoolName() != null
+			? connectionPool.getPoolName()
+			: "pooled-data-source-" + POOL_COUNTER.incrementAndGet();
+		this.objectName = connectionPool.isRegisterMBean() ? registerMBean() : null;
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, poolName + "-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try
+		{
+			this.readiness = warmUp();
+			final long period = getHousekeepingPeriodMillis();
+			housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+			readiness.whenComplete((dataSource, throwable) -> housekeepAfterWarmUp());
+		}
+		catch (final RuntimeException | Error e)
+		{
+			// the data source is never handed out, so nobody else could release the MBean
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		final long start = System.nanoTime();
+		final long deadline = start + connectionTimeoutNanos;
+		while (true)
+		{
+			PooledConnection pooledConnection = connectionBag.borrow(deadline);
+			if (pooledConnection == null)
+			{
+				try
+				{
+					pooledConnection = openPooledConnection();
+				}
+				catch (final SQLException | RuntimeException e)
+				{
+					connectionBag.discard();
+					throw e;
+				}
+			}
+			else if (!isUsable(pooledConnection, true))
+			{
+				connectionBag.discard();
+				closeQuietly(pooledConnection.connection);
+				continue;
+			}
+			acquireHistogram.record(System.nanoTime() - start);
+			return newConnectionProxy(pooledConnection);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Connection getConnection(final String username, final String password)
+		throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException(
+			"The credentials of a pooled data source are set in the DataSourceBean");
+	}
+
+	/**
+	 * Gets the number of connections that are handed out
+	 *
+	 * @return the number of connections that are handed out
+	 */
+	@Override
+	public int getActiveCount()
+	{
+		return connectionBag.getActiveCount();
+	}
+
+	/**
+	 * Gets the number of idle connections in the pool
+	 *
+	 * @return the number of idle connections in the pool
+	 */
+	@Override
+	public int getIdleCount()
+	{
+		return connectionBag.getIdleCount();
+	}
+
+	/**
+	 * Gets the number of open connections
+	 *
+	 * @return the number of open connections
+	 */
+	@Override
+	public int getTotalCount()
+	{
+		return connectionBag.getTotalCount();
+	}
+
+	/**
+	 * Gets the number of threads that are waiting for a free connection
+	 *
+	 * @return the number of threads that are waiting for a free connection
+	 */
+	@Override
+	public int getPendingCount()
+	{
+		return connectionBag.getPendingCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getLeakCount()
+	{
+		return leakCount.sum();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public LatencyStatistics getAcquireStatistics()
+	{
+		return acquireHistogram.getStatistics();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public LatencyStatistics getUsageStatistics()
+	{
+		return usageHistogram.getStatistics();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public LatencyStatistics getCreationStatistics()
+	{
+		return creationHistogram.getStatistics();
+	}
+
+	/**
+	 * Gets the histogram of the time to get a connection from the pool
+	 *
+	 * @return the histogram of the time to get a connection from the pool
+	 */
+	public LatencyHistogram getAcquireHistogram()
+	{
+		return acquireHistogram;
+	}
+
+	/**
+	 * Gets the histogram of the time a connection is held until it is returned
+	 *
+	 * @return the histogram of the time a connection is held until it is returned
+	 */
+	public LatencyHistogram getUsageHistogram()
+	{
+		return usageHistogram;
+	}
+
+	/**
+	 * Gets the histogram of the time to open a physical connection
+	 *
+	 * @return the histogram of the time to open a physical connection
+	 */
+	public LatencyHistogram getCreationHistogram()
+	{
+		return creationHistogram;
+	}
+
+	/**
+	 * Gets the name of the pool
+	 *
+	 * @return the name of the pool
+	 */
+	public String getPoolName()
+	{
+		return poolName;
+	}
+
+	/**
+	 * Gets the future that is completed with this data source when the minimum number of idle
+	 * connections is opened and warmed up. The future is completed exceptionally if a connection
+	 * could not be opened or warmed up, the pool is usable anyway.
+	 *
+	 * @return the future that is completed when the warm up of the pool is finished
+	 */
+	public CompletableFuture<PooledDataSource> getReadiness()
+	{
+		return readiness.copy();
+	}
+
+	/**
+	 * Gets the number of prepared statements that are taken from the statement caches
+	 *
+	 * @return the number of prepared statements that are taken from the statement caches
+	 */
+	@Override
+	public long getStatementCacheHitCount()
+	{
+		return statementCacheHitCount.sum();
+	}
+
+	/**
+	 * Gets the number of prepared statements that are not found in the statement caches
+	 *
+	 * @return the number of prepared statements that are not found in the statement caches
+	 */
+	@Override
+	public long getStatementCacheMissCount()
+	{
+		return statementCacheMissCount.sum();
+	}
+
+	/**
+	 * Checks if this data source is closed
+	 *
+	 * @return true, if this data source is closed otherwise false
+	 */
+	public boolean isClosed()
+	{
+		return connectionBag.isClosed();
+	}
+
+	/**
+	 * Closes this data source and all idle connections. A connection that is handed out is closed
+	 * when it is returned.
+	 */
+	@Override
+	public void close()
+	{
+		if (connectionBag.isClosed())
+		{
+			return;
+		}
+		final List<PooledConnection> connections = connectionBag.close();
+		housekeeper.shutdownNow();
+		unregisterMBean();
+		connections.forEach(pooledConnection -> closeQuietly(pooledConnection.connection));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PrintWriter getLogWriter()
+	{
+		return logWriter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setLogWriter(final PrintWriter logWriter)
+	{
+		this.logWriter = logWriter;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setLoginTimeout(final int seconds)
+	{
+		this.loginTimeout = seconds;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getLoginTimeout()
+	{
+		return loginTimeout;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T unwrap(final Class<T> iface) throws SQLException
+	{
+		if (iface.isInstance(this))
+		{
+			return iface.cast(this);
+		}
+		throw new SQLException("The data source is not a wrapper for " + iface.getName());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isWrapperFor(final Class<?> iface)
+	{
+		return iface.isInstance(this);
+	}
+
+	/**
+	 * Factory method for create a new physical connection from the {@link DataSourceBean}. If the
+	 * driver class name is set, the connection is opened over the {@link DriverRegistry}.
+	 *
+	 * @return the new physical connection
+	 * @throws SQLException
+	 *             is thrown if a database access error occurs
+	 */
+	protected Connection newPhysicalConnection() throws SQLException
+	{
+		final Properties info = new Properties();
+		if (dataSourceBean.getUsername() != null)
+		{
+			info.setProperty("user", dataSourceBean.getUsername());
+		}
+		if (dataSourceBean.getPassword() != null)
+		{
+			info.setProperty("password", dataSourceBean.getPassword());
+		}
+		if (dataSourceBean.getDriverClassName() == null)
+		{
+			return DriverManager.getConnection(dataSourceBean.getUrl(), info);
+		}
+		return DriverRegistry.connect(dataSourceBean.getDriverClassName(), dataSourceBean.getUrl(),
+			info);
+	}
+
+	private PooledConnection openPooledConnection() throws SQLException
+	{
+		final long start = System.nanoTime();
+		final Connection connection = newPhysicalConnection();
+		creationHistogram.record(System.nanoTime() - start);
+		return newPooledConnection(connection);
+	}
+
+	private PooledConnection newPooledConnection(final Connection connection)
+		throws SQLException
+	{
+		try
+		{
+			return new PooledConnection(connection,
+				0 < connectionPool.getStatementCacheSize()
+					? new PreparedStatementCache(connectionPool.getStatementCacheSize(),
+						statementCacheHitCount, statementCacheMissCount)
+					: null);
+		}
+		catch (final SQLException | RuntimeException e)
+		{
+			closeQuietly(connection);
+			throw e;
+		}
+	}
+
+	private ConnectionBag newConnectionBag(final PoolMode poolMode)
+	{
+		if (poolMode == PoolMode.LOCK_FREE)
+		{
+			return new LockFreeConnectionBag(maxPoolSize);
+		}
+		if (poolMode == PoolMode.STRIPED)
+		{
+			return new StripedConnectionBag(maxPoolSize,
+				0 < connectionPool.getStripeCount()
+					? connectionPool.getStripeCount()
+					: Runtime.getRuntime().availableProcessors());
+		}
+		return new BlockingConnectionBag(maxPoolSize);
+	}
+
+	private long getHousekeepingPeriodMillis()
+	{
+		long period = MAX_HOUSEKEEPING_PERIOD_MILLIS;
+		if (0 < connectionPool.getIdleTimeoutMillis())
+		{
+			period = Math.min(period, connectionPool.getIdleTimeoutMillis() / 2);
+		}
+		if (0 < connectionPool.getMaxLifetimeMillis())
+		{
+			period = Math.min(period, connectionPool.getMaxLifetimeMillis() / 2);
+		}
+		if (0 < connectionPool.getLeakDetectionThresholdMillis())
+		{
+			period = Math.min(period, connectionPool.getLeakDetectionThresholdMillis() / 2);
+		}
+		return Math.max(period, MIN_HOUSEKEEPING_PERIOD_MILLIS);
+	}
+
+	private boolean isExpired(final PooledConnection pooledConnection, final long now)
+	{
+		return 0 < connectionPool.getMaxLifetimeMillis()
+			&& TimeUnit.MILLISECONDS.toNanos(connectionPool.getMaxLifetimeMillis()) <= now
+				- pooledConnection.createdNanos;
+	}
+
+	private boolean isIdleTimedOut(final PooledConnection pooledConnection, final long now)
+	{
+		return 0 < connectionPool.getIdleTimeoutMillis()
+			&& TimeUnit.MILLISECONDS.toNanos(connectionPool.getIdleTimeoutMillis()) <= now
+				- pooledConnection.returnedNanos;
+	}
+
+	private boolean isUsable(final PooledConnection pooledConnection, final boolean borrow)
+	{
+		if (pooledConnection.broken || isExpired(pooledConnection, System.nanoTime()))
+		{
+			return false;
+		}
+		return !borrow || !connectionPool.isTestOnBorrow() || isValid(pooledConnection.connection);
+	}
+
+	private boolean isValid(final Connection connection)
+	{
+		try
+		{
+			if (connectionPool.getValidationQuery() == null)
+			{
+				return connection.isValid(validationTimeoutSeconds);
+			}
+			try (Statement statement = connection.createStatement())
+			{
+				statement.setQueryTimeout(validationTimeoutSeconds);
+				statement.execute(connectionPool.getValidationQuery());
+				return true;
+			}
+		}
+		catch (final SQLException e)
+		{
+			return false;
+		}
+	}
+
+	private void release(final PooledConnection pooledConnection)
+	{
+		boolean reusable = isUsable(pooledConnection, false);
+		if (reusable)
+		{
+			try
+			{
+				final Connection connection = pooledConnection.connection;
+				if (!connection.getAutoCommit())
+				{
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+				pooledConnection.restoreDefaults();
+				connection.clearWarnings();
+			}
+			catch (final SQLException e)
+			{
+				reusable = false;
+			}
+		}
+		if (reusable)
+		{
+			pooledConnection.returnedNanos = System.nanoTime();
+			if (connectionBag.requite(pooledConnection))
+			{
+				return;
+			}
+		}
+		connectionBag.discard();
+		closeQuietly(pooledConnection.connection);
+	}
+
+	private void housekeep()
+	{
+		if (connectionBag.isClosed())
+		{
+			return;
+		}
+		try
+		{
+			final long now = System.nanoTime();
+			detectLeaks(now);
+			for (final PooledConnection pooledConnection : connectionBag.getIdleConnections())
+			{
+				if ((isExpired(pooledConnection, now) || (isIdleTimedOut(pooledConnection, now)
+					&& connectionPool.getMinIdle() < connectionBag.getIdleCount()))
+					&& connectionBag.removeIdle(pooledConnection))
+				{
+					closeQuietly(pooledConnection.connection);
+				}
+			}
+			// the warm up fills the pool in parallel at the start
+			while (readiness.isDone()
+				&& connectionBag.getIdleCount() < connectionPool.getMinIdle()
+				&& connectionBag.reserveIdle())
+			{
+				if (!addIdleConnection())
+				{
+					return;
+				}
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			// an exception would cancel all following runs of the housekeeping
+			LOGGER.log(Level.WARNING, "The housekeeping of the pool " + poolName + " has failed",
+				e);
+		}
+	}
+
+	private void detectLeaks(final long now)
+	{
+		final long threshold = TimeUnit.MILLISECONDS
+			.toNanos(connectionPool.getLeakDetectionThresholdMillis());
+		for (final ConnectionHandler handler : handedOutConnections)
+		{
+			if (!handler.leakReported && threshold <= now - handler.borrowedNanos)
+			{
+				handler.leakReported = true;
+				leakCount.increment();
+				LOGGER.log(Level.WARNING, "A connection of the pool " + poolName
+					+ " is held longer than " + connectionPool.getLeakDetectionThresholdMillis()
+					+ " ms, it is a possible leak", handler.borrowerStack);
+			}
+		}
+	}
+
+	private ObjectName registerMBean()
+	{
+		try
+		{
+			final ObjectName name = new ObjectName(
+				"io.github.astrapi69.springconfig:type=PooledDataSource,name="
+					+ ObjectName.quote(poolName));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			return name;
+		}
+		catch (final JMException e)
+		{
+			throw new IllegalArgumentException(
+				"The pool " + poolName + " could not be registered over JMX", e);
+		}
+	}
+
+	private void unregisterMBean()
+	{
+		if (objectName == null)
+		{
+			return;
+		}
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		}
+		catch (final JMException e)
+		{
+			LOGGER.log(Level.FINE, "The pool " + poolName + " could not be unregistered", e);
+		}
+	}
+
+	private void housekeepAfterWarmUp()
+	{
+		try
+		{
+			// fills the pool if the warm up has failed
+			housekeeper.execute(this::housekeep);
+		}
+		catch (final RejectedExecutionException e)
+		{
+			// the data source is closed
+		}
+	}
+
+	private boolean addIdleConnection()
+	{
+		final PooledConnection pooledConnection;
+		try
+		{
+			pooledConnection = openPooledConnection();
+		}
+		catch (final SQLException | RuntimeException e)
+		{
+			connectionBag.cancelIdle();
+			return false;
+		}
+		if (connectionBag.addIdle(pooledConnection))
+		{
+			return true;
+		}
+		connectionBag.cancelIdle();
+		closeQuietly(pooledConnection.connection);
+		return false;
+	}
+
+	private CompletableFuture<PooledDataSource> warmUp()
+	{
+		final int connectionCount = connectionPool.getMinIdle();
+		if (connectionCount < 1)
+		{
+			return CompletableFuture.completedFuture(this);
+		}
+		final int parallelism = 0 < connectionPool.getWarmUpParallelism()
+			? Math.min(connectionPool.getWarmUpParallelism(), connectionCount)
+			: connectionCount;
+		final ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			final Thread thread = new Thread(runnable, "pooled-data-source-warm-up");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[connectionCount];
+		for (int i = 0; i < connectionCount; i++)
+		{
+			futures[i] = CompletableFuture.runAsync(this::addWarmConnection, executor);
+		}
+		executor.shutdown();
+		return CompletableFuture.allOf(futures).thenApply(ignored -> this);
+	}
+
+	private void addWarmConnection()
+	{
+		if (!connectionBag.reserveIdle())
+		{
+			return;
+		}
+		PooledConnection pooledConnection = null;
+		try
+		{
+			pooledConnection = openPooledConnection();
+			warmUp(pooledConnection);
+		}
+		catch (final SQLException | RuntimeException e)
+		{
+			connectionBag.cancelIdle();
+			if (pooledConnection != null)
+			{
+				closeQuietly(pooledConnection.connection);
+			}
+			throw new CompletionException(e);
+		}
+		if (!connectionBag.addIdle(pooledConnection))
+		{
+			connectionBag.cancelIdle();
+			closeQuietly(pooledConnection.connection);
+		}
+	}
+
+	private void warmUp(final PooledConnection pooledConnection) throws SQLException
+	{
+		final Connection connection = pooledConnection.connection;
+		if (connectionPool.isValidateOnWarmUp() && !isValid(connection))
+		{
+			throw new SQLException("The validation of a new connection has failed", "08001");
+		}
+		if (connectionPool.getWarmUpStatements() == null)
+		{
+			return;
+		}
+		for (final String sql : connectionPool.getWarmUpStatements())
+		{
+			if (pooledConnection.statementCache == null)
+			{
+				try (PreparedStatement preparedStatement = connection.prepareStatement(sql))
+				{
+					preparedStatement.execute();
+				}
+				continue;
+			}
+			// the warmed up statement stays in the statement cache
+			final List<Object> key = pooledConnection.newStatementKey(new Object[] { sql });
+			PreparedStatement preparedStatement = pooledConnection.statementCache.take(key);
+			if (preparedStatement == null)
+			{
+				preparedStatement = connection.prepareStatement(sql);
+			}
+			try
+			{
+				preparedStatement.execute();
+			}
+			finally
+			{
+				pooledConnection.statementCache.release(key, preparedStatement);
+			}
+		}
+	}
+
+	private Connection newConnectionProxy(final PooledConnection pooledConnection)
+	{
+		return (Connection)Proxy.newProxyInstance(PooledDataSource.class.getClassLoader(),
+			new Class<?>[] { Connection.class }, new ConnectionHandler(pooledConnection));
+	}
+
+	static void closeQuietly(final Connection connection)
+	{
+		try
+		{
+			connection.close();
+		}
+		catch (final SQLException e)
+		{
+			// the connection is discarded anyway
+		}
+	}
+
+	private Object invokePhysical(final PooledConnection pooledConnection, final Object target,
+		final Method method, final Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch (final InvocationTargetException e)
+		{
+			final Throwable cause = e.getCause();
+			if (cause instanceof SQLException && ((SQLException)cause).getSQLState() != null
+				&& ((SQLException)cause).getSQLState().startsWith("08"))
+			{
+				pooledConnection.broken = true;
+			}
+			throw cause;
+		}
+	}
+
+	/**
+	 * The class {@link ConnectionHandler} is the {@link InvocationHandler} of a handed out
+	 * connection that returns the physical connection to the pool on close
+	 */
+	private final class ConnectionHandler implements InvocationHandler
+	{
+
+		private final PooledConnection pooledConnection;
+
+		private final long borrowedNanos = System.nanoTime();
+
+		private final Exception borrowerStack;
+
+		private final List<Statement> statements = new ArrayList<>();
+
+		private int statementPruneSize = MIN_STATEMENT_PRUNE_SIZE;
+
+		private volatile boolean leakReported;
+
+		private boolean closed;
+
+		private ConnectionHandler(final PooledConnection pooledConnection)
+		{
+			this.pooledConnection = pooledConnection;
+			if (0 < connectionPool.getLeakDetectionThresholdMillis())
+			{
+				this.borrowerStack = new Exception("The connection was borrowed here");
+				handedOutConnections.add(this);
+			}
+			else
+			{
+				this.borrowerStack = null;
+			}
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args)
+			throws Throwable
+		{
+			switch (method.getName())
+			{
+				case "close" :
+					if (!closed)
+					{
+						closed = true;
+						returned();
+						closeStatements();
+						release(pooledConnection);
+					}
+					return null;
+				case "isClosed" :
+					return closed || pooledConnection.connection.isClosed();
+				case "equals" :
+					return proxy == args[0];
+				case "hashCode" :
+					return System.identityHashCode(proxy);
+				case "toString" :
+					return "Pooled" + pooledConnection.connection;
+				default :
+			}
+			if (closed)
+			{
+				throw new SQLException("The connection is closed", "08003");
+			}
+			if (pooledConnection.statementCache != null
+				&& "prepareStatement".equals(method.getName()))
+			{
+				final List<Object> key = pooledConnection.newStatementKey(args);
+				PreparedStatement statement = pooledConnection.statementCache.take(key);
+				if (statement == null)
+				{
+					statement = (PreparedStatement)invokePhysical(pooledConnection,
+						pooledConnection.connection, method, args);
+				}
+				return track((Statement)Proxy.newProxyInstance(
+					PooledDataSource.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class },
+					new StatementHandler(pooledConnection, (Connection)proxy, key, statement)));
+			}
+			pooledConnection.markDirty(method.getName());
+			final Object result = invokePhysical(pooledConnection, pooledConnection.connection,
+				method, args);
+			pooledConnection.changed(method.getName(), args);
+			return result instanceof Statement ? track((Statement)result) : result;
+		}
+
+		private Statement track(final Statement statement) throws SQLException
+		{
+			if (statementPruneSize <= statements.size())
+			{
+				// the closed statements are dropped, so a long borrow does not grow the list
+				final Iterator<Statement> iterator = statements.iterator();
+				while (iterator.hasNext())
+				{
+					if (iterator.next().isClosed())
+					{
+						iterator.remove();
+					}
+				}
+				statementPruneSize = Math.max(MIN_STATEMENT_PRUNE_SIZE, statements.size() * 2);
+			}
+			statements.add(statement);
+			return statement;
+		}
+
+		private void closeStatements()
+		{
+			for (final Statement statement : statements)
+			{
+				try
+				{
+					statement.close();
+				}
+				catch (final SQLException e)
+				{
+					// the statement is discarded anyway
+				}
+			}
+			statements.clear();
+		}
+
+		private void returned()
+		{
+			usageHistogram.record(System.nanoTime() - borrowedNanos);
+			if (borrowerStack != null)
+			{
+				handedOutConnections.remove(this);
+				if (leakReported)
+				{
+					LOGGER.info("A connection of the pool " + poolName
+						+ " that was logged as possible leak has been returned");
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * The class {@link StatementHandler} is the {@link InvocationHandler} of a cached prepared
+	 * statement that puts the physical statement back into the statement cache on close
+	 */
+	private final class StatementHandler implements InvocationHandler
+	{
+
+		private final PooledConnection pooledConnection;
+
+		private final Connection connection;
+
+		private final List<Object> key;
+
+		private final PreparedStatement statement;
+
+		private final Map<PreparedStatementCache.Setting, Object> changedSettings = new EnumMap<>(
+			PreparedStatementCache.Setting.class);
+
+		private boolean closed;
+
+		private StatementHandler(final PooledConnection pooledConnection,
+			final Connection connection, final List<Object> key,
+			final PreparedStatement statement)
+		{
+			this.pooledConnection = pooledConnection;
+			this.connection = connection;
+			this.key = key;
+			this.statement = statement;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args)
+			throws Throwable
+		{
+			switch (method.getName())
+			{
+				case "close" :
+					if (!closed)
+					{
+						closed = true;
+						pooledConnection.statementCache.release(key, statement, changedSettings);
+					}
+					return null;
+				case "isClosed" :
+					return closed || statement.isClosed();
+				case "getConnection" :
+					return connection;
+				case "equals" :
+					return proxy == args[0];
+				case "hashCode" :
+					return System.identityHashCode(proxy);
+				case "toString" :
+					return "Cached" + statement;
+				default :
+			}
+			if (closed)
+			{
+				throw new SQLException("The statement is closed");
+			}
+			final PreparedStatementCache.Setting setting = PreparedStatementCache.Setting
+				.of(method.getName());
+			if (setting != null && !changedSettings.containsKey(setting))
+			{
+				changedSettings.put(setting, setting.get(statement));
+			}
+			return invokePhysical(pooledConnection, statement, method, args);
+		}
+
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+/**
+ * The interface {@link PooledDataSourceMXBean} defines the attributes of a {@link PooledDataSource}
+ * that are readable over JMX
+ */
+public interface PooledDataSourceMXBean
+{
+
+	/**
+	 * Gets the number of connections that are handed out
+	 *
+	 * @return the number of connections that are handed out
+	 */
+	int getActiveCount();
+
+	/**
+	 * Gets the number of idle connections in the pool
+	 *
+	 * @return the number of idle connections in the pool
+	 */
+	int getIdleCount();
+
+	/**
+	 * Gets the number of open connections
+	 *
+	 * @return the number of open connections
+	 */
+	int getTotalCount();
+
+	/**
+	 * Gets the number of threads that are waiting for a free connection
+	 *
+	 * @return the number of threads that are waiting for a free connection
+	 */
+	int getPendingCount();
+
+	/**
+	 * Gets the number of prepared statements that are taken from the statement caches
+	 *
+	 * @return the number of prepared statements that are taken from the statement caches
+	 */
+	long getStatementCacheHitCount();
+
+	/**
+	 * Gets the number of prepared statements that are not found in the statement caches
+	 *
+	 * @return the number of prepared statements that are not found in the statement caches
+	 */
+	long getStatementCacheMissCount();
+
+	/**
+	 * Gets the number of connections that are held longer than the leak detection threshold
+	 *
+	 * @return the number of detected connection leaks
+	 */
+	long getLeakCount();
+
+	/**
+	 * Gets the statistics of the time to get a connection from the pool
+	 *
+	 * @return the statistics of the time to get a connection from the pool
+	 */
+	LatencyStatistics getAcquireStatistics();
+
+	/**
+	 * Gets the statistics of the time a connection is held until it is returned
+	 *
+	 * @return the statistics of the time a connection is held until it is returned
+	 */
+	LatencyStatistics getUsageStatistics();
+
+	/**
+	 * Gets the statistics of the time to open a physical connection
+	 *
+	 * @return the statistics of the time to open a physical connection
+	 */
+	LatencyStatistics getCreationStatistics();
+
+}
@@ -0,0 +1,381 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@link PreparedStatementCache} keeps the idle {@link PreparedStatement} objects of one
+ * physical connection of a {@link PooledDataSource} in a least recently used order. A statement is
+ * taken out of the cache while it is in use and is put back when the statement is closed, so the
+ * same sql can be prepared again while a statement of it is still open. The key of a statement is
+ * the sql together with the result set options or the generated keys options.<br>
+ * <br>
+ * The settings max rows, fetch size, query timeout, fetch direction and escape processing that a
+ * user of a statement changes are restored before the statement is put back, so the next user gets
+ * the statement with the settings of the time it was prepared.<br>
+ * <br>
+ * If the cache is full, the least recently used statement is closed.
+ */
+final class PreparedStatementCache
+{
+
+	/** The idle statements in the order of their last use. */
+	private final Map<List<Object>, PreparedStatement> idleStatements;
+
+	/** The counter of the statements that are taken from the cache. */
+	private final LongAdder hitCount;
+
+	/** The counter of the statements that are not found in the cache. */
+	private final LongAdder missCount;
+
+	/**
+	 * Instantiates a new {@link PreparedStatementCache} object
+	 *
+	 * @param maxSize
+	 *            the maximum number of idle statements
+	 * @param hitCount
+	 *            the counter of the statements that are taken from the cache
+	 * @param missCount
+	 *            the counter of the statements that are not found in the cache
+	 */
+	PreparedStatementCache(final int maxSize, final LongAdder hitCount, final LongAdder missCount)
+	{
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.idleStatements = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+				final Map.Entry<List<Object>, PreparedStatement> eldest)
+			{
+				if (maxSize < size())
+				{
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Factory method for create the key of a statement from the current catalog and schema and the
+	 * arguments of a {@code prepareStatement} method of a connection. The same sql is another
+	 * statement in another catalog or schema, because the server resolves the names of the sql
+	 * when the statement is prepared.
+	 *
+	 * @param catalog
+	 *            the current catalog of the connection or null
+	 * @param schema
+	 *            the current schema of the connection or null
+	 * @param args
+	 *            the arguments of the {@code prepareStatement} method
+	 * @return the key of the statement
+	 */
+	static List<Object> newKey(final String catalog, final String schema, final Object[] args)
+	{
+		final List<Object> key = new ArrayList<>(args.length + 2);
+		key.add(catalog);
+		key.add(schema);
+		for (final Object arg : args)
+		{
+			if (arg instanceof int[])
+			{
+				key.add(Arrays.toString((int[])arg));
+			}
+			else if (arg instanceof Object[])
+			{
+				key.add(Arrays.asList((Object[])arg));
+			}
+			else
+			{
+				key.add(arg);
+			}
+		}
+		return Collections.unmodifiableList(key);
+	}
+
+	/**
+	 * Takes the idle statement with the given key out of this cache
+	 *
+	 * @param key
+	 *            the key of the statement
+	 * @return the idle statement or null if this cache has no idle statement with the given key
+	 */
+	synchronized PreparedStatement take(final List<Object> key)
+	{
+		final PreparedStatement statement = idleStatements.remove(key);
+		if (statement == null)
+		{
+			missCount.increment();
+		}
+		else
+		{
+			hitCount.increment();
+		}
+		return statement;
+	}
+
+	/**
+	 * Resets the given statement that is no more used and puts it back into this cache. If the
+	 * statement could not be reset or this cache has already an idle statement with the given key,
+	 * the statement is closed.
+	 *
+	 * @param key
+	 *            the key of the statement
+	 * @param statement
+	 *            the statement that is no more used
+	 */
+	void release(final List<Object> key, final PreparedStatement statement)
+	{
+		release(key, statement, Collections.emptyMap());
+	}
+
+	/**
+	 * Resets the given statement that is no more used, restores the given changed settings and
+	 * puts it back into this cache. If the statement could not be reset or this cache has already
+	 * an idle statement with the given key, the statement is closed.
+	 *
+	 * @param key
+	 *            the key of the statement
+	 * @param statement
+	 *            the statement that is no more used
+	 * @param changedSettings
+	 *            the values of the settings before they were changed
+	 */
+	void release(final List<Object> key, final PreparedStatement statement,
+		final Map<Setting, Object> changedSettings)
+	{
+		try
+		{
+			if (statement.isClosed())
+			{
+				return;
+			}
+			for (final Map.Entry<Setting, Object> setting : changedSettings.entrySet())
+			{
+				setting.getKey().set(statement, setting.getValue());
+			}
+			final ResultSet resultSet = statement.getResultSet();
+			if (resultSet != null)
+			{
+				resultSet.close();
+			}
+			statement.clearParameters();
+			statement.clearBatch();
+			statement.clearWarnings();
+		}
+		catch (final SQLException e)
+		{
+			closeQuietly(statement);
+			return;
+		}
+		synchronized (this)
+		{
+			if (idleStatements.putIfAbsent(key, statement) == null)
+			{
+				return;
+			}
+		}
+		closeQuietly(statement);
+	}
+
+	/**
+	 * Gets the number of idle statements in this cache
+	 *
+	 * @return the number of idle statements in this cache
+	 */
+	synchronized int size()
+	{
+		return idleStatements.size();
+	}
+
+	private static void closeQuietly(final Statement statement)
+	{
+		try
+		{
+			statement.close();
+		}
+		catch (final SQLException e)
+		{
+			// the statement is discarded anyway
+		}
+	}
+
+
+	/**
+	 * The enum {@link Setting} defines the statement settings that are restored before a statement
+	 * is put back into the cache. The constants are declared in the order of the restore, so the
+	 * max rows are restored before a fetch size that may depend on them.
+	 */
+	enum Setting
+	{
+
+		/** The max rows that are changed by {@code setMaxRows} or {@code setLargeMaxRows}. */
+		MAX_ROWS
+		{
+			@Override
+			Object get(final Statement statement) throws SQLException
+			{
+				return statement.getMaxRows();
+			}
+
+			@Override
+			void set(final Statement statement, final Object value) throws SQLException
+			{
+				statement.setMaxRows((Integer)value);
+			}
+		},
+
+		/** The fetch size. */
+		FETCH_SIZE
+		{
+			@Override
+			Object get(final Statement statement) throws SQLException
+			{
+				return statement.getFetchSize();
+			}
+
+			@Override
+			void set(final Statement statement, final Object value) throws SQLException
+			{
+				statement.setFetchSize((Integer)value);
+			}
+		},
+
+		/** The query timeout. */
+		QUERY_TIMEOUT
+		{
+			@Override
+			Object get(final Statement statement) throws SQLException
+			{
+				return statement.getQueryTimeout();
+			}
+
+			@Override
+			void set(final Statement statement, final Object value) throws SQLException
+			{
+				statement.setQueryTimeout((Integer)value);
+			}
+		},
+
+		/** The fetch direction. */
+		FETCH_DIRECTION
+		{
+			@Override
+			Object get(final Statement statement) throws SQLException
+			{
+				return statement.getFetchDirection();
+			}
+
+			@Override
+			void set(final Statement statement, final Object value) throws SQLException
+			{
+				statement.setFetchDirection((Integer)value);
+			}
+		},
+
+		/** The escape processing, that has no getter and is on by default. */
+		ESCAPE_PROCESSING
+		{
+			@Override
+			Object get(final Statement statement)
+			{
+				return Boolean.TRUE;
+			}
+
+			@Override
+			void set(final Statement statement, final Object value) throws SQLException
+			{
+				statement.setEscapeProcessing((Boolean)value);
+			}
+		};
+
+		/**
+		 * Gets the setting that is changed by the given method of a statement
+		 *
+		 * @param methodName
+		 *            the name of the invoked method of the statement
+		 * @return the setting or null if the method does not change a setting that is restored
+		 */
+		static Setting of(final String methodName)
+		{
+			switch (methodName)
+			{
+				case "setMaxRows" :
+				case "setLargeMaxRows" :
+					return MAX_ROWS;
+				case "setFetchSize" :
+					return FETCH_SIZE;
+				case "setQueryTimeout" :
+					return QUERY_TIMEOUT;
+				case "setFetchDirection" :
+					return FETCH_DIRECTION;
+				case "setEscapeProcessing" :
+					return ESCAPE_PROCESSING;
+				default :
+					return null;
+			}
+		}
+
+		/**
+		 * Gets the current value of this setting of the given statement
+		 *
+		 * @param statement
+		 *            the statement
+		 * @return the current value of this setting
+		 * @throws SQLException
+		 *             is thrown if a database access error occurs
+		 */
+		abstract Object get(Statement statement) throws SQLException;
+
+		/**
+		 * Sets the given value of this setting to the given statement
+		 *
+		 * @param statement
+		 *            the statement
+		 * @param value
+		 *            the value from {@link #get(Statement)}
+		 * @throws SQLException
+		 *             is thrown if a database access error occurs
+		 */
+		abstract void set(Statement statement, Object value) throws SQLException;
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import lombok.NonNull;
+
+/**
+ * The class {@link ReadWriteRoutingDataSource} routes the connections of a primary database and
+ * its read replicas. A connection from this data source is lazy and is bound to a physical
+ * connection on the first statement. If the connection is switched to read only with
+ * {@link java.sql.Connection#setReadOnly(boolean)} before, as a read only spring transaction does,
+ * the physical connection is taken from the replicas that are balanced by a
+ * {@link LeastOutstandingDataSource}, otherwise it is taken from the primary data source.<br>
+ * <br>
+ * Note: if this data source is closed, the primary data source and every replica data source that
+ * is {@link AutoCloseable} like a {@link PooledDataSource} is closed
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable
+{
+
+	/** The data source of the replicas or null if there are no replicas. */
+	private final LeastOutstandingDataSource replicaDataSource;
+
+	/**
+	 * Instantiates a new {@link ReadWriteRoutingDataSource} object
+	 *
+	 * @param primary
+	 *            the data source of the primary database
+	 * @param replicas
+	 *            the data sources of the read replicas, if the list is empty all connections are
+	 *            taken from the primary data source
+	 */
+	public ReadWriteRoutingDataSource(final @NonNull DataSource primary,
+		final @NonNull List<DataSource> replicas)
+	{
+		super(primary);
+		this.replicaDataSource = replicas.isEmpty()
+			? null
+			: new LeastOutstandingDataSource(replicas);
+		if (replicaDataSource != null)
+		{
+			setReadOnlyDataSource(replicaDataSource);
+		}
+	}
+
+	/**
+	 * Gets the data source of the replicas
+	 *
+	 * @return the data source of the replicas or null if there are no replicas
+	 */
+	public LeastOutstandingDataSource getReplicaDataSource()
+	{
+		return replicaDataSource;
+	}
+
+	/**
+	 * Closes the primary data source and the replica data sources that are {@link AutoCloseable}.
+	 * If a data source could not be closed, the other data sources are closed anyway and the first
+	 * exception is thrown with the following exceptions as suppressed exceptions.
+	 *
+	 * @throws IOException
+	 *             Signals that a data source could not be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		final List<DataSource> dataSources = new ArrayList<>();
+		dataSources.add(obtainTargetDataSource());
+		if (replicaDataSource != null)
+		{
+			dataSources.add(replicaDataSource);
+		}
+		LeastOutstandingDataSource.closeAll(dataSources);
+	}
+
+}
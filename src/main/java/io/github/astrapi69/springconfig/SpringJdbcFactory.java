@@ -24,10 +24,16 @@
  */
 package io.github.astrapi69.springconfig;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import io.github.astrapi69.jdbc.JdbcConnectionInfo;
+import io.github.astrapi69.jdbc.JdbcUrlBean;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
@@ -64,4 +70,89 @@ public class SpringJdbcFactory
 		return new JdbcTemplate(dataSource);
 	}
 
+	/**
+	 * Factory method for create the new {@link ReadWriteRoutingDataSource} object from the given
+	 * connection infos. The first connection info is the primary database and the other connection
+	 * infos are the read replicas.
+	 *
+	 * @param driverClassName
+	 *            the driver class name of the databases
+	 * @param connectionInfos
+	 *            the connection infos of the primary database and the read replicas
+	 * @return the new {@link ReadWriteRoutingDataSource}
+	 */
+	public static ReadWriteRoutingDataSource newReadWriteRoutingDataSource(
+		final @NonNull String driverClassName,
+		final @NonNull List<JdbcConnectionInfo> connectionInfos)
+	{
+		return newReadWriteRoutingDataSource(driverClassName, connectionInfos, null);
+	}
+
+	/**
+	 * Factory method for create the new {@link ReadWriteRoutingDataSource} object from the given
+	 * connection infos. The first connection info is the primary database and the other connection
+	 * infos are the read replicas. If the given {@link ConnectionPoolBean} is not null, every
+	 * database gets an own connection pool with these settings.
+	 *
+	 * @param driverClassName
+	 *            the driver class name of the databases
+	 * @param connectionInfos
+	 *            the connection infos of the primary database and the read replicas
+	 * @param connectionPool
+	 *            the settings of the connection pools or null for not pooled connections
+	 * @return the new {@link ReadWriteRoutingDataSource}
+	 */
+	public static ReadWriteRoutingDataSource newReadWriteRoutingDataSource(
+		final @NonNull String driverClassName,
+		final @NonNull List<JdbcConnectionInfo> connectionInfos,
+		final ConnectionPoolBean connectionPool)
+	{
+		if (connectionInfos.isEmpty())
+		{
+			throw new IllegalArgumentException("The connection info of the primary is required");
+		}
+		final DataSource primary = newDataSource(driverClassName, connectionInfos.get(0),
+			connectionPool, "primary");
+		final List<DataSource> replicas = new ArrayList<>();
+		try
+		{
+			for (int i = 1; i < connectionInfos.size(); i++)
+			{
+				replicas.add(newDataSource(driverClassName, connectionInfos.get(i), connectionPool,
+					"replica-" + i));
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			final List<DataSource> created = new ArrayList<>(replicas);
+			created.add(0, primary);
+			try
+			{
+				LeastOutstandingDataSource.closeAll(created);
+			}
+			catch (final IOException closeException)
+			{
+				e.addSuppressed(closeException);
+			}
+			throw e;
+		}
+		return new ReadWriteRoutingDataSource(primary, replicas);
+	}
+
+	private static DataSource newDataSource(final String driverClassName,
+		final JdbcConnectionInfo connectionInfo, final ConnectionPoolBean connectionPool,
+		final String role)
+	{
+		ConnectionPoolBean pool = connectionPool;
+		if (pool != null && pool.getPoolName() != null)
+		{
+			// every pool needs an own name for JMX
+			pool = pool.toBuilder().poolName(pool.getPoolName() + "-" + role).build();
+		}
+		return newDataSource(DataSourceBean.builder().driverClassName(driverClassName)
+			.url(JdbcUrlBean.buildUrlString(connectionInfo.getJdbcUrlBean()))
+			.username(connectionInfo.getUser()).password(connectionInfo.getPasswort())
+			.connectionPool(pool).build());
+	}
+
 }
@@ -0,0 +1,140 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class {@link StripedConnectionBag} is the {@link ConnectionBag} of the
+ * {@link PoolMode#STRIPED} mode. The idle connections are split into stripes with a
+ * {@link ConcurrentLinkedDeque} each, and a thread takes and returns its connections on the stripe
+ * of its thread id. Only if the own stripe is empty, the least recently returned connection of
+ * another stripe is stolen. So threads on different cores do not contend on one shared deque.<br>
+ * <br>
+ * As in the {@link PoolMode#LOCK_FREE} mode a {@link Semaphore} with a permit for every slot bounds
+ * the borrowed connections and the reserved idle slots, but the semaphore is not fair, so a
+ * borrower takes a free permit without queueing behind the waiting threads.
+ */
+final class StripedConnectionBag extends AbstractConnectionBag
+{
+
+	/** The stripes of the idle connections with the most recently returned connection first. */
+	private final List<Deque<PooledConnection>> stripes;
+
+	/** The counter for the distribution of new idle connections over the stripes. */
+	private final AtomicInteger nextStripe = new AtomicInteger();
+
+	/**
+	 * Instantiates a new {@link StripedConnectionBag} object
+	 *
+	 * @param maxPoolSize
+	 *            the maximum number of open connections
+	 * @param stripeCount
+	 *            the number of stripes
+	 */
+	StripedConnectionBag(final int maxPoolSize, final int stripeCount)
+	{
+		super(maxPoolSize, false);
+		this.stripes = new ArrayList<>(stripeCount);
+		for (int i = 0; i < stripeCount; i++)
+		{
+			stripes.add(new ConcurrentLinkedDeque<>());
+		}
+	}
+
+	@Override
+	public List<PooledConnection> getIdleConnections()
+	{
+		final List<PooledConnection> connections = new ArrayList<>();
+		stripes.forEach(connections::addAll);
+		// the returned time is volatile and may change while sorting, so every value is read once
+		final long[] returnedNanos = new long[connections.size()];
+		final Integer[] indexes = new Integer[connections.size()];
+		for (int i = 0; i < indexes.length; i++)
+		{
+			returnedNanos[i] = connections.get(i).returnedNanos;
+			indexes[i] = i;
+		}
+		Arrays.sort(indexes, Comparator.comparingLong(index -> returnedNanos[index]));
+		final List<PooledConnection> sorted = new ArrayList<>(indexes.length);
+		for (final Integer index : indexes)
+		{
+			sorted.add(connections.get(index));
+		}
+		return sorted;
+	}
+
+	@Override
+	protected PooledConnection poll()
+	{
+		final int local = getLocalStripeIndex();
+		PooledConnection pooledConnection = stripes.get(local).pollFirst();
+		for (int i = 1; pooledConnection == null && i < stripes.size(); i++)
+		{
+			// steal the least recently returned connection of another stripe
+			pooledConnection = stripes.get((local + i) % stripes.size()).pollLast();
+		}
+		return pooledConnection;
+	}
+
+	@Override
+	protected void pushReturned(final PooledConnection pooledConnection)
+	{
+		stripes.get(getLocalStripeIndex()).addFirst(pooledConnection);
+	}
+
+	@Override
+	protected void pushNew(final PooledConnection pooledConnection)
+	{
+		stripes.get(Math.floorMod(nextStripe.getAndIncrement(), stripes.size()))
+			.addFirst(pooledConnection);
+	}
+
+	@Override
+	protected boolean remove(final PooledConnection pooledConnection)
+	{
+		for (final Deque<PooledConnection> stripe : stripes)
+		{
+			if (stripe.removeFirstOccurrence(pooledConnection))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getLocalStripeIndex()
+	{
+		return (int)(Thread.currentThread().getId() % stripes.size());
+	}
+
+}
@@ -0,0 +1,262 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The unit test class for the class {@link DatabaseCatalog}
+ */
+public class DatabaseCatalogTest
+{
+
+	private static final String DRIVER_NAME = "org.h2.Driver";
+
+	/**
+	 * Test method for {@link DatabaseCatalog#existsDatabase(String)} and
+	 * {@link DatabaseCatalog#executeUpdate(String, String)}
+	 */
+	@Test
+	public void testExistsDatabase() throws SQLException
+	{
+		final String url = "jdbc:h2:mem:catalog-exists;DB_CLOSE_DELAY=-1";
+		try (DatabaseCatalog catalog = new DatabaseCatalog(DRIVER_NAME, url, "sa", "",
+			DatabaseCatalog.MYSQL_EXISTS_QUERY))
+		{
+			assertTrue(catalog.existsDatabase("PUBLIC"));
+			assertFalse(catalog.existsDatabase("TENANT"));
+			catalog.executeUpdate("CREATE SCHEMA TENANT", "TENANT");
+			assertTrue(catalog.existsDatabase("TENANT"));
+			catalog.executeUpdate("DROP SCHEMA TENANT", "TENANT");
+			assertFalse(catalog.existsDatabase("TENANT"));
+		}
+	}
+
+	/**
+	 * Test method for {@link DatabaseCatalog#setCacheTtlMillis(long)} and
+	 * {@link DatabaseCatalog#invalidate(String)}
+	 */
+	@Test
+	public void testCache() throws SQLException, ClassNotFoundException
+	{
+		final String url = "jdbc:h2:mem:catalog-cache;DB_CLOSE_DELAY=-1";
+		try (DatabaseCatalog catalog = new DatabaseCatalog(DRIVER_NAME, url, "sa", "",
+			DatabaseCatalog.MYSQL_EXISTS_QUERY);
+			Connection connection = DriverRegistry.getConnection(DRIVER_NAME, url, "sa", "");
+			Statement statement = connection.createStatement())
+		{
+			catalog.setCacheTtlMillis(60_000);
+			assertEquals(60_000, catalog.getCacheTtlMillis());
+			assertFalse(catalog.existsDatabase("TENANT"));
+			// created past the catalog, so the cached result is stale until it is invalidated
+			statement.executeUpdate("CREATE SCHEMA TENANT");
+			assertFalse(catalog.existsDatabase("TENANT"));
+			catalog.invalidate("TENANT");
+			assertTrue(catalog.existsDatabase("TENANT"));
+			statement.executeUpdate("DROP SCHEMA TENANT");
+			assertTrue(catalog.existsDatabase("TENANT"));
+			catalog.setCacheTtlMillis(0);
+			assertFalse(catalog.existsDatabase("TENANT"));
+		}
+	}
+
+	/**
+	 * Test method for {@link DatabaseCatalog#of(String, String, String, String, String)}
+	 */
+	@Test
+	public void testOf()
+	{
+		final String url = "jdbc:h2:mem:catalog-of;DB_CLOSE_DELAY=-1";
+		final DatabaseCatalog catalog = DatabaseCatalog.of(DRIVER_NAME, url, "sa", "",
+			DatabaseCatalog.MYSQL_EXISTS_QUERY);
+		assertSame(catalog,
+			DatabaseCatalog.of(DRIVER_NAME, url, "sa", "", DatabaseCatalog.MYSQL_EXISTS_QUERY));
+		// another password is another catalog
+		assertNotSame(catalog, DatabaseCatalog.of(DRIVER_NAME, url, "sa", "secret",
+			DatabaseCatalog.MYSQL_EXISTS_QUERY));
+		DatabaseCatalog.closeAll();
+	}
+
+	/**
+	 * Test method for
+	 * {@link DatabaseCatalog#invalidateIfPresent(String, String, String, String, String, String)}
+	 */
+	@Test
+	public void testInvalidateIfPresent() throws SQLException, ClassNotFoundException
+	{
+		final String url = "jdbc:h2:mem:catalog-invalidate;DB_CLOSE_DELAY=-1";
+		final DatabaseCatalog catalog = DatabaseCatalog.of(DRIVER_NAME, url, "sa", "",
+			DatabaseCatalog.MYSQL_EXISTS_QUERY);
+		catalog.setCacheTtlMillis(60_000);
+		try (Connection connection = DriverRegistry.getConnection(DRIVER_NAME, url, "sa", "");
+			Statement statement = connection.createStatement())
+		{
+			assertFalse(catalog.existsDatabase("TENANT"));
+			statement.executeUpdate("CREATE SCHEMA TENANT");
+			DatabaseCatalog.invalidateIfPresent(DRIVER_NAME, url, "sa", "",
+				DatabaseCatalog.MYSQL_EXISTS_QUERY, "TENANT");
+			assertTrue(catalog.existsDatabase("TENANT"));
+			// nothing to invalidate without a shared catalog
+			DatabaseCatalog.invalidateIfPresent(DRIVER_NAME, url, "sa", "other",
+				DatabaseCatalog.MYSQL_EXISTS_QUERY, "TENANT");
+		}
+		finally
+		{
+			DatabaseCatalog.closeAll();
+		}
+	}
+
+	/**
+	 * Test method for {@link DatabaseCatalog#existsDatabase(String)} with an admin connection that
+	 * is broken by the server
+	 */
+	@Test
+	public void testExistsDatabaseRetriesBrokenConnection() throws SQLException
+	{
+		try (DatabaseCatalog catalog = new DatabaseCatalog(BrokenConnectionDriver.class.getName(),
+			"jdbc:broken:mem:catalog-broken;DB_CLOSE_DELAY=-1", "sa", "",
+			DatabaseCatalog.MYSQL_EXISTS_QUERY))
+		{
+			assertTrue(catalog.existsDatabase("PUBLIC"));
+			BrokenConnectionDriver.BROKEN.set(true);
+			// the broken admin connection is replaced and the check is retried
+			assertTrue(catalog.existsDatabase("PUBLIC"));
+			assertFalse(BrokenConnectionDriver.BROKEN.get());
+		}
+	}
+
+	/**
+	 * The class {@link BrokenConnectionDriver} connects to H2 and fails the next query of the
+	 * already opened connections with a connection error if the flag {@link #BROKEN} is set
+	 */
+	public static final class BrokenConnectionDriver implements Driver
+	{
+
+		static final AtomicBoolean BROKEN = new AtomicBoolean();
+
+		private static final String URL_PREFIX = "jdbc:broken:";
+
+		@Override
+		public Connection connect(final String url, final Properties info) throws SQLException
+		{
+			if (!acceptsURL(url))
+			{
+				return null;
+			}
+			final Connection connection = new org.h2.Driver()
+				.connect("jdbc:h2:" + url.substring(URL_PREFIX.length()), info);
+			final boolean opened = BROKEN.get();
+			return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					final Object result = invoke(connection, method, args);
+					if (!(result instanceof PreparedStatement))
+					{
+						return result;
+					}
+					return Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { PreparedStatement.class },
+						(statementProxy, statementMethod, statementArgs) -> {
+							if (!opened && statementMethod.getName().equals("executeQuery")
+								&& BROKEN.compareAndSet(true, false))
+							{
+								throw new SQLException("The connection is broken", "08006");
+							}
+							return invoke(result, statementMethod, statementArgs);
+						});
+				});
+		}
+
+		@Override
+		public boolean acceptsURL(final String url)
+		{
+			return url.startsWith(URL_PREFIX);
+		}
+
+		@Override
+		public DriverPropertyInfo[] getPropertyInfo(final String url, final Properties info)
+		{
+			return new DriverPropertyInfo[0];
+		}
+
+		@Override
+		public int getMajorVersion()
+		{
+			return 1;
+		}
+
+		@Override
+		public int getMinorVersion()
+		{
+			return 0;
+		}
+
+		@Override
+		public boolean jdbcCompliant()
+		{
+			return false;
+		}
+
+		@Override
+		public Logger getParentLogger() throws SQLFeatureNotSupportedException
+		{
+			throw new SQLFeatureNotSupportedException();
+		}
+
+		private static Object invoke(final Object target, final Method method,
+			final Object[] args) throws Throwable
+		{
+			try
+			{
+				return method.invoke(target, args);
+			}
+			catch (final InvocationTargetException e)
+			{
+				throw e.getCause();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The unit test class for the class {@link DatabaseFileExtensions}
+ */
+public class DatabaseFileExtensionsTest
+{
+
+	/**
+	 * Test method for
+	 * {@link DatabaseFileExtensions#copyDatabaseFiles(String, String, String, String...)}
+	 */
+	@Test
+	public void testCopyDatabaseFiles(final @TempDir File directory) throws IOException
+	{
+		final String templatePath = new File(directory, "golden").getPath();
+		final String databasePath = new File(directory, "tenants/tenant").getPath();
+		Files.write(new File(templatePath + ".db").toPath(), new byte[] { 1, 2, 3 });
+		Files.write(new File(templatePath + ".log").toPath(), new byte[] { 4 });
+
+		assertEquals(CreationState.CREATED, DatabaseFileExtensions.copyDatabaseFiles(templatePath,
+			databasePath, ".db", ".log", ".lobs"));
+		assertArrayEquals(new byte[] { 1, 2, 3 },
+			Files.readAllBytes(new File(databasePath + ".db").toPath()));
+		assertArrayEquals(new byte[] { 4 },
+			Files.readAllBytes(new File(databasePath + ".log").toPath()));
+		assertFalse(new File(databasePath + ".lobs").exists());
+		assertEquals(2, new File(directory, "tenants").list().length);
+
+		assertEquals(CreationState.ALREADY_EXISTS, DatabaseFileExtensions
+			.copyDatabaseFiles(templatePath, databasePath, ".db", ".log", ".lobs"));
+		assertThrows(NoSuchFileException.class, () -> DatabaseFileExtensions
+			.copyDatabaseFiles(templatePath + "-missing", databasePath + "-new", ".db"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link DatabaseFileExtensions#copyDatabaseFiles(String, String, String, String...)} with a
+	 * stale optional file of an aborted earlier run
+	 */
+	@Test
+	public void testCopyDatabaseFilesDeletesStaleFiles(final @TempDir File directory)
+		throws IOException
+	{
+		final String templatePath = new File(directory, "golden").getPath();
+		final String databasePath = new File(directory, "tenant").getPath();
+		Files.write(new File(templatePath + ".db").toPath(), new byte[] { 1, 2, 3 });
+		Files.write(new File(databasePath + "-journal").toPath(), new byte[] { 9 });
+
+		assertEquals(CreationState.CREATED, DatabaseFileExtensions.copyDatabaseFiles(templatePath,
+			databasePath, ".db", "-journal"));
+		assertArrayEquals(new byte[] { 1, 2, 3 },
+			Files.readAllBytes(new File(databasePath + ".db").toPath()));
+		assertFalse(new File(databasePath + "-journal").exists());
+	}
+
+}
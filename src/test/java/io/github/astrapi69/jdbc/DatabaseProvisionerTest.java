@@ -0,0 +1,188 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The unit test class for the class {@link DatabaseProvisioner}
+ */
+public class DatabaseProvisionerTest
+{
+
+	private static final String DRIVER_NAME = "org.h2.Driver";
+
+	/**
+	 * Every database is an own H2 in-memory database and the admin database registers the created
+	 * databases in a table like the catalog of a database server
+	 */
+	private static DatabaseProvisioner newProvisioner(final String name)
+		throws SQLException, ClassNotFoundException
+	{
+		final String adminUrl = "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1";
+		try (Connection connection = DriverRegistry.getConnection(DRIVER_NAME, adminUrl, "sa", "");
+			Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("CREATE TABLE IF NOT EXISTS databases (name VARCHAR(64))");
+		}
+		return new DatabaseProvisioner(DRIVER_NAME, adminUrl, "sa", "",
+			"SELECT 1 FROM databases WHERE name = ?",
+			databaseName -> "INSERT INTO databases VALUES ('" + databaseName + "')",
+			databaseName -> "jdbc:h2:mem:" + name + "-" + databaseName + ";DB_CLOSE_DELAY=-1");
+	}
+
+	/**
+	 * Test method for {@link DatabaseProvisioner#provision(List, File, int)}
+	 */
+	@Test
+	public void testProvision(final @TempDir File directory)
+		throws IOException, SQLException, ClassNotFoundException, InterruptedException
+	{
+		final DatabaseProvisioner provisioner = newProvisioner("provision");
+		final File initScript = new File(directory, "init.sql");
+		Files.writeString(initScript.toPath(), "CREATE TABLE settings (id INT PRIMARY KEY);\n"
+			+ "INSERT INTO settings VALUES (1);\nINSERT INTO settings VALUES (2);\n");
+		final List<String> databaseNames = new ArrayList<>();
+		for (int i = 0; i < 12; i++)
+		{
+			databaseNames.add("TENANT_" + i);
+		}
+		provisioner.provision(Arrays.asList("TENANT_0"), null, 1);
+
+		final Map<String, DatabaseProvisioningResult> results = provisioner
+			.provision(databaseNames, initScript, 4);
+
+		assertEquals(databaseNames, new ArrayList<>(results.keySet()));
+		final DatabaseProvisioningResult existing = results.get("TENANT_0");
+		assertEquals(CreationState.ALREADY_EXISTS, existing.getCreationState());
+		assertNull(existing.getScriptResult());
+		assertEquals(0, existing.getInitNanos());
+		for (final String databaseName : databaseNames.subList(1, 12))
+		{
+			final DatabaseProvisioningResult result = results.get(databaseName);
+			assertFalse(result.isFailed());
+			assertEquals(CreationState.CREATED, result.getCreationState());
+			assertEquals(3, result.getScriptResult().getStatementCount());
+			assertTrue(0 < result.getCreationNanos());
+			assertTrue(0 < result.getInitNanos());
+			try (
+				Connection connection = DriverRegistry.getConnection(DRIVER_NAME,
+					"jdbc:h2:mem:provision-" + databaseName + ";DB_CLOSE_DELAY=-1", "sa", "");
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM settings"))
+			{
+				resultSet.next();
+				assertEquals(2, resultSet.getInt(1));
+			}
+		}
+		// a second run finds all databases
+		final Map<String, DatabaseProvisioningResult> secondResults = provisioner
+			.provision(databaseNames, initScript, 4);
+		for (final DatabaseProvisioningResult result : secondResults.values())
+		{
+			assertEquals(CreationState.ALREADY_EXISTS, result.getCreationState());
+		}
+	}
+
+	/**
+	 * Test method for {@link DatabaseProvisioner#provision(List, File, int)} with failed databases
+	 */
+	@Test
+	public void testProvisionWithFailures(final @TempDir File directory)
+		throws IOException, SQLException, ClassNotFoundException, InterruptedException
+	{
+		final DatabaseProvisioner provisioner = newProvisioner("provision-failures");
+		final File initScript = new File(directory, "init.sql");
+		Files.writeString(initScript.toPath(), "CREATE TABLE settings (id INT);\n"
+			+ "INSERT INTO unknown_table VALUES (1);\n");
+
+		final Map<String, DatabaseProvisioningResult> results = provisioner
+			.provision(Arrays.asList("TENANT_A", "INVALID'NAME", "TENANT_B"), initScript, 2);
+
+		final DatabaseProvisioningResult invalid = results.get("INVALID'NAME");
+		assertTrue(invalid.isFailed());
+		assertNull(invalid.getCreationState());
+		for (final String databaseName : Arrays.asList("TENANT_A", "TENANT_B"))
+		{
+			final DatabaseProvisioningResult result = results.get(databaseName);
+			assertEquals(CreationState.CREATED, result.getCreationState());
+			assertTrue(result.isFailed());
+			assertTrue(result.getFailure() instanceof SQLException);
+		}
+		assertThrows(IllegalArgumentException.class, () -> provisioner
+			.provision(Arrays.asList("TENANT_C", "TENANT_C"), initScript, 2));
+		assertThrows(IllegalArgumentException.class,
+			() -> provisioner.provision(Arrays.asList("TENANT_C"), initScript, 0));
+	}
+
+
+	/**
+	 * Test method for {@link DatabaseProvisioner#provision(List, File, int)} with a runtime
+	 * exception of one database
+	 */
+	@Test
+	public void testProvisionWithRuntimeException()
+		throws SQLException, ClassNotFoundException, InterruptedException
+	{
+		final String adminUrl = "jdbc:h2:mem:provision-runtime;DB_CLOSE_DELAY=-1";
+		final DatabaseProvisioner provisioner = new DatabaseProvisioner(DRIVER_NAME, adminUrl,
+			"sa", "", "SELECT 1 FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = ?",
+			databaseName -> {
+				if (databaseName.startsWith("BROKEN"))
+				{
+					throw new IllegalStateException("no create statement for " + databaseName);
+				}
+				return "CREATE SCHEMA " + databaseName;
+			}, databaseName -> adminUrl);
+
+		final Map<String, DatabaseProvisioningResult> results = provisioner
+			.provision(Arrays.asList("TENANT_A", "BROKEN_A", "TENANT_B"), null, 1);
+
+		assertEquals(3, results.size());
+		assertTrue(results.get("BROKEN_A").getFailure() instanceof IllegalStateException);
+		assertEquals(CreationState.CREATED, results.get("TENANT_A").getCreationState());
+		assertEquals(CreationState.CREATED, results.get("TENANT_B").getCreationState());
+	}
+
+}
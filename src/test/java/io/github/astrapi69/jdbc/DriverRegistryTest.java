@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.jdbc.h2.H2ConnectionsExtensions;
+
+/**
+ * The unit test class for the class {@link DriverRegistry}
+ */
+public class DriverRegistryTest
+{
+
+	@Test
+	public void testGetDriver() throws ClassNotFoundException, SQLException
+	{
+		assertSame(DriverRegistry.getDriver(H2ConnectionsExtensions.DRIVER_NAME),
+			DriverRegistry.getDriver(H2ConnectionsExtensions.DRIVER_NAME));
+		assertThrows(ClassNotFoundException.class,
+			() -> DriverRegistry.getDriver("org.example.MissingDriver"));
+		assertThrows(SQLException.class, () -> DriverRegistry.getDriver("java.lang.String"));
+	}
+
+	@Test
+	public void testGetConnection() throws ClassNotFoundException, SQLException
+	{
+		try (Connection connection = DriverRegistry.getConnection(
+			H2ConnectionsExtensions.DRIVER_NAME, "jdbc:h2:mem:registry",
+			H2ConnectionsExtensions.DEFAULT_USER, H2ConnectionsExtensions.DEFAULT_PASSWORD))
+		{
+			assertFalse(connection.isClosed());
+		}
+		assertThrows(SQLException.class, () -> DriverRegistry
+			.getConnection(H2ConnectionsExtensions.DRIVER_NAME, "jdbc:sqlite::memory:"));
+	}
+
+	@Test
+	public void testConnect() throws SQLException
+	{
+		try (Connection connection = DriverRegistry.connect(H2ConnectionsExtensions.DRIVER_NAME,
+			"jdbc:h2:mem:registryconnect", H2ConnectionsExtensions.DEFAULT_USER,
+			H2ConnectionsExtensions.DEFAULT_PASSWORD))
+		{
+			assertFalse(connection.isClosed());
+		}
+		final SQLException exception = assertThrows(SQLException.class,
+			() -> DriverRegistry.connect("org.example.MissingDriver", "jdbc:missing:", null, null));
+		assertEquals("08001", exception.getSQLState());
+	}
+
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.jdbc.h2.H2Launcher;
+
+/**
+ * The unit test class for the class {@link MultiHostConnectionFactory}
+ */
+public class MultiHostConnectionFactoryTest
+{
+
+	private static JdbcUrlBean newJdbcUrlBean(final int port)
+	{
+		return JdbcUrlBean.builder().protocol("jdbc:h2:tcp://").host("localhost").port(port)
+			.database("mem:multihost").build();
+	}
+
+	@Test
+	public void testFailover() throws SQLException, InterruptedException
+	{
+		final Server server = H2Launcher.newTcpServer("-tcpPort", "0", "-ifNotExists");
+		H2Launcher.start(server);
+		Server deadServer = H2Launcher.newTcpServer("-tcpPort", "0", "-ifNotExists");
+		H2Launcher.start(deadServer);
+		final int deadPort = deadServer.getPort();
+		H2Launcher.stop(deadServer);
+		final JdbcUrlBean dead = newJdbcUrlBean(deadPort);
+		try (MultiHostConnectionFactory factory = new MultiHostConnectionFactory(
+			MultiHostConnectionBean.builder().driverClassName("org.h2.Driver").jdbcUrlBean(dead)
+				.jdbcUrlBean(newJdbcUrlBean(server.getPort())).user("sa").password("")
+				.strategy(HostSelectionStrategy.ROUND_ROBIN).probeIntervalMillis(50).build()))
+		{
+			for (int i = 0; i < 4; i++)
+			{
+				try (Connection connection = factory.getConnection())
+				{
+					assertTrue(connection.isValid(1));
+				}
+			}
+			assertEquals(1, factory.getUnavailableHosts().size());
+			assertEquals(dead, factory.getUnavailableHosts().get(0));
+			// the health probe brings the host back
+			deadServer = H2Launcher.newTcpServer("-tcpPort", String.valueOf(deadPort),
+				"-ifNotExists");
+			H2Launcher.start(deadServer);
+			final long deadline = System.currentTimeMillis() + 10000;
+			while (!factory.getUnavailableHosts().isEmpty()
+				&& System.currentTimeMillis() < deadline)
+			{
+				Thread.sleep(10);
+			}
+			assertEquals(2, factory.getAvailableHosts().size());
+		}
+		finally
+		{
+			H2Launcher.stop(deadServer);
+			H2Launcher.stop(server);
+		}
+	}
+
+	@Test
+	public void testNoHostAvailable() throws SQLException
+	{
+		final Server deadServer = H2Launcher.newTcpServer("-tcpPort", "0");
+		H2Launcher.start(deadServer);
+		final int deadPort = deadServer.getPort();
+		H2Launcher.stop(deadServer);
+		try (MultiHostConnectionFactory factory = new MultiHostConnectionFactory(
+			MultiHostConnectionBean.builder().driverClassName("org.h2.Driver")
+				.jdbcUrlBean(newJdbcUrlBean(deadPort))
+				.strategy(HostSelectionStrategy.LATENCY_WEIGHTED).build()))
+		{
+			final SQLException exception = assertThrows(SQLException.class,
+				factory::getConnection);
+			assertEquals("08001", exception.getSQLState());
+			assertEquals(1, exception.getSuppressed().length);
+			// a skipped host is tried anyway if all hosts are skipped
+			assertThrows(SQLException.class, factory::getConnection);
+		}
+	}
+
+	@Test
+	public void testRefusedLoginKeepsHostAvailable() throws SQLException
+	{
+		final Server server = H2Launcher.newTcpServer("-tcpPort", "0", "-ifNotExists");
+		H2Launcher.start(server);
+		// the open connection keeps the in memory database with its user alive
+		try (MultiHostConnectionFactory factory = new MultiHostConnectionFactory(
+			MultiHostConnectionBean.builder().driverClassName("org.h2.Driver")
+				.jdbcUrlBean(newJdbcUrlBean(server.getPort())).user("sa").password("")
+				.build());
+			Connection connection = factory.getConnection();
+			MultiHostConnectionFactory refusedFactory = new MultiHostConnectionFactory(
+				MultiHostConnectionBean.builder().driverClassName("org.h2.Driver")
+					.jdbcUrlBean(newJdbcUrlBean(server.getPort())).user("sa").password("wrong")
+					.build()))
+		{
+			assertThrows(SQLException.class, refusedFactory::getConnection);
+			assertThrows(SQLException.class, refusedFactory::getConnection);
+			// a wrong password is no connection error, so the circuit stays closed
+			assertEquals(1, refusedFactory.getAvailableHosts().size());
+		}
+		finally
+		{
+			H2Launcher.stop(server);
+		}
+	}
+
+}
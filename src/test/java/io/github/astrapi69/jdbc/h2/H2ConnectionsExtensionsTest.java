@@ -24,20 +24,25 @@
  */
 package io.github.astrapi69.jdbc.h2;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 import org.h2.tools.Server;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.astrapi69.file.create.FileFactory;
 import io.github.astrapi69.file.delete.DeleteFileExtensions;
 import io.github.astrapi69.file.search.PathFinder;
 import io.github.astrapi69.jdbc.ConnectionsExtensions;
+import io.github.astrapi69.jdbc.CreationState;
 
 /**
  * The unit test class for the class {@link ConnectionsExtensions}.
@@ -81,4 +86,32 @@ public class H2ConnectionsExtensionsTest
 		DeleteFileExtensions.delete(databaseFile);
 	}
 
+	/**
+	 * Test method for
+	 * {@link H2ConnectionsExtensions#newDatabaseFromTemplate(String, String, String)}
+	 */
+	@Test
+	public void testNewDatabaseFromTemplate(final @TempDir File directory)
+		throws ClassNotFoundException, SQLException, IOException
+	{
+		final String path = directory.getAbsolutePath();
+		try (Connection connection = H2ConnectionsExtensions.getConnection(path, "golden");
+			Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("CREATE TABLE settings (id INT PRIMARY KEY)");
+			statement.executeUpdate("INSERT INTO settings VALUES (42)");
+		}
+		assertEquals(CreationState.CREATED,
+			H2ConnectionsExtensions.newDatabaseFromTemplate(path, "golden", "tenant"));
+		assertEquals(CreationState.ALREADY_EXISTS,
+			H2ConnectionsExtensions.newDatabaseFromTemplate(path, "golden", "tenant"));
+		try (Connection connection = H2ConnectionsExtensions.getConnection(path, "tenant");
+			Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT id FROM settings"))
+		{
+			resultSet.next();
+			assertEquals(42, resultSet.getInt(1));
+		}
+	}
+
 }
@@ -24,6 +24,8 @@
  */
 package io.github.astrapi69.jdbc.hsqldb;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
@@ -34,9 +36,11 @@ import java.sql.Statement;
 import java.util.logging.Level;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.astrapi69.file.delete.DeleteFileExtensions;
 import io.github.astrapi69.file.search.PathFinder;
+import io.github.astrapi69.jdbc.CreationState;
 import lombok.NonNull;
 import lombok.extern.java.Log;
 
@@ -86,6 +90,32 @@ class HyperSQLExtensionsTest
 		DeleteFileExtensions.delete(databaseDirectory);
 	}
 
+	@Test
+	void newFileDatabaseFromTemplate(final @TempDir File directory)
+		throws SQLException, ClassNotFoundException, IOException
+	{
+		String path = directory.getAbsolutePath() + "/";
+		try (Connection connection = HyperSQLExtensions.getFileConnection(path, "golden", "sa", "");
+			Statement statement = connection.createStatement())
+		{
+			statement.execute("CREATE TABLE settings (id INTEGER PRIMARY KEY)");
+			statement.execute("INSERT INTO settings VALUES (42)");
+			statement.execute("SHUTDOWN");
+		}
+		assertEquals(CreationState.CREATED,
+			HyperSQLExtensions.newFileDatabaseFromTemplate(path, "golden", "tenant"));
+		assertEquals(CreationState.ALREADY_EXISTS,
+			HyperSQLExtensions.newFileDatabaseFromTemplate(path, "golden", "tenant"));
+		try (Connection connection = HyperSQLExtensions.getFileConnection(path, "tenant", "sa", "");
+			Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT id FROM settings"))
+		{
+			resultSet.next();
+			assertEquals(42, resultSet.getInt(1));
+			statement.execute("SHUTDOWN");
+		}
+	}
+
 	@Test
 	void getMemoryConnection() throws SQLException, ClassNotFoundException
 	{
@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The unit test class for the class {@link InsertStatement}
+ */
+public class InsertStatementTest
+{
+
+	@Test
+	public void testParse()
+	{
+		InsertStatement actual;
+
+		actual = InsertStatement.parse(
+			"INSERT INTO person (id, name, salary, active) VALUES (1, 'O''Neil', -1.5e3, TRUE)",
+			false);
+		assertNotNull(actual);
+		assertEquals("INSERT INTO person (id, name, salary, active) VALUES 4", actual.getShape());
+		assertArrayEquals(new String[] { "1", "'O''Neil'", "-1.5e3", "TRUE" },
+			actual.getRows().get(0));
+		assertEquals("INSERT INTO person (id, name, salary, active) VALUES (?, ?, ?, ?)",
+			actual.toPreparedSql());
+
+		actual = InsertStatement.parse("insert into t values (1,NULL),( 2 , 'a,b)' )", false);
+		assertNotNull(actual);
+		assertEquals(2, actual.getRows().size());
+		assertArrayEquals(new String[] { "2", "'a,b)'" }, actual.getRows().get(1));
+
+		actual = InsertStatement.parse("INSERT INTO t VALUES ('it\\'s')", true);
+		assertNotNull(actual);
+		assertArrayEquals(new String[] { "'it\\'s'" }, actual.getRows().get(0));
+	}
+
+	@Test
+	public void testParseNotRewritable()
+	{
+		assertNull(InsertStatement.parse("UPDATE t SET id = 1", false));
+		assertNull(InsertStatement.parse("INSERT INTO t VALUES (now())", false));
+		assertNull(InsertStatement.parse("INSERT INTO t VALUES (1 + 2)", false));
+		assertNull(InsertStatement.parse("INSERT INTO t VALUES (1), (1, 2)", false));
+		assertNull(InsertStatement.parse("INSERT INTO t SELECT * FROM (VALUES (1)) v", false));
+		assertNull(InsertStatement.parse("INSERT INTO t VALUES (1) ON CONFLICT DO NOTHING", false));
+		assertNull(InsertStatement.parse("INSERT INTO t DEFAULT VALUES", false));
+		assertNull(InsertStatement.parse("INSERT INTO t VALUES (\"text\")", false));
+	}
+
+	@Test
+	public void testAppendRows()
+	{
+		final StringBuilder sb = new StringBuilder();
+		InsertStatement.parse("INSERT INTO t (a, b) VALUES (1, 'x')", false).appendRows(sb);
+		InsertStatement.parse("INSERT INTO t (a, b) VALUES (2, NULL), (3, 'y')", false)
+			.appendRows(sb);
+		assertEquals("INSERT INTO t (a, b) VALUES (1, 'x'), (2, NULL), (3, 'y')", sb.toString());
+	}
+
+	@Test
+	public void testBind() throws SQLException
+	{
+		final InsertStatement insertStatement = InsertStatement
+			.parse("INSERT INTO t (a, b, c, d) VALUES ('2024-01-31', NULL, 7, TRUE)", false);
+		final List<String> calls = new ArrayList<>();
+		final PreparedStatement preparedStatement = (PreparedStatement)Proxy.newProxyInstance(
+			getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class },
+			(proxy, method, args) -> {
+				calls.add(method.getName() + args[1] + (args.length == 3 ? args[2] : ""));
+				return null;
+			});
+
+		insertStatement.bind(preparedStatement, insertStatement.getRows().get(0));
+		assertEquals(List.of("setString2024-01-31", "setNull" + Types.VARCHAR, "setLong7",
+			"setBooleantrue"), calls);
+
+		calls.clear();
+		insertStatement.bind(preparedStatement, insertStatement.getRows().get(0), true);
+		assertEquals(List.of("setObject2024-01-31" + Types.OTHER, "setNull" + Types.OTHER,
+			"setLong7", "setBooleantrue"), calls);
+	}
+
+}
@@ -0,0 +1,131 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The unit test class for the class {@link MappedScriptReader}
+ */
+public class MappedScriptReaderTest
+{
+
+	private static final String CONTENT = "INSERT INTO a VALUES ('café', '€ 5', "
+		+ "'😀');\n-- über\nSELECT 'ßäö';\n";
+
+	private static String readFully(final Reader reader, final int chunkSize) throws IOException
+	{
+		final StringBuilder sb = new StringBuilder();
+		final char[] buffer = new char[chunkSize];
+		int count;
+		while ((count = reader.read(buffer, 0, buffer.length)) != -1)
+		{
+			sb.append(buffer, 0, count);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testRead(final @TempDir File directory) throws IOException
+	{
+		String actual;
+		final Path path = new File(directory, "script.sql").toPath();
+		Files.writeString(path, CONTENT);
+
+		try (Reader reader = new MappedScriptReader(path, StandardCharsets.UTF_8))
+		{
+			actual = readFully(reader, 8192);
+		}
+		assertEquals(CONTENT, actual);
+		// small windows split the multi byte characters between two windows
+		for (int windowSize = 16; windowSize < 24; windowSize++)
+		{
+			try (Reader reader = new MappedScriptReader(path, StandardCharsets.UTF_8, 0,
+				windowSize))
+			{
+				actual = readFully(reader, 3);
+			}
+			assertEquals(CONTENT, actual);
+			try (Reader reader = new MappedScriptReader(path, StandardCharsets.UTF_8, 0,
+				windowSize))
+			{
+				actual = readFully(reader, 1);
+			}
+			assertEquals(CONTENT, actual);
+		}
+	}
+
+	@Test
+	public void testReadFromByteOffset(final @TempDir File directory) throws IOException
+	{
+		String actual;
+		String expected;
+		final Path path = new File(directory, "script.sql").toPath();
+		Files.writeString(path, CONTENT);
+		final int index = CONTENT.indexOf("SELECT");
+		final long byteOffset = CONTENT.substring(0, index)
+			.getBytes(StandardCharsets.UTF_8).length;
+
+		try (Reader reader = new MappedScriptReader(path, StandardCharsets.UTF_8, byteOffset))
+		{
+			actual = readFully(reader, 8192);
+		}
+		expected = CONTENT.substring(index);
+		assertEquals(expected, actual);
+
+		try (SqlScriptTokenizer tokenizer = new SqlScriptTokenizer(
+			new MappedScriptReader(path, StandardCharsets.UTF_8)))
+		{
+			tokenizer.nextStatement();
+			assertEquals(CONTENT.substring(0, CONTENT.indexOf('\n') + 1)
+				.getBytes(StandardCharsets.UTF_8).length - 1, tokenizer.getByteOffset());
+		}
+	}
+
+	@Test
+	public void testReadMalformedInput(final @TempDir File directory) throws IOException
+	{
+		final Path path = new File(directory, "script.sql").toPath();
+		Files.write(path, new byte[] { 'a', (byte)0xC3, (byte)0x28, 'b' });
+
+		try (Reader reader = new MappedScriptReader(path, StandardCharsets.UTF_8))
+		{
+			assertThrows(CharacterCodingException.class, () -> readFully(reader, 8192));
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.astrapi69.jdbc.ConnectionsExtensions;
+import io.github.astrapi69.jdbc.h2.H2ConnectionsExtensions;
+
+/**
+ * The unit test class for the class {@link ScriptCache}
+ */
+public class ScriptCacheTest
+{
+
+	private static final String SCRIPT = "CREATE TABLE a (id int);\n"
+		+ "INSERT INTO a VALUES (1);\nDELIMITER //\nINSERT INTO a VALUES (2)//\n";
+
+	@Test
+	public void testParsedScriptTokenizer() throws IOException
+	{
+		ParsedScript parsedScript;
+		SqlScriptTokenizer expected;
+		SqlScriptTokenizer actual;
+
+		parsedScript = ParsedScript.parse(new SqlScriptTokenizer(new StringReader(SCRIPT)));
+		assertEquals(3, parsedScript.getStatementCount());
+		expected = new SqlScriptTokenizer(new StringReader(SCRIPT));
+		actual = parsedScript.newTokenizer();
+		String sqlStatement;
+		while ((sqlStatement = expected.nextStatement()) != null)
+		{
+			assertEquals(sqlStatement, actual.nextStatement());
+			assertEquals(expected.getCheckpoint(), actual.getCheckpoint());
+			assertEquals(expected.getByteOffset(), actual.getByteOffset());
+			assertEquals(expected.getDelimiter(), actual.getDelimiter());
+		}
+		assertNull(actual.nextStatement());
+
+		actual = parsedScript.newTokenizer();
+		actual.resumeFrom(ScriptCheckpoint.builder().statementIndex(2).build());
+		assertEquals("INSERT INTO a VALUES (2)", actual.nextStatement());
+		assertEquals("//", actual.getDelimiter());
+	}
+
+	@Test
+	public void testGet(@TempDir File directory)
+		throws IOException, SQLException, ClassNotFoundException
+	{
+		ParsedScript parsedScript;
+		ScriptCache scriptCache;
+		ScriptResult result;
+		final File scriptFile = new File(directory, "schema.sql");
+		final File otherScriptFile = new File(directory, "other.sql");
+		Files.write(scriptFile.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+		Files.write(otherScriptFile.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+
+		scriptCache = new ScriptCache(1);
+		final ScriptExecutionOptions options = ScriptExecutionOptions.builder()
+			.scriptCache(scriptCache).build();
+		Class.forName(H2ConnectionsExtensions.DRIVER_NAME);
+		for (int i = 0; i < 3; i++)
+		{
+			try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:cache" + i))
+			{
+				result = ConnectionsExtensions.executeSqlScript(scriptFile, connection, options);
+				assertEquals(3, result.getStatementCount());
+				assertEquals(2, result.getUpdateCount());
+			}
+		}
+		assertEquals(1, scriptCache.getMissCount());
+		assertEquals(2, scriptCache.getHitCount());
+
+		parsedScript = scriptCache.get(scriptFile, false);
+		assertSame(parsedScript, scriptCache.get(scriptFile, false));
+		// a changed file is read again
+		Files.write(scriptFile.toPath(),
+			"CREATE TABLE b (id int);".getBytes(StandardCharsets.UTF_8));
+		assertEquals(1, scriptCache.get(scriptFile, false).getStatementCount());
+		// the least recently used script is evicted
+		scriptCache.get(otherScriptFile, false);
+		assertEquals(1, scriptCache.size());
+		parsedScript = scriptCache.get(scriptFile, false);
+		assertNotSame(parsedScript, scriptCache.get(otherScriptFile, false));
+		assertEquals(5, scriptCache.getMissCount());
+	}
+
+	@Test
+	public void testGetEvictsByLength(@TempDir File directory) throws IOException
+	{
+		ScriptCache scriptCache;
+		final File scriptFile = new File(directory, "schema.sql");
+		final File otherScriptFile = new File(directory, "other.sql");
+		final File hugeScriptFile = new File(directory, "huge.sql");
+		Files.write(scriptFile.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+		Files.write(otherScriptFile.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+		Files.write(hugeScriptFile.toPath(), (SCRIPT + SCRIPT).getBytes(StandardCharsets.UTF_8));
+		final long length = ParsedScript
+			.parse(new SqlScriptTokenizer(new StringReader(SCRIPT))).getLength();
+
+		scriptCache = new ScriptCache(10, length + length / 2);
+		scriptCache.get(scriptFile, false);
+		assertEquals(1, scriptCache.size());
+		assertEquals(length, scriptCache.getLength());
+		// the least recently used script is evicted to stay within the maximum length
+		scriptCache.get(otherScriptFile, false);
+		assertEquals(1, scriptCache.size());
+		assertEquals(length, scriptCache.getLength());
+		scriptCache.get(otherScriptFile, false);
+		assertEquals(1, scriptCache.getHitCount());
+		// a script that is longer than the maximum length is not cached and evicts nothing
+		assertFalse(scriptCache.isCacheable(hugeScriptFile));
+		assertNotNull(scriptCache.get(hugeScriptFile, false));
+		assertEquals(1, scriptCache.size());
+		assertEquals(length, scriptCache.getLength());
+		scriptCache.get(otherScriptFile, false);
+		assertEquals(2, scriptCache.getHitCount());
+	}
+
+}
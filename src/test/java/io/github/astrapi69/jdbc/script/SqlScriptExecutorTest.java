@@ -0,0 +1,350 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.astrapi69.jdbc.ConnectionsExtensions;
+import io.github.astrapi69.jdbc.h2.H2ConnectionsExtensions;
+
+/**
+ * The unit test class for the class {@link SqlScriptExecutor}
+ */
+public class SqlScriptExecutorTest
+{
+
+	private static final String SCRIPT = "CREATE TABLE a (id int);\n"
+		+ "INSERT INTO a VALUES (1);\nINSERT INTO a VALUES (2);\nINSERT INTO a VALUES (3);\n"
+		+ "CREATE TABLE b (id int);\n"
+		+ "INSERT INTO b VALUES (1);\nUPDATE a SET id = id + 10;\n";
+
+	private static Connection newConnection(final String databaseName)
+		throws ClassNotFoundException, SQLException
+	{
+		Class.forName(H2ConnectionsExtensions.DRIVER_NAME);
+		return DriverManager.getConnection("jdbc:h2:mem:" + databaseName);
+	}
+
+	private static int count(final Connection connection, final String tableName)
+		throws SQLException
+	{
+		try (Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + tableName))
+		{
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+
+	@Test
+	public void testIsDataManipulation()
+	{
+		assertTrue(SqlScriptExecutor.isDataManipulation("INSERT INTO a VALUES (1)"));
+		assertTrue(SqlScriptExecutor.isDataManipulation("update a set id = 1"));
+		assertTrue(SqlScriptExecutor.isDataManipulation("DELETE\nFROM a"));
+		assertFalse(SqlScriptExecutor.isDataManipulation("CREATE TABLE a (id int)"));
+		assertFalse(SqlScriptExecutor.isDataManipulation("INSERTED"));
+		assertFalse(SqlScriptExecutor.isDataManipulation("SELECT 1"));
+	}
+
+	@Test
+	public void testExecuteWithBatchSize() throws SQLException, ClassNotFoundException
+	{
+		ScriptResult result;
+		try (Connection connection = newConnection("batch"))
+		{
+			result = ConnectionsExtensions.executeSqlScript(connection, SCRIPT,
+				ScriptExecutionOptions.builder().batchSize(2).build());
+			assertEquals(7, result.getStatementCount());
+			assertEquals(7, result.getUpdateCount());
+			// the first batch is flushed by the batch size, the second by the DDL statement and
+			// the last one at the end of the script
+			assertEquals(3, result.getBatchUpdateCounts().size());
+			assertArrayEquals(new int[] { 1, 1 }, result.getBatchUpdateCounts().get(0));
+			assertArrayEquals(new int[] { 1 }, result.getBatchUpdateCounts().get(1));
+			assertArrayEquals(new int[] { 1, 3 }, result.getBatchUpdateCounts().get(2));
+			assertEquals(3, count(connection, "a"));
+			assertEquals(1, count(connection, "b"));
+		}
+	}
+
+	@Test
+	public void testExecuteWithoutBatch() throws SQLException, ClassNotFoundException
+	{
+		ScriptResult result;
+		try (Connection connection = newConnection("nobatch"))
+		{
+			result = ConnectionsExtensions.executeSqlScript(connection, SCRIPT,
+				ScriptExecutionOptions.DEFAULT);
+			assertEquals(7, result.getStatementCount());
+			assertEquals(7, result.getUpdateCount());
+			assertTrue(result.getBatchUpdateCounts().isEmpty());
+		}
+	}
+
+	@Test
+	public void testExecuteWithChunkedCommit() throws SQLException, ClassNotFoundException
+	{
+		ScriptResult result;
+		try (Connection connection = newConnection("chunked"))
+		{
+			result = ConnectionsExtensions.executeSqlScript(connection, SCRIPT,
+				ScriptExecutionOptions.builder().batchSize(2).commitInterval(3).build());
+			assertEquals(7, result.getStatementCount());
+			assertEquals(3, result.getCommitCount());
+			assertTrue(connection.getAutoCommit());
+			assertEquals(3, count(connection, "a"));
+		}
+	}
+
+	@Test
+	public void testResumeFromCheckpoint(final @TempDir File directory)
+		throws SQLException, IOException, ClassNotFoundException
+	{
+		ScriptResult result;
+		ScriptCheckpoint checkpoint;
+		final File scriptFile = new File(directory, "resume.sql");
+		final File checkpointFile = new File(directory, "resume.checkpoint");
+		Files.writeString(scriptFile.toPath(), "CREATE TABLE c (id int, name varchar(20));\n"
+			+ "INSERT INTO c VALUES (1, 'caf\u00e9;');\n-- kommentar \u00fcber zeilen\n"
+			+ "INSERT INTO c VALUES (2, 'na\u00efve');\nINSERT INTO c VALUES (3, 'x');\n"
+			+ "INSERT INTO d VALUES (1);\nINSERT INTO c VALUES (4, 'y');\n",
+			StandardCharsets.UTF_8);
+		final ScriptExecutionOptions options = ScriptExecutionOptions.builder().commitInterval(2)
+			.checkpointFile(checkpointFile).build();
+		try (Connection connection = newConnection("resume"))
+		{
+			assertThrows(SQLException.class,
+				() -> ConnectionsExtensions.executeSqlScript(scriptFile, connection, options));
+			checkpoint = ScriptCheckpoint.read(checkpointFile);
+			assertNotNull(checkpoint);
+			assertEquals(4, checkpoint.getStatementIndex());
+			assertEquals(3, count(connection, "c"));
+
+			ConnectionsExtensions.executeSqlScript(connection, "CREATE TABLE d (id int)");
+			result = ConnectionsExtensions.executeSqlScript(scriptFile, connection, options);
+			assertEquals(4, result.getSkippedStatementCount());
+			assertEquals(2, result.getStatementCount());
+			assertEquals(4, count(connection, "c"));
+			assertEquals(1, count(connection, "d"));
+			assertFalse(checkpointFile.exists());
+		}
+	}
+
+	@Test
+	public void testResumeFromCheckpointOfChangedScript(final @TempDir File directory)
+		throws SQLException, IOException, ClassNotFoundException
+	{
+		ScriptCheckpoint checkpoint;
+		final File scriptFile = new File(directory, "changed.sql");
+		final File checkpointFile = new File(directory, "changed.checkpoint");
+		Files.writeString(scriptFile.toPath(),
+			"CREATE TABLE e (id int);\nINSERT INTO e VALUES (1);\nINSERT INTO f VALUES (1);\n",
+			StandardCharsets.UTF_8);
+		final ScriptExecutionOptions options = ScriptExecutionOptions.builder().commitInterval(1)
+			.checkpointFile(checkpointFile).build();
+		try (Connection connection = newConnection("changed"))
+		{
+			assertThrows(SQLException.class,
+				() -> ConnectionsExtensions.executeSqlScript(scriptFile, connection, options));
+			checkpoint = ScriptCheckpoint.read(checkpointFile);
+			assertNotNull(checkpoint);
+			assertEquals(2, checkpoint.getStatementIndex());
+			assertEquals(scriptFile.length(), checkpoint.getScriptLength());
+			assertEquals(scriptFile.lastModified(), checkpoint.getScriptLastModified());
+
+			Files.writeString(scriptFile.toPath(),
+				"CREATE TABLE f (id int);\nINSERT INTO f VALUES (1);\n", StandardCharsets.UTF_8);
+			assertThrows(IOException.class,
+				() -> ConnectionsExtensions.executeSqlScript(scriptFile, connection, options));
+			assertEquals(1, count(connection, "e"));
+			assertTrue(checkpointFile.exists());
+		}
+	}
+
+	@Test
+	public void testExecuteWithInsertCoalescing() throws SQLException, ClassNotFoundException
+	{
+		ScriptResult result;
+		final String script = "CREATE TABLE p (id int, name varchar(20), amount decimal(10, 2));\n"
+			+ "INSERT INTO p (id, name, amount) VALUES (1, 'a;b', 1.5);\n"
+			+ "INSERT INTO p (id, name, amount) VALUES (2, 'it''s', NULL);\n"
+			+ "INSERT INTO p (id, name, amount) VALUES (3, 'c', -2), (4, 'd', 4e1);\n"
+			+ "INSERT INTO p (id, name) VALUES (5, 'e');\n"
+			+ "INSERT INTO p (id, name, amount) VALUES (6, UPPER('f'), 1);\n"
+			+ "UPDATE p SET amount = 0 WHERE amount IS NULL;\n";
+		for (final InsertCoalescing coalescing : InsertCoalescing.values())
+		{
+			try (Connection connection = newConnection("coalescing" + coalescing.name()))
+			{
+				result = ConnectionsExtensions.executeSqlScript(connection, script,
+					ScriptExecutionOptions.builder().insertCoalescing(coalescing).build());
+				assertEquals(7, result.getStatementCount());
+				assertEquals(8, result.getUpdateCount());
+				assertEquals(coalescing == InsertCoalescing.NONE ? 0 : 3,
+					result.getCoalescedStatementCount());
+				assertEquals(6, count(connection, "p"));
+				try (Statement statement = connection.createStatement();
+					ResultSet resultSet = statement
+						.executeQuery("SELECT name, amount FROM p WHERE id = 2"))
+				{
+					resultSet.next();
+					assertEquals("it's", resultSet.getString(1));
+					assertEquals(0, resultSet.getBigDecimal(2).signum());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testExecuteWithPreparedBatchOfTypedColumns()
+		throws SQLException, ClassNotFoundException
+	{
+		final String script = "CREATE TABLE e (id uuid, born date, created timestamp, note int);\n"
+			+ "INSERT INTO e VALUES ('3f1c2e9a-0b6d-4c55-9a43-5b2f1e7d8c01', '2024-01-31', "
+			+ "'2024-01-31 12:30:00', NULL);\n"
+			+ "INSERT INTO e VALUES ('7a0d4b3e-2c1f-4e8a-b5d6-9c8e7f6a5b02', NULL, NULL, 1);\n";
+		try (Connection connection = newConnection("preparedBatchTypedColumns"))
+		{
+			final ScriptResult result = ConnectionsExtensions.executeSqlScript(connection, script,
+				ScriptExecutionOptions.builder().insertCoalescing(InsertCoalescing.PREPARED_BATCH)
+					.build());
+			assertEquals(2, result.getUpdateCount());
+			assertEquals(2, result.getCoalescedStatementCount());
+			try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(
+					"SELECT born, created FROM e WHERE id = '3f1c2e9a-0b6d-4c55-9a43-5b2f1e7d8c01'"))
+			{
+				resultSet.next();
+				assertEquals(Date.valueOf("2024-01-31"), resultSet.getDate(1));
+				assertEquals(Timestamp.valueOf("2024-01-31 12:30:00"),
+					resultSet.getTimestamp(2));
+			}
+			assertEquals(1, count(connection, "e WHERE born IS NULL"));
+		}
+	}
+
+	@Test
+	public void testExecuteCompressedScript(@TempDir File directory)
+		throws IOException, SQLException, ClassNotFoundException
+	{
+		ScriptResult result;
+		final File gzipFile = new File(directory, "script.sql.gz");
+		try (OutputStream outputStream = new GZIPOutputStream(
+			Files.newOutputStream(gzipFile.toPath())))
+		{
+			outputStream.write(SCRIPT.getBytes(StandardCharsets.UTF_8));
+		}
+		final File zipFile = new File(directory, "scripts.zip");
+		try (ZipOutputStream outputStream = new ZipOutputStream(
+			Files.newOutputStream(zipFile.toPath())))
+		{
+			outputStream.putNextEntry(new ZipEntry("1-schema.sql"));
+			outputStream.write("CREATE TABLE z (id int);".getBytes(StandardCharsets.UTF_8));
+			outputStream.putNextEntry(new ZipEntry("data/"));
+			outputStream.putNextEntry(new ZipEntry("data/2-data.sql"));
+			outputStream.write("INSERT INTO z VALUES (1);\nINSERT INTO z VALUES (2);"
+				.getBytes(StandardCharsets.UTF_8));
+			outputStream.putNextEntry(new ZipEntry("3-update.sql"));
+			outputStream.write("UPDATE z SET id = id * 2;".getBytes(StandardCharsets.UTF_8));
+		}
+		try (Connection connection = newConnection("compressed"))
+		{
+			result = ConnectionsExtensions.executeSqlScript(gzipFile, connection,
+				ScriptExecutionOptions.DEFAULT);
+			assertEquals(7, result.getStatementCount());
+			assertEquals(3, count(connection, "a"));
+
+			result = ConnectionsExtensions.executeSqlScript(zipFile, connection,
+				ScriptExecutionOptions.builder().batchSize(10).build());
+			assertEquals(4, result.getStatementCount());
+			assertEquals(4, result.getUpdateCount());
+			assertEquals(2, count(connection, "z"));
+		}
+	}
+
+	@Test
+	public void testExecuteWithInstrumentation() throws SQLException, ClassNotFoundException
+	{
+		ScriptResult result;
+		ScriptStatistics statistics;
+		try (Connection connection = newConnection("instrumentation"))
+		{
+			result = ConnectionsExtensions.executeSqlScript(connection, SCRIPT,
+				ScriptExecutionOptions.DEFAULT);
+			assertNull(result.getStatistics());
+
+			result = ConnectionsExtensions.executeSqlScript(connection,
+				SCRIPT.replace("TABLE a", "TABLE a2").replace("TABLE b", "TABLE b2")
+					.replace("INTO a", "INTO a2").replace("INTO b", "INTO b2")
+					.replace("UPDATE a", "UPDATE a2"),
+				ScriptExecutionOptions.builder().batchSize(10).instrumentation(true)
+					.slowStatementLimit(2).build());
+			statistics = result.getStatistics();
+			assertNotNull(statistics);
+			assertEquals(7, statistics.getStatementCount());
+			assertEquals(7, statistics.getUpdateCount());
+			// CREATE, batch of three inserts, CREATE, batch of insert and update
+			assertEquals(4, statistics.getExecutionCount());
+			assertTrue(statistics.getExecutionNanos() <= statistics.getElapsedNanos());
+			assertTrue(0 < statistics.getStatementsPerSecond());
+			assertEquals(2, statistics.getSlowestStatements().size());
+			assertTrue(statistics.getSlowestStatements().get(1).getElapsedNanos() <= statistics
+				.getSlowestStatements().get(0).getElapsedNanos());
+			long statementCount = 0;
+			for (final StatementTiming timing : statistics.getSlowestStatements())
+			{
+				statementCount += timing.getStatementCount();
+			}
+			assertTrue(2 <= statementCount);
+		}
+	}
+
+}
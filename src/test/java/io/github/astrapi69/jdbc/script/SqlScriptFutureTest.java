@@ -0,0 +1,126 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.astrapi69.jdbc.ConnectionsExtensions;
+import io.github.astrapi69.springconfig.DataSourceBean;
+
+/**
+ * The unit test class for the class {@link SqlScriptFuture}
+ */
+public class SqlScriptFutureTest
+{
+
+	private static DataSource newDataSource(final String databaseName)
+	{
+		return DataSourceBean.newDataSource(DataSourceBean.DEFAULT_H2_BUILDER.toBuilder()
+			.url("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1").build());
+	}
+
+	private static int count(final DataSource dataSource, final String tableName)
+		throws SQLException
+	{
+		try (Connection connection = dataSource.getConnection();
+			Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + tableName))
+		{
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+
+	@Test
+	public void testExecuteSqlScriptAsync(final @TempDir File directory)
+		throws IOException, SQLException, InterruptedException, ExecutionException, TimeoutException
+	{
+		ScriptResult result;
+		final DataSource dataSource = newDataSource("async");
+		final File scriptFile = new File(directory, "schema.sql");
+		Files.writeString(scriptFile.toPath(),
+			"CREATE TABLE a (id int);\nINSERT INTO a VALUES (1);\nINSERT INTO a VALUES (2);\n");
+
+		result = ConnectionsExtensions
+			.executeSqlScriptAsync(dataSource, scriptFile, ScriptExecutionOptions.DEFAULT)
+			.get(30, TimeUnit.SECONDS);
+		assertEquals(3, result.getStatementCount());
+		assertEquals(2, count(dataSource, "a"));
+
+		final SqlScriptFuture future = ConnectionsExtensions.executeSqlScriptAsync(dataSource,
+			"INSERT INTO missing VALUES (1);", ScriptExecutionOptions.DEFAULT,
+			SqlScriptFuture.getDefaultExecutor());
+		final ExecutionException exception = assertThrows(ExecutionException.class,
+			() -> future.get(30, TimeUnit.SECONDS));
+		assertTrue(exception.getCause() instanceof SQLException);
+	}
+
+	@Test
+	public void testCancel() throws SQLException, InterruptedException
+	{
+		final DataSource dataSource = newDataSource("cancel");
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			final SqlScriptFuture future = ConnectionsExtensions.executeSqlScriptAsync(dataSource,
+				"CREATE TABLE c (id int);\n"
+					+ "SELECT SUM(X) FROM SYSTEM_RANGE(1, 1000000000000);\n"
+					+ "INSERT INTO c VALUES (1);\n",
+				ScriptExecutionOptions.DEFAULT, executor);
+			Thread.sleep(500);
+			assertTrue(future.cancel(true));
+			assertThrows(CancellationException.class, future::join);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		// the running statement is cancelled, so the execution ends without the last statement
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals(0, count(dataSource, "c"));
+	}
+
+}
@@ -0,0 +1,169 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.astrapi69.springconfig.DataSourceBean;
+
+/**
+ * The unit test class for the class {@link SqlScriptSetRunner}
+ */
+public class SqlScriptSetRunnerTest
+{
+
+	private static ScriptSetEntry newEntry(final File directory, final String name,
+		final String script, final String... dependencies) throws IOException
+	{
+		final File file = new File(directory, name + ".sql");
+		Files.writeString(file.toPath(), script);
+		return ScriptSetEntry.builder().name(name).file(file).dependencies(List.of(dependencies))
+			.build();
+	}
+
+	private static DataSource newDataSource(final String databaseName)
+	{
+		return DataSourceBean.newDataSource(DataSourceBean.DEFAULT_H2_BUILDER.toBuilder()
+			.url("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1").build());
+	}
+
+	@Test
+	public void testRun(final @TempDir File directory)
+		throws IOException, SQLException, InterruptedException
+	{
+		Map<String, ScriptResult> results;
+		List<String> order;
+		final DataSource dataSource = newDataSource("scriptset");
+		final List<ScriptSetEntry> entries = List.of(
+			newEntry(directory, "fill", "INSERT INTO person SELECT id FROM country;", "person",
+				"country"),
+			newEntry(directory, "person", "CREATE TABLE person (id int);"),
+			newEntry(directory, "country",
+				"CREATE TABLE country (id int);INSERT INTO country VALUES (1);"
+					+ "INSERT INTO country VALUES (2);"),
+			newEntry(directory, "index", "CREATE INDEX idx_person ON person (id);", "person"));
+
+		results = new SqlScriptSetRunner(dataSource, 4).run(entries);
+		assertEquals(4, results.size());
+		assertEquals(2, results.get("country").getUpdateCount());
+		assertEquals(2, results.get("fill").getUpdateCount());
+		order = List.copyOf(results.keySet());
+		assertTrue(order.indexOf("person") < order.indexOf("fill"));
+		assertTrue(order.indexOf("country") < order.indexOf("fill"));
+		assertTrue(order.indexOf("person") < order.indexOf("index"));
+		try (Connection connection = dataSource.getConnection();
+			Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM person"))
+		{
+			resultSet.next();
+			assertEquals(2, resultSet.getInt(1));
+		}
+	}
+
+	@Test
+	public void testRunFailFast(final @TempDir File directory) throws IOException, SQLException
+	{
+		final DataSource dataSource = newDataSource("scriptsetfail");
+		final List<ScriptSetEntry> entries = List.of(
+			newEntry(directory, "broken", "INSERT INTO missing VALUES (1);"),
+			newEntry(directory, "next", "CREATE TABLE next (id int);", "broken"));
+
+		assertThrows(SQLException.class,
+			() -> new SqlScriptSetRunner(dataSource, 2).run(entries));
+		try (Connection connection = dataSource.getConnection();
+			ResultSet resultSet = connection.getMetaData().getTables(null, null, "NEXT", null))
+		{
+			assertFalse(resultSet.next());
+		}
+	}
+
+	@Test
+	public void testRunFailFastCancelsRunningScripts(final @TempDir File directory)
+		throws IOException
+	{
+		final DataSource dataSource = newDataSource("scriptsetcancel");
+		final List<ScriptSetEntry> entries = List.of(
+			newEntry(directory, "long",
+				"SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b;"),
+			newEntry(directory, "broken", "INSERT INTO missing VALUES (1);"));
+
+		final long start = System.nanoTime();
+		assertThrows(SQLException.class,
+			() -> new SqlScriptSetRunner(dataSource, 2).run(entries));
+		// the long running statement is cancelled instead of awaited
+		assertTrue(TimeUnit.NANOSECONDS.toSeconds(
+			System.nanoTime() - start) < SqlScriptSetRunner.TERMINATION_TIMEOUT_SECONDS);
+	}
+
+	@Test
+	public void testRunEntryWithoutDependencies(final @TempDir File directory)
+		throws IOException, SQLException, InterruptedException
+	{
+		Map<String, ScriptResult> results;
+		final ScriptSetEntry entry = new ScriptSetEntry();
+		entry.setName("single");
+		entry.setFile(new File(directory, "single.sql"));
+		Files.writeString(entry.getFile().toPath(), "CREATE TABLE single (id int);");
+
+		assertTrue(entry.getDependencies().isEmpty());
+		results = new SqlScriptSetRunner(newDataSource("scriptsetsingle"), 2)
+			.run(List.of(entry));
+		assertEquals(1, results.size());
+		assertEquals(1, results.get("single").getStatementCount());
+	}
+
+	@Test
+	public void testRunWithInvalidDependencies(final @TempDir File directory) throws IOException
+	{
+		final SqlScriptSetRunner runner = new SqlScriptSetRunner(newDataSource("scriptsetcycle"),
+			2);
+		final List<ScriptSetEntry> cycle = List.of(newEntry(directory, "a", "SELECT 1;", "b"),
+			newEntry(directory, "b", "SELECT 1;", "a"));
+		final List<ScriptSetEntry> unknown = List.of(newEntry(directory, "c", "SELECT 1;", "d"));
+
+		assertThrows(IllegalArgumentException.class, () -> runner.run(cycle));
+		assertThrows(IllegalArgumentException.class, () -> runner.run(unknown));
+	}
+
+}
@@ -0,0 +1,186 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.script;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The unit test class for the class {@link SqlScriptTokenizer}
+ */
+public class SqlScriptTokenizerTest
+{
+
+	private static List<String> tokenize(final String script, final boolean backslashEscapes)
+		throws IOException
+	{
+		final List<String> statements = new ArrayList<>();
+		try (SqlScriptTokenizer tokenizer = new SqlScriptTokenizer(new StringReader(script),
+			backslashEscapes))
+		{
+			String statement;
+			while ((statement = tokenizer.nextStatement()) != null)
+			{
+				statements.add(statement);
+			}
+		}
+		return statements;
+	}
+
+	private static void putEntry(final ZipOutputStream outputStream, final String name,
+		final String content) throws IOException
+	{
+		outputStream.putNextEntry(new ZipEntry(name));
+		outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testNextStatement() throws IOException
+	{
+		List<String> actual;
+		List<String> expected;
+
+		actual = tokenize("CREATE TABLE a (id int);\n\nINSERT INTO a VALUES (1);  \n", false);
+		expected = List.of("CREATE TABLE a (id int)", "INSERT INTO a VALUES (1)");
+		assertEquals(expected, actual);
+
+		actual = tokenize("INSERT INTO a VALUES (1)", false);
+		expected = List.of("INSERT INTO a VALUES (1)");
+		assertEquals(expected, actual);
+
+		actual = tokenize(";;  ; \n", false);
+		expected = List.of();
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testQuotedLiterals() throws IOException
+	{
+		List<String> actual;
+		List<String> expected;
+
+		actual = tokenize("INSERT INTO a VALUES ('x;y', 'it''s');SELECT \"a;b\", `c;d` FROM a;",
+			false);
+		expected = List.of("INSERT INTO a VALUES ('x;y', 'it''s')",
+			"SELECT \"a;b\", `c;d` FROM a");
+		assertEquals(expected, actual);
+
+		actual = tokenize("INSERT INTO a VALUES ('O\\'Brien; Jr');SELECT 1;", true);
+		expected = List.of("INSERT INTO a VALUES ('O\\'Brien; Jr')", "SELECT 1");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testComments() throws IOException
+	{
+		List<String> actual;
+		List<String> expected;
+
+		actual = tokenize("-- header; with semicolon\nSELECT 1 -- trailing;\n;"
+			+ "/* block; comment */SELECT 2;SELECT 3 - 1;", false);
+		expected = List.of("SELECT 1", "SELECT 2", "SELECT 3 - 1");
+		assertEquals(expected, actual);
+
+		actual = tokenize("/*!40101 SET NAMES utf8 */;SELECT /*+ INDEX(a) */ id FROM a;", false);
+		expected = List.of("/*!40101 SET NAMES utf8 */", "SELECT /*+ INDEX(a) */ id FROM a");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDollarQuoting() throws IOException
+	{
+		List<String> actual;
+		List<String> expected;
+		String function;
+
+		function = "CREATE FUNCTION f() RETURNS int AS $body$ BEGIN RETURN 1; END; $body$"
+			+ " LANGUAGE plpgsql";
+		actual = tokenize(function + ";\nDO $$ BEGIN PERFORM 1; END $$;SELECT $1, a$b$c FROM t;",
+			false);
+		expected = List.of(function, "DO $$ BEGIN PERFORM 1; END $$", "SELECT $1, a$b$c FROM t");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDelimiterCommand() throws IOException
+	{
+		List<String> actual;
+		List<String> expected;
+
+		actual = tokenize("DELIMITER //\nCREATE PROCEDURE p() BEGIN SELECT 1; SELECT 2; END//\n"
+			+ "delimiter ;\nCALL p();", false);
+		expected = List.of("CREATE PROCEDURE p() BEGIN SELECT 1; SELECT 2; END", "CALL p()");
+		assertEquals(expected, actual);
+
+		actual = tokenize("DELIMITER $$\nCREATE TRIGGER t BEFORE INSERT ON a FOR EACH ROW BEGIN"
+			+ " SET NEW.id = 1; END $$\nDELIMITER ;\nSELECT 1;", false);
+		expected = List.of(
+			"CREATE TRIGGER t BEFORE INSERT ON a FOR EACH ROW BEGIN SET NEW.id = 1; END",
+			"SELECT 1");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testZipEntries() throws IOException
+	{
+		final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream outputStream = new ZipOutputStream(archive))
+		{
+			putEntry(outputStream, "1-schema.sql", "CREATE TABLE a (id int)");
+			putEntry(outputStream, "__MACOSX/._1-schema.sql", "\u0000\u0005binary");
+			putEntry(outputStream, "2-routine.sql", "DELIMITER //\n"
+				+ "CREATE PROCEDURE p() BEGIN SELECT 1; END//\nINSERT INTO a VALUES (1)");
+			putEntry(outputStream, "._2-routine.sql", "metadata");
+			putEntry(outputStream, "3-data.sql", "INSERT INTO a VALUES ('it''s');\n-- comment");
+			putEntry(outputStream, "4-data.sql", "INSERT INTO a VALUES (2);");
+		}
+		final List<String> actual = new ArrayList<>();
+		try (SqlScriptTokenizer tokenizer = SqlScriptTokenizer.of(
+			new ByteArrayInputStream(archive.toByteArray()), ScriptExecutionOptions.DEFAULT))
+		{
+			String statement;
+			while ((statement = tokenizer.nextStatement()) != null)
+			{
+				actual.add(statement);
+			}
+		}
+		final List<String> expected = List.of("CREATE TABLE a (id int)",
+			"CREATE PROCEDURE p() BEGIN SELECT 1; END", "INSERT INTO a VALUES (1)",
+			"INSERT INTO a VALUES ('it''s')", "INSERT INTO a VALUES (2)");
+		assertEquals(expected, actual);
+	}
+
+}
@@ -25,11 +25,14 @@
 package io.github.astrapi69.jdbc.sqlite;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -38,12 +41,14 @@ import java.sql.Statement;
 import java.util.logging.Level;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.astrapi69.file.create.FileFactory;
 import io.github.astrapi69.file.delete.DeleteFileExtensions;
 import io.github.astrapi69.file.search.PathFinder;
 import io.github.astrapi69.jdbc.ConnectionsExtensions;
 import io.github.astrapi69.jdbc.CreationState;
+import io.github.astrapi69.jdbc.DriverRegistry;
 import lombok.extern.java.Log;
 
 @Log
@@ -89,6 +94,111 @@ public class SqliteExtensionsTest
 	}
 
 
+	@Test
+	void newFileDatabaseFromTemplate(final @TempDir File directory)
+		throws SQLException, ClassNotFoundException, IOException
+	{
+		String path = directory.getAbsolutePath();
+		try (Connection connection = SqliteExtensions.getFileConnection(path, "golden.db"))
+		{
+			ConnectionsExtensions.executeSqlScript(connection, createTableStatement(), true);
+			insert(connection, "Superman", 3000);
+		}
+		assertEquals(CreationState.CREATED,
+			SqliteExtensions.newFileDatabaseFromTemplate(path, "golden.db", "tenant.db"));
+		assertEquals(CreationState.ALREADY_EXISTS,
+			SqliteExtensions.newFileDatabaseFromTemplate(path, "golden.db", "tenant.db"));
+		try (Connection connection = SqliteExtensions.getFileConnection(path, "tenant.db");
+			Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT name FROM " + tableName))
+		{
+			resultSet.next();
+			assertEquals("Superman", resultSet.getString("name"));
+		}
+	}
+
+	@Test
+	void getFileConnectionWithProfile(final @TempDir File directory)
+		throws SQLException, ClassNotFoundException
+	{
+		String path = directory.getAbsolutePath();
+		try (
+			Connection connection = SqliteExtensions.getFileConnection(path, "balanced.db",
+				SqlitePerformanceProfile.BALANCED);
+			Statement statement = connection.createStatement())
+		{
+			assertEquals("wal", queryPragma(statement, "journal_mode"));
+			// 1 is NORMAL
+			assertEquals("1", queryPragma(statement, "synchronous"));
+			assertEquals("-65536", queryPragma(statement, "cache_size"));
+			assertEquals("268435456", queryPragma(statement, "mmap_size"));
+			// 2 is MEMORY
+			assertEquals("2", queryPragma(statement, "temp_store"));
+			assertEquals("5000", queryPragma(statement, "busy_timeout"));
+		}
+		try (
+			Connection connection = SqliteExtensions.getFileConnection(path, "bulk.db",
+				SqlitePerformanceProfile.BULK_LOAD);
+			Statement statement = connection.createStatement())
+		{
+			assertEquals("memory", queryPragma(statement, "journal_mode"));
+			assertEquals("0", queryPragma(statement, "synchronous"));
+		}
+	}
+
+	private static String queryPragma(Statement statement, String pragma) throws SQLException
+	{
+		try (ResultSet resultSet = statement.executeQuery("PRAGMA " + pragma))
+		{
+			resultSet.next();
+			return resultSet.getString(1);
+		}
+	}
+
+	@Test
+	void snapshotAndRestore(final @TempDir File directory)
+		throws SQLException, ClassNotFoundException, IOException
+	{
+		File snapshotFile = new File(directory, "snapshot.db");
+		try (Connection connection = DriverRegistry.getConnection(SqliteExtensions.DRIVER_NAME,
+			SqliteExtensions.URL_PREFIX + ":memory:"))
+		{
+			ConnectionsExtensions.executeSqlScript(connection, createTableStatement(), true);
+			try (Statement statement = connection.createStatement())
+			{
+				statement.executeUpdate(
+					"INSERT INTO " + tableName + " (name, balance) VALUES ('Superman', 3000)");
+			}
+			SqliteExtensions.snapshot(connection, snapshotFile);
+			try (Statement statement = connection.createStatement())
+			{
+				statement.executeUpdate("DELETE FROM " + tableName);
+			}
+			SqliteExtensions.restore(connection, snapshotFile);
+			assertEquals(1, countRows(connection));
+		}
+		try (Connection connection = SqliteExtensions.getSharedMemoryConnection("restored",
+			snapshotFile))
+		{
+			assertEquals(1, countRows(connection));
+		}
+		assertEquals(1, directory.list().length);
+		assertThrows(NoSuchFileException.class, () -> SqliteExtensions
+			.getSharedMemoryConnection("missing", new File(directory, "missing.db")));
+		assertFalse(new File(":memory:restored").exists());
+		assertFalse(new File("restored").exists());
+	}
+
+	private int countRows(Connection connection) throws SQLException
+	{
+		try (Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + tableName))
+		{
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+
 	@Test
 	void getMemoryConnection() throws SQLException, ClassNotFoundException, IOException
 	{
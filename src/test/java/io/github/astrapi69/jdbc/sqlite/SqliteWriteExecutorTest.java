@@ -0,0 +1,215 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.jdbc.sqlite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The unit test class for the class {@link SqliteWriteExecutor}
+ */
+public class SqliteWriteExecutorTest
+{
+
+	private static final SqliteConnectionTask<Integer> CREATE_TABLE = connection -> {
+		try (Statement statement = connection.createStatement())
+		{
+			return statement.executeUpdate(
+				"CREATE TABLE accounts (id INTEGER PRIMARY KEY, name TEXT NOT NULL)");
+		}
+	};
+
+	private static SqliteConnectionTask<Integer> insert(final int id)
+	{
+		return connection -> {
+			try (PreparedStatement statement = connection
+				.prepareStatement("INSERT INTO accounts (id, name) VALUES (?, ?)"))
+			{
+				statement.setInt(1, id);
+				statement.setString(2, "account-" + id);
+				return statement.executeUpdate();
+			}
+		};
+	}
+
+	private static int count(final SqliteWriteExecutor executor)
+		throws SQLException, InterruptedException
+	{
+		return executor.read(connection -> {
+			try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM accounts"))
+			{
+				resultSet.next();
+				return resultSet.getInt(1);
+			}
+		});
+	}
+
+	/**
+	 * Test method for {@link SqliteWriteExecutor#submit(SqliteConnectionTask)} with concurrent
+	 * writers
+	 */
+	@Test
+	public void testSubmit(final @TempDir File directory) throws Exception
+	{
+		try (SqliteWriteExecutor executor = new SqliteWriteExecutor(directory.getAbsolutePath(),
+			"accounts.db", SqliteWriteExecutorBean.builder().maxLatencyMillis(5).readerCount(2)
+				.build()))
+		{
+			executor.submit(CREATE_TABLE).get(10, TimeUnit.SECONDS);
+			final ExecutorService threads = Executors.newFixedThreadPool(8);
+			final List<Future<Integer>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++)
+			{
+				final int offset = thread * 200;
+				futures.add(threads.submit(() -> {
+					final List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+					for (int i = 0; i < 200; i++)
+					{
+						inserts.add(executor.submit(insert(offset + i)));
+					}
+					int updateCount = 0;
+					for (final CompletableFuture<Integer> insert : inserts)
+					{
+						updateCount += insert.get(10, TimeUnit.SECONDS);
+					}
+					// the read runs in parallel to the writer
+					assertTrue(200 <= count(executor));
+					return updateCount;
+				}));
+			}
+			int updateCount = 0;
+			for (final Future<Integer> future : futures)
+			{
+				updateCount += future.get(30, TimeUnit.SECONDS);
+			}
+			threads.shutdown();
+
+			assertEquals(1600, updateCount);
+			assertEquals(1600, count(executor));
+			assertEquals(1601, executor.getTaskCount());
+			assertTrue(executor.getCommitCount() < executor.getTaskCount());
+		}
+	}
+
+	/**
+	 * Test method for {@link SqliteWriteExecutor#submit(SqliteConnectionTask)} with a failed task
+	 * in a transaction
+	 */
+	@Test
+	public void testSubmitWithFailedTask(final @TempDir File directory) throws Exception
+	{
+		try (SqliteWriteExecutor executor = new SqliteWriteExecutor(directory.getAbsolutePath(),
+			"accounts.db", SqliteWriteExecutorBean.builder().maxLatencyMillis(200).build()))
+		{
+			executor.submit(CREATE_TABLE).get(10, TimeUnit.SECONDS);
+			final CompletableFuture<Integer> first = executor.submit(insert(1));
+			final CompletableFuture<Integer> duplicate = executor.submit(insert(1));
+			final CompletableFuture<Integer> second = executor.submit(insert(2));
+
+			assertEquals(1, first.get(10, TimeUnit.SECONDS));
+			assertEquals(1, second.get(10, TimeUnit.SECONDS));
+			final ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> duplicate.get(10, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof SQLException);
+			assertEquals(2, count(executor));
+			assertEquals(2, executor.getCommitCount());
+		}
+	}
+
+	/**
+	 * Test method for {@link SqliteWriteExecutor#submit(SqliteConnectionTask)} with a task that
+	 * throws an error
+	 */
+	@Test
+	public void testSubmitWithError(final @TempDir File directory) throws Exception
+	{
+		try (SqliteWriteExecutor executor = new SqliteWriteExecutor(directory.getAbsolutePath(),
+			"accounts.db", SqliteWriteExecutorBean.builder().maxLatencyMillis(200).build()))
+		{
+			executor.submit(CREATE_TABLE).get(10, TimeUnit.SECONDS);
+			final CompletableFuture<Integer> failed = executor.submit(connection -> {
+				insert(1).execute(connection);
+				throw new AssertionError("the task is broken");
+			});
+			final CompletableFuture<Integer> second = executor.submit(insert(2));
+
+			final ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> failed.get(10, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof AssertionError);
+			assertEquals(1, second.get(10, TimeUnit.SECONDS));
+			// the writer thread survives the error and the failed task is rolled back
+			assertEquals(1, executor.submit(insert(3)).get(10, TimeUnit.SECONDS));
+			assertEquals(2, count(executor));
+		}
+	}
+
+	/**
+	 * Test method for {@link SqliteWriteExecutor#read(SqliteConnectionTask)} and
+	 * {@link SqliteWriteExecutor#close()}
+	 */
+	@Test
+	public void testReadAndClose(final @TempDir File directory) throws Exception
+	{
+		final SqliteWriteExecutor executor = new SqliteWriteExecutor(directory.getAbsolutePath(),
+			"accounts.db");
+		executor.submit(CREATE_TABLE).get(10, TimeUnit.SECONDS);
+		assertEquals("wal", executor.read(connection -> {
+			try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode"))
+			{
+				resultSet.next();
+				return resultSet.getString(1);
+			}
+		}));
+		assertThrows(SQLException.class, () -> executor.read(insert(1)));
+
+		final CompletableFuture<Integer> queued = executor.submit(insert(1));
+		executor.close();
+		assertEquals(1, queued.getNow(0));
+		assertThrows(RejectedExecutionException.class, () -> executor.submit(insert(2)));
+		assertThrows(RejectedExecutionException.class, () -> count(executor));
+	}
+
+}
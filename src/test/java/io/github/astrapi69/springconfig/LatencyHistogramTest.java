@@ -0,0 +1,64 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The unit test class for the class {@link LatencyHistogram}
+ */
+public class LatencyHistogramTest
+{
+
+	@Test
+	public void testRecord()
+	{
+		final LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		for (int i = 1; i <= 1000; i++)
+		{
+			histogram.record(i * 1000L);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000000, histogram.getMaxNanos());
+		assertEquals(1000000, histogram.getValueAtPercentile(100));
+		final long median = histogram.getValueAtPercentile(50);
+		assertTrue(500000 <= median && median <= 500000 * 1.04, String.valueOf(median));
+		final long p99 = histogram.getValueAtPercentile(99);
+		assertTrue(990000 <= p99 && p99 <= 1000000, String.valueOf(p99));
+		final LatencyStatistics statistics = histogram.getStatistics();
+		assertEquals(1000, statistics.getCount());
+		assertEquals(500500.0, statistics.getMeanNanos());
+		assertEquals(median, statistics.getMedianNanos());
+		histogram.record(-1);
+		histogram.record(7);
+		assertEquals(0, histogram.getValueAtPercentile(0));
+		assertEquals(7, histogram.getValueAtPercentile(0.1));
+	}
+
+}
@@ -0,0 +1,500 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.astrapi69.jdbc.DriverRegistry;
+
+/**
+ * The unit test class for the class {@link PooledDataSource}
+ */
+public class PooledDataSourceTest
+{
+
+	static DataSourceBean newDataSourceBean(final String databaseName,
+		final ConnectionPoolBean connectionPool)
+	{
+		return DataSourceBean.DEFAULT_H2_BUILDER.toBuilder()
+			.url("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1")
+			.connectionPool(connectionPool).build();
+	}
+
+	static void await(final BooleanSupplier condition) throws InterruptedException
+	{
+		final long deadline = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(10);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+
+	static Connection newFakeConnection()
+	{
+		return (Connection)Proxy.newProxyInstance(PooledDataSourceTest.class.getClassLoader(),
+			new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+				switch (method.getName())
+				{
+					case "isReadOnly" :
+						return false;
+					case "getTransactionIsolation" :
+					case "getNetworkTimeout" :
+						return 0;
+					default :
+						return null;
+				}
+			});
+	}
+
+	@Test
+	public void testGetConnection() throws SQLException
+	{
+		Connection physicalConnection;
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("pool", ConnectionPoolBean.builder().build())))
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				physicalConnection = connection.unwrap(Connection.class);
+				assertEquals(1, dataSource.getActiveCount());
+				assertEquals(0, dataSource.getIdleCount());
+			}
+			assertEquals(0, dataSource.getActiveCount());
+			assertEquals(1, dataSource.getIdleCount());
+			final Connection connection = dataSource.getConnection();
+			assertSame(physicalConnection, connection.unwrap(Connection.class));
+			connection.close();
+			assertTrue(connection.isClosed());
+			assertThrows(SQLException.class, connection::createStatement);
+			assertEquals(1, dataSource.getTotalCount());
+		}
+	}
+
+	@Test
+	public void testRollbackOnReturn() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("rollback", ConnectionPoolBean.builder().maxPoolSize(1).build())))
+		{
+			try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement())
+			{
+				statement.execute("CREATE TABLE a (id int)");
+				connection.setAutoCommit(false);
+				statement.execute("INSERT INTO a VALUES (1)");
+			}
+			try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM a"))
+			{
+				assertTrue(connection.getAutoCommit());
+				resultSet.next();
+				assertEquals(0, resultSet.getInt(1));
+			}
+		}
+	}
+
+	@Test
+	public void testCloseStatementsOnReturn() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean
+			.newDataSource(newDataSourceBean("closestatements",
+				ConnectionPoolBean.builder().maxPoolSize(1).statementCacheSize(2).build())))
+		{
+			final Statement statement;
+			final CallableStatement callableStatement;
+			final PreparedStatement physicalStatement;
+			try (Connection connection = dataSource.getConnection())
+			{
+				statement = connection.createStatement();
+				callableStatement = connection.prepareCall("CALL 1");
+				physicalStatement = connection.prepareStatement("SELECT 1")
+					.unwrap(PreparedStatement.class);
+			}
+			assertTrue(statement.isClosed());
+			assertTrue(callableStatement.isClosed());
+			// the cached statement that was left open is put back into the statement cache
+			try (Connection connection = dataSource.getConnection();
+				PreparedStatement preparedStatement = connection.prepareStatement("SELECT 1"))
+			{
+				assertSame(physicalStatement, preparedStatement.unwrap(PreparedStatement.class));
+			}
+		}
+	}
+
+	@Test
+	public void testRestoreDefaultsWithoutCatalog() throws SQLException
+	{
+		final PooledConnection pooledConnection = new PooledConnection(newFakeConnection(), null);
+		pooledConnection.markDirty("setCatalog");
+		// a catalog that can not be restored makes the connection not reusable
+		assertThrows(SQLException.class, pooledConnection::restoreDefaults);
+	}
+
+	@Test
+	public void testRestoreDefaultsOnReturn() throws SQLException
+	{
+		boolean defaultReadOnly;
+		int defaultTransactionIsolation;
+		String defaultSchema;
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("restore", ConnectionPoolBean.builder().maxPoolSize(1).build())))
+		{
+			try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement())
+			{
+				defaultReadOnly = connection.isReadOnly();
+				defaultTransactionIsolation = connection.getTransactionIsolation();
+				defaultSchema = connection.getSchema();
+				statement.execute("CREATE SCHEMA other");
+				connection.setReadOnly(!defaultReadOnly);
+				connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+				connection.setSchema("OTHER");
+			}
+			try (Connection connection = dataSource.getConnection())
+			{
+				assertEquals(1, dataSource.getTotalCount());
+				assertEquals(defaultReadOnly, connection.isReadOnly());
+				assertEquals(defaultTransactionIsolation, connection.getTransactionIsolation());
+				assertEquals(defaultSchema, connection.getSchema());
+			}
+		}
+	}
+
+	@Test
+	public void testConnectionTimeout() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("timeout", ConnectionPoolBean.builder().maxPoolSize(1)
+				.connectionTimeoutMillis(100).testOnBorrow(true).validationQuery("SELECT 1")
+				.build())))
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+				assertFalse(connection.isClosed());
+			}
+			try (Connection connection = dataSource.getConnection())
+			{
+				assertFalse(connection.isClosed());
+			}
+		}
+	}
+
+	@Test
+	public void testHousekeeping() throws SQLException, InterruptedException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("housekeeping", ConnectionPoolBean.builder().poolName("housekeeping")
+				.minIdle(2).maxPoolSize(4).idleTimeoutMillis(100).build())))
+		{
+			assertTrue(Thread.getAllStackTraces().keySet().stream()
+				.anyMatch(thread -> thread.getName().equals("housekeeping-housekeeper")));
+			await(() -> dataSource.getIdleCount() == 2);
+			final Connection first = dataSource.getConnection();
+			final Connection second = dataSource.getConnection();
+			final Connection third = dataSource.getConnection();
+			// the housekeeping may open one more connection to keep the minimum of idle connections
+			assertTrue(3 <= dataSource.getTotalCount());
+			first.close();
+			second.close();
+			third.close();
+			// the idle connections above the minimum are closed after the idle timeout
+			await(() -> dataSource.getTotalCount() == 2);
+			assertEquals(2, dataSource.getIdleCount());
+		}
+	}
+
+	@Test
+	public void testLockFreeMode() throws SQLException, InterruptedException, ExecutionException
+	{
+		final int taskCount = 2000;
+		final List<Future<Integer>> futures = new ArrayList<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(64);
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("lockfree", ConnectionPoolBean.builder().maxPoolSize(4)
+				.poolMode(PoolMode.LOCK_FREE).build())))
+		{
+			for (int i = 0; i < taskCount; i++)
+			{
+				final int value = i;
+				futures.add(executor.submit(() -> {
+					try (Connection connection = dataSource.getConnection();
+						Statement statement = connection.createStatement();
+						ResultSet resultSet = statement.executeQuery("SELECT " + value))
+					{
+						assertTrue(dataSource.getTotalCount() <= 4);
+						resultSet.next();
+						return resultSet.getInt(1);
+					}
+				}));
+			}
+			for (int i = 0; i < taskCount; i++)
+			{
+				assertEquals(i, futures.get(i).get());
+			}
+			assertEquals(0, dataSource.getActiveCount());
+			assertEquals(dataSource.getTotalCount(), dataSource.getIdleCount());
+			assertTrue(dataSource.getTotalCount() <= 4);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLockFreeModeTimeout() throws SQLException, InterruptedException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("lockfreetimeout", ConnectionPoolBean.builder().maxPoolSize(1)
+				.connectionTimeoutMillis(1000).poolMode(PoolMode.LOCK_FREE).build())))
+		{
+			final AtomicBoolean borrowed = new AtomicBoolean();
+			final Connection connection = dataSource.getConnection();
+			assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+			final Thread waiting = new Thread(() -> {
+				try (Connection other = dataSource.getConnection())
+				{
+					borrowed.set(!other.isClosed());
+				}
+				catch (final SQLException e)
+				{
+					borrowed.set(false);
+				}
+			});
+			waiting.start();
+			await(() -> dataSource.getPendingCount() == 1);
+			connection.close();
+			waiting.join(10000);
+			assertFalse(waiting.isAlive());
+			assertTrue(borrowed.get());
+			assertEquals(1, dataSource.getIdleCount());
+		}
+	}
+
+	@Test
+	public void testStripedMode() throws SQLException, InterruptedException, ExecutionException
+	{
+		final int taskCount = 2000;
+		final List<Future<Integer>> futures = new ArrayList<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(64);
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("striped", ConnectionPoolBean.builder().maxPoolSize(4).stripeCount(3)
+				.poolMode(PoolMode.STRIPED).build())))
+		{
+			for (int i = 0; i < taskCount; i++)
+			{
+				final int value = i;
+				futures.add(executor.submit(() -> {
+					try (Connection connection = dataSource.getConnection();
+						Statement statement = connection.createStatement();
+						ResultSet resultSet = statement.executeQuery("SELECT " + value))
+					{
+						assertTrue(dataSource.getTotalCount() <= 4);
+						resultSet.next();
+						return resultSet.getInt(1);
+					}
+				}));
+			}
+			for (int i = 0; i < taskCount; i++)
+			{
+				assertEquals(i, futures.get(i).get());
+			}
+			assertEquals(0, dataSource.getActiveCount());
+			assertEquals(dataSource.getTotalCount(), dataSource.getIdleCount());
+			assertTrue(dataSource.getTotalCount() <= 4);
+			// a single thread steals the idle connections of all stripes
+			final List<Connection> connections = new ArrayList<>();
+			for (int i = 0; i < 4; i++)
+			{
+				connections.add(dataSource.getConnection());
+			}
+			assertEquals(4, dataSource.getActiveCount());
+			for (final Connection connection : connections)
+			{
+				connection.close();
+			}
+			assertEquals(4, dataSource.getIdleCount());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testStripedModeIdleConnections() throws SQLException
+	{
+		final StripedConnectionBag connectionBag = new StripedConnectionBag(5, 3);
+		final long[] returnedNanos = { 40, 10, 50, 30, 20 };
+		final List<PooledConnection> expected = new ArrayList<>();
+		for (final long nanos : returnedNanos)
+		{
+			final PooledConnection pooledConnection = new PooledConnection(newFakeConnection(),
+				null);
+			pooledConnection.returnedNanos = nanos;
+			assertTrue(connectionBag.reserveIdle());
+			assertTrue(connectionBag.addIdle(pooledConnection));
+			expected.add(pooledConnection);
+		}
+		expected.sort((left, right) -> Long.compare(left.returnedNanos, right.returnedNanos));
+		// the least recently returned connection of all stripes comes first
+		assertEquals(expected, connectionBag.getIdleConnections());
+		assertEquals(5, connectionBag.getIdleCount());
+		assertTrue(connectionBag.removeIdle(expected.get(0)));
+		assertFalse(connectionBag.removeIdle(expected.get(0)));
+		assertEquals(expected.subList(1, 5), connectionBag.getIdleConnections());
+		assertEquals(4, connectionBag.close().size());
+		assertEquals(0, connectionBag.getTotalCount());
+	}
+
+	@Test
+	public void testWarmUp() throws SQLException, ClassNotFoundException, InterruptedException,
+		ExecutionException, TimeoutException
+	{
+		final String url = "jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1";
+		try (Connection connection = DriverRegistry.getConnection("org.h2.Driver", url, "sa", "");
+			Statement statement = connection.createStatement())
+		{
+			statement.execute("CREATE TABLE warm (id int)");
+		}
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("warmup",
+				ConnectionPoolBean.builder().minIdle(4).warmUpParallelism(2).validateOnWarmUp(true)
+					.warmUpStatements(Arrays.asList("INSERT INTO warm VALUES (1)", "SELECT 1"))
+					.build())))
+		{
+			assertSame(dataSource, dataSource.getReadiness().get(10, TimeUnit.SECONDS));
+			assertEquals(4, dataSource.getIdleCount());
+			assertEquals(4, dataSource.getTotalCount());
+			try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM warm"))
+			{
+				resultSet.next();
+				assertEquals(4, resultSet.getInt(1));
+			}
+		}
+	}
+
+	@Test
+	public void testWarmUpFailure() throws InterruptedException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("warmupfailure", ConnectionPoolBean.builder().minIdle(2)
+				.warmUpStatements(Arrays.asList("SELECT * FROM missing")).build())))
+		{
+			final ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> dataSource.getReadiness().get(10, TimeUnit.SECONDS));
+			assertTrue(exception.getCause() instanceof SQLException);
+			// the housekeeping fills the pool without warm up
+			await(() -> dataSource.getIdleCount() == 2);
+		}
+	}
+
+	@Test
+	public void testMetrics() throws SQLException, JMException
+	{
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = new ObjectName(
+			"io.github.astrapi69.springconfig:type=PooledDataSource,name=\"metrics\"");
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean
+			.newDataSource(newDataSourceBean("metrics", ConnectionPoolBean.builder()
+				.poolName("metrics").registerMBean(true).build())))
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				assertEquals(1, server.getAttribute(objectName, "ActiveCount"));
+				assertFalse(connection.isClosed());
+			}
+			dataSource.getConnection().close();
+			assertEquals(2, dataSource.getAcquireHistogram().getCount());
+			assertEquals(2, dataSource.getUsageHistogram().getCount());
+			assertEquals(1, dataSource.getCreationHistogram().getCount());
+			assertEquals(0, server.getAttribute(objectName, "ActiveCount"));
+			assertEquals(1, server.getAttribute(objectName, "IdleCount"));
+			final CompositeData acquire = (CompositeData)server.getAttribute(objectName,
+				"AcquireStatistics");
+			assertEquals(2L, acquire.get("count"));
+			assertTrue(0 < (long)acquire.get("maxNanos"));
+		}
+		assertFalse(server.isRegistered(objectName));
+	}
+
+	@Test
+	public void testLeakDetection() throws SQLException, InterruptedException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean.newDataSource(
+			newDataSourceBean("leak", ConnectionPoolBean.builder()
+				.leakDetectionThresholdMillis(100).build())))
+		{
+			dataSource.getConnection().close();
+			try (Connection connection = dataSource.getConnection())
+			{
+				await(() -> dataSource.getLeakCount() == 1);
+				// a possible leak is only logged, the connection stays usable
+				assertFalse(connection.isClosed());
+			}
+			dataSource.getConnection().close();
+			Thread.sleep(200);
+			assertEquals(1, dataSource.getLeakCount());
+		}
+	}
+
+}
@@ -0,0 +1,209 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The unit test class for the class {@link PreparedStatementCache}
+ */
+public class PreparedStatementCacheTest
+{
+
+	@Test
+	public void testStatementCache() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean
+			.newDataSource(PooledDataSourceTest.newDataSourceBean("statementcache",
+				ConnectionPoolBean.builder().maxPoolSize(1).statementCacheSize(2).build())))
+		{
+			PreparedStatement physicalStatement;
+			try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("SELECT ?"))
+			{
+				physicalStatement = statement.unwrap(PreparedStatement.class);
+				assertSame(connection, statement.getConnection());
+				statement.setInt(1, 1);
+				try (ResultSet resultSet = statement.executeQuery())
+				{
+					resultSet.next();
+					assertEquals(1, resultSet.getInt(1));
+				}
+			}
+			assertEquals(0, dataSource.getStatementCacheHitCount());
+			assertEquals(1, dataSource.getStatementCacheMissCount());
+			try (Connection connection = dataSource.getConnection())
+			{
+				final PreparedStatement statement = connection.prepareStatement("SELECT ?");
+				assertSame(physicalStatement, statement.unwrap(PreparedStatement.class));
+				// a second statement of the same sql is prepared while the first is in use
+				final PreparedStatement other = connection.prepareStatement("SELECT ?");
+				assertNotSame(physicalStatement, other.unwrap(PreparedStatement.class));
+				statement.close();
+				assertTrue(statement.isClosed());
+				assertFalse(physicalStatement.isClosed());
+				// the cache has already an idle statement of the sql
+				final PreparedStatement otherPhysicalStatement = other
+					.unwrap(PreparedStatement.class);
+				other.close();
+				assertTrue(otherPhysicalStatement.isClosed());
+				// other result set options are another key
+				connection.prepareStatement("SELECT ?", ResultSet.TYPE_SCROLL_INSENSITIVE,
+					ResultSet.CONCUR_READ_ONLY).close();
+			}
+			assertEquals(1, dataSource.getStatementCacheHitCount());
+			assertEquals(3, dataSource.getStatementCacheMissCount());
+		}
+	}
+
+	@Test
+	public void testRestoreSettings() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean
+			.newDataSource(PooledDataSourceTest.newDataSourceBean("statementcachesettings",
+				ConnectionPoolBean.builder().maxPoolSize(1).statementCacheSize(2).build())))
+		{
+			int maxRows;
+			int fetchSize;
+			int queryTimeout;
+			PreparedStatement physicalStatement;
+			try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("SELECT 1"))
+			{
+				physicalStatement = statement.unwrap(PreparedStatement.class);
+				maxRows = statement.getMaxRows();
+				fetchSize = statement.getFetchSize();
+				queryTimeout = statement.getQueryTimeout();
+				statement.setMaxRows(50);
+				statement.setLargeMaxRows(60);
+				statement.setFetchSize(10);
+				statement.setQueryTimeout(queryTimeout + 11);
+			}
+			try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("SELECT 1"))
+			{
+				assertSame(physicalStatement, statement.unwrap(PreparedStatement.class));
+				assertEquals(maxRows, statement.getMaxRows());
+				assertEquals(fetchSize, statement.getFetchSize());
+				assertEquals(queryTimeout, statement.getQueryTimeout());
+			}
+		}
+	}
+
+	@Test
+	public void testEviction() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean
+			.newDataSource(PooledDataSourceTest.newDataSourceBean("statementcacheeviction",
+				ConnectionPoolBean.builder().maxPoolSize(1).statementCacheSize(2).build())))
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				final PreparedStatement first = connection.prepareStatement("SELECT 1");
+				final PreparedStatement physicalStatement = first.unwrap(PreparedStatement.class);
+				first.close();
+				connection.prepareStatement("SELECT 2").close();
+				connection.prepareStatement("SELECT 3").close();
+				assertTrue(physicalStatement.isClosed());
+				connection.prepareStatement("SELECT 3").close();
+				connection.prepareStatement("SELECT 2").close();
+			}
+			assertEquals(2, dataSource.getStatementCacheHitCount());
+			assertEquals(3, dataSource.getStatementCacheMissCount());
+		}
+	}
+
+	@Test
+	public void testSchemas() throws SQLException
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)DataSourceBean
+			.newDataSource(PooledDataSourceTest.newDataSourceBean("statementcacheschemas",
+				ConnectionPoolBean.builder().maxPoolSize(1).statementCacheSize(4).build())))
+		{
+			try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement())
+			{
+				statement.execute("CREATE SCHEMA tenant_a");
+				statement.execute("CREATE SCHEMA tenant_b");
+				statement.execute("CREATE TABLE tenant_a.item (name varchar(10))");
+				statement.execute("CREATE TABLE tenant_b.item (name varchar(10))");
+				statement.execute("INSERT INTO tenant_a.item VALUES ('first')");
+				statement.execute("INSERT INTO tenant_b.item VALUES ('second')");
+			}
+			assertEquals("first", queryItem(dataSource, "TENANT_A"));
+			// the same sql in another schema is another statement
+			assertEquals("second", queryItem(dataSource, "TENANT_B"));
+			assertEquals("first", queryItem(dataSource, "TENANT_A"));
+			assertEquals(1, dataSource.getStatementCacheHitCount());
+			assertEquals(2, dataSource.getStatementCacheMissCount());
+		}
+	}
+
+	@Test
+	public void testJdbcTemplate()
+	{
+		try (PooledDataSource dataSource = (PooledDataSource)SpringJdbcFactory
+			.newDataSource(PooledDataSourceTest.newDataSourceBean("statementcachetemplate",
+				ConnectionPoolBean.builder().statementCacheSize(8).build())))
+		{
+			final JdbcTemplate jdbcTemplate = SpringJdbcFactory.newJdbcTemplate(dataSource);
+			for (int i = 0; i < 10; i++)
+			{
+				assertEquals(i, jdbcTemplate.queryForObject("SELECT ?", Integer.class, i));
+			}
+			assertEquals(9, dataSource.getStatementCacheHitCount());
+			assertEquals(1, dataSource.getStatementCacheMissCount());
+		}
+	}
+
+	private static String queryItem(final PooledDataSource dataSource, final String schema)
+		throws SQLException
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setSchema(schema);
+			try (PreparedStatement statement = connection.prepareStatement("SELECT name FROM item");
+				ResultSet resultSet = statement.executeQuery())
+			{
+				resultSet.next();
+				return resultSet.getString(1);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+/**
+ * The MIT License
+ *
+ * Copyright (C) 2015 Asterios Raptis
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.github.astrapi69.springconfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.astrapi69.jdbc.DriverRegistry;
+import io.github.astrapi69.jdbc.JdbcConnectionInfo;
+import io.github.astrapi69.jdbc.JdbcUrlBean;
+import io.github.astrapi69.jdbc.h2.H2Launcher;
+
+/**
+ * The unit test class for the class {@link ReadWriteRoutingDataSource}
+ */
+public class ReadWriteRoutingDataSourceTest
+{
+
+	private static String getEndpoint(final Connection connection) throws SQLException
+	{
+		try (Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("SELECT name FROM endpoint"))
+		{
+			resultSet.next();
+			return resultSet.getString(1);
+		}
+	}
+
+	@Test
+	public void testRouting() throws SQLException, ClassNotFoundException
+	{
+		final List<Server> servers = new ArrayList<>();
+		final List<Connection> holders = new ArrayList<>();
+		final List<JdbcConnectionInfo> connectionInfos = new ArrayList<>();
+		try
+		{
+			for (final String name : new String[] { "primary", "replica1", "replica2" })
+			{
+				final Server server = H2Launcher.newTcpServer("-tcpPort", "0", "-ifNotExists");
+				H2Launcher.start(server);
+				servers.add(server);
+				final JdbcUrlBean jdbcUrlBean = JdbcUrlBean.builder().protocol("jdbc:h2:tcp://")
+					.host("localhost").port(server.getPort()).database("mem:routing_" + name)
+					.build();
+				// the holder keeps the in memory database open
+				final Connection holder = DriverRegistry.getConnection("org.h2.Driver",
+					JdbcUrlBean.buildUrlString(jdbcUrlBean) + ";DB_CLOSE_DELAY=-1", "sa", "");
+				holders.add(holder);
+				try (Statement statement = holder.createStatement())
+				{
+					statement.execute("CREATE TABLE endpoint (name varchar(20))");
+					statement.execute("INSERT INTO endpoint VALUES ('" + name + "')");
+				}
+				connectionInfos.add(JdbcConnectionInfo.builder().jdbcUrlBean(jdbcUrlBean)
+					.user("sa").passwort("").build());
+			}
+			final ReadWriteRoutingDataSource dataSource = SpringJdbcFactory
+				.newReadWriteRoutingDataSource("org.h2.Driver", connectionInfos);
+			final LeastOutstandingDataSource replicas = dataSource.getReplicaDataSource();
+			try (Connection connection = dataSource.getConnection())
+			{
+				assertEquals("primary", getEndpoint(connection));
+			}
+			try (Connection first = dataSource.getConnection();
+				Connection second = dataSource.getConnection())
+			{
+				first.setReadOnly(true);
+				second.setReadOnly(true);
+				final String firstEndpoint = getEndpoint(first);
+				final String secondEndpoint = getEndpoint(second);
+				assertTrue(firstEndpoint.startsWith("replica"));
+				assertTrue(secondEndpoint.startsWith("replica"));
+				assertNotEquals(firstEndpoint, secondEndpoint);
+				assertEquals(1, replicas.getOutstandingCount(0));
+				assertEquals(1, replicas.getOutstandingCount(1));
+			}
+			assertEquals(0, replicas.getOutstandingCount(0));
+			assertEquals(0, replicas.getOutstandingCount(1));
+			final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			final TransactionTemplate transactionTemplate = new TransactionTemplate(
+				new DataSourceTransactionManager(dataSource));
+			transactionTemplate.setReadOnly(true);
+			assertTrue(transactionTemplate.execute(status -> jdbcTemplate
+				.queryForObject("SELECT name FROM endpoint", String.class)).startsWith("replica"));
+			transactionTemplate.setReadOnly(false);
+			assertEquals("primary", transactionTemplate.execute(status -> jdbcTemplate
+				.queryForObject("SELECT name FROM endpoint", String.class)));
+		}
+		finally
+		{
+			for (final Connection holder : holders)
+			{
+				try (Statement statement = holder.createStatement())
+				{
+					statement.execute("SHUTDOWN");
+				}
+			}
+			servers.forEach(Server::stop);
+		}
+	}
+
+	@Test
+	public void testClose() throws IOException, SQLException
+	{
+		final List<PooledDataSource> pools = new ArrayList<>();
+		for (final String name : new String[] { "primary", "replica1", "replica2" })
+		{
+			pools.add((PooledDataSource)DataSourceBean.newDataSource(PooledDataSourceTest
+				.newDataSourceBean("routing_close_" + name, ConnectionPoolBean.builder().build())));
+		}
+		try (ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(pools.get(0),
+			List.of(pools.get(1), pools.get(2))))
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				connection.setReadOnly(true);
+				assertTrue(connection.isValid(1));
+			}
+			assertFalse(pools.get(0).isClosed());
+		}
+		for (final PooledDataSource pool : pools)
+		{
+			assertTrue(pool.isClosed());
+		}
+	}
+
+}